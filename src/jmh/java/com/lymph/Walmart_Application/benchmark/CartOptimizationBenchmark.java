@@ -0,0 +1,68 @@
+package com.lymph.Walmart_Application.benchmark;
+
+import com.lymph.Walmart_Application.service.LocalSearchTour;
+import com.lymph.Walmart_Application.service.NavigationGraph;
+import com.lymph.Walmart_Application.service.NearestNeighbourTour;
+import com.lymph.Walmart_Application.service.PathSearchEngine;
+import com.lymph.Walmart_Application.service.RoutePlan;
+import com.lymph.Walmart_Application.service.RoutePlanner;
+import com.lymph.Walmart_Application.service.TourStrategy;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full cart optimisation (stop matrix, ordering and leg expansion) without Mongo,
+ * from the front of the store through a random cart to the back.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CartOptimizationBenchmark {
+
+    private static final int CARTS = 64;
+    private static final long BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+
+    @Param({"grid", "supercenter"})
+    public String layout;
+
+    @Param({"5", "10", "25", "50", "100"})
+    public int cartSize;
+
+    @Param({"nearest-neighbour", "local-search"})
+    public String strategy;
+
+    private NavigationGraph.Snapshot graph;
+    private RoutePlanner planner;
+    private int entrance;
+    private int checkout;
+    private int[][] carts;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        graph = NavigationGraph.Snapshot.build(1, StoreLayouts.named(layout, 42));
+        TourStrategy tourStrategy = strategy.equals("local-search")
+                ? new LocalSearchTour(new NearestNeighbourTour())
+                : new NearestNeighbourTour();
+        planner = new RoutePlanner(new PathSearchEngine(), tourStrategy);
+        entrance = 0;
+        checkout = graph.size() - 1;
+
+        Random random = new Random(11);
+        carts = new int[CARTS][];
+        for (int c = 0; c < CARTS; c++) {
+            carts[c] = random.ints(0, graph.size()).distinct().limit(cartSize).toArray();
+        }
+    }
+
+    @Benchmark
+    public RoutePlan optimise() {
+        int[] cart = carts[next++ & (CARTS - 1)];
+        return planner.plan(graph, entrance, cart, checkout, System.nanoTime() + BUDGET_NANOS);
+    }
+}
@@ -0,0 +1,62 @@
+package com.lymph.Walmart_Application.benchmark;
+
+import com.lymph.Walmart_Application.service.NavigationGraph;
+import com.lymph.Walmart_Application.service.PathSearchEngine;
+import com.lymph.Walmart_Application.service.SearchMode;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single point-to-point path queries between random waypoints, per layout and search mode.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PathQueryBenchmark {
+
+    private static final int PAIRS = 1024;
+
+    @Param({"grid", "supercenter", "disconnected"})
+    public String layout;
+
+    @Param({"ASTAR", "ALT", "ALT_BIDIRECTIONAL"})
+    public SearchMode mode;
+
+    private NavigationGraph.Snapshot graph;
+    private PathSearchEngine engine;
+    private int[] sources;
+    private int[] targets;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        graph = NavigationGraph.Snapshot.build(1, StoreLayouts.named(layout, 42));
+        engine = new PathSearchEngine(mode, 8);
+        Random random = new Random(7);
+        sources = new int[PAIRS];
+        targets = new int[PAIRS];
+        for (int i = 0; i < PAIRS; i++) {
+            sources[i] = random.nextInt(graph.size());
+            targets[i] = random.nextInt(graph.size());
+        }
+        // Build the landmark index outside the measurement.
+        engine.distance(graph, sources[0], targets[0]);
+    }
+
+    @Benchmark
+    public int[] path() {
+        int i = next++ & (PAIRS - 1);
+        return engine.path(graph, sources[i], targets[i]);
+    }
+
+    @Benchmark
+    public double distance() {
+        int i = next++ & (PAIRS - 1);
+        return engine.distance(graph, sources[i], targets[i]);
+    }
+}
@@ -0,0 +1,68 @@
+package com.lymph.Walmart_Application.benchmark;
+
+import com.lymph.Walmart_Application.entity.Location;
+import com.lymph.Walmart_Application.service.NavigationGraph;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Nearest-waypoint snapping through the spatial index, against the linear scan it replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SnapBenchmark {
+
+    private static final int POINTS = 1024;
+
+    @Param({"grid", "supercenter"})
+    public String layout;
+
+    private NavigationGraph.Snapshot graph;
+    private Location[] points;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        graph = NavigationGraph.Snapshot.build(1, StoreLayouts.named(layout, 42));
+        graph.spatialIndex();
+        Random random = new Random(3);
+        double width = 0;
+        double depth = 0;
+        for (int node = 0; node < graph.size(); node++) {
+            width = Math.max(width, graph.x(node));
+            depth = Math.max(depth, graph.y(node));
+        }
+        points = new Location[POINTS];
+        for (int i = 0; i < POINTS; i++) {
+            points[i] = new Location(random.nextDouble() * width, random.nextDouble() * depth, 0);
+        }
+    }
+
+    @Benchmark
+    public int nearest() {
+        return graph.nearestNode(points[next++ & (POINTS - 1)]);
+    }
+
+    @Benchmark
+    public int nearestLinearScan() {
+        Location point = points[next++ & (POINTS - 1)];
+        int nearest = -1;
+        double nearestDistance = Double.MAX_VALUE;
+        for (int node = 0; node < graph.size(); node++) {
+            double dx = graph.x(node) - point.getX();
+            double dy = graph.y(node) - point.getY();
+            double distance = dx * dx + dy * dy;
+            if (distance < nearestDistance) {
+                nearestDistance = distance;
+                nearest = node;
+            }
+        }
+        return nearest;
+    }
+}
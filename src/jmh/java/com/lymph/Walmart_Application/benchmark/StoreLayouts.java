@@ -0,0 +1,92 @@
+package com.lymph.Walmart_Application.benchmark;
+
+import com.lymph.Walmart_Application.entity.Location;
+import com.lymph.Walmart_Application.entity.Waypoint;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Synthetic store graphs for benchmarks. Layouts are deterministic for a given seed.
+ */
+public final class StoreLayouts {
+
+    private static final double AISLE_SPACING = 30;
+    private static final double BAY_SPACING = 8;
+
+    private StoreLayouts() {
+    }
+
+    /**
+     * Named layouts used as JMH parameters:
+     * "grid" (20 aisles x 40 bays, 800 waypoints), "supercenter" (80 x 130, 10,400 waypoints)
+     * and "disconnected" (the grid plus isolated back rooms that cannot be reached from the floor).
+     */
+    public static List<Waypoint> named(String layout, long seed) {
+        return switch (layout) {
+            case "grid" -> aisleGrid(20, 40, 10, seed);
+            case "supercenter" -> aisleGrid(80, 130, 26, seed);
+            case "disconnected" -> withIsolatedAreas(aisleGrid(20, 40, 10, seed), 6, 5);
+            default -> throw new IllegalArgumentException("Unknown layout: " + layout);
+        };
+    }
+
+    /**
+     * Parallel aisles of bays. Neighbouring bays in an aisle are connected, and neighbouring aisles
+     * are joined by a cross-aisle every crossAisleEvery bays as well as at the front and back.
+     */
+    public static List<Waypoint> aisleGrid(int aisles, int bays, int crossAisleEvery, long seed) {
+        Random random = new Random(seed);
+        List<Waypoint> waypoints = new ArrayList<>(aisles * bays);
+        for (int a = 0; a < aisles; a++) {
+            for (int b = 0; b < bays; b++) {
+                double jitter = random.nextDouble() - 0.5;
+                waypoints.add(waypoint(id(a, b), a * AISLE_SPACING + jitter, b * BAY_SPACING + jitter));
+            }
+        }
+        for (int a = 0; a < aisles; a++) {
+            for (int b = 0; b < bays; b++) {
+                Waypoint wp = waypoints.get(a * bays + b);
+                if (b + 1 < bays) connect(wp, waypoints.get(a * bays + b + 1));
+                boolean crossAisle = b == 0 || b == bays - 1 || b % crossAisleEvery == 0;
+                if (crossAisle && a + 1 < aisles) connect(wp, waypoints.get((a + 1) * bays + b));
+            }
+        }
+        return waypoints;
+    }
+
+    /**
+     * Adds small fully connected areas placed beyond the sales floor with no link to it.
+     */
+    public static List<Waypoint> withIsolatedAreas(List<Waypoint> floor, int areas, int size) {
+        List<Waypoint> waypoints = new ArrayList<>(floor);
+        double offset = floor.stream().mapToDouble(wp -> wp.getLocation().getX()).max().orElse(0) + 200;
+        for (int area = 0; area < areas; area++) {
+            Waypoint previous = null;
+            for (int i = 0; i < size; i++) {
+                Waypoint wp = waypoint("isolated-" + area + "-" + i, offset + area * 50, i * BAY_SPACING);
+                if (previous != null) connect(previous, wp);
+                waypoints.add(wp);
+                previous = wp;
+            }
+        }
+        return waypoints;
+    }
+
+    public static String id(int aisle, int bay) {
+        return "a" + aisle + "-b" + bay;
+    }
+
+    private static Waypoint waypoint(String id, double x, double y) {
+        Waypoint wp = new Waypoint();
+        wp.setId(id);
+        wp.setLocation(new Location(x, y, 0));
+        return wp;
+    }
+
+    private static void connect(Waypoint a, Waypoint b) {
+        a.getConnections().add(b.getId());
+        b.getConnections().add(a.getId());
+    }
+}
@@ -0,0 +1,64 @@
+package com.lymph.Walmart_Application;
+
+import com.lymph.Walmart_Application.entity.WaypointType;
+import com.lymph.Walmart_Application.service.ConnectorCosts;
+import com.lymph.Walmart_Application.service.LocalSearchTour;
+import com.lymph.Walmart_Application.service.NearestNeighbourTour;
+import com.lymph.Walmart_Application.service.PathSearchEngine;
+import com.lymph.Walmart_Application.service.RoutePlanner;
+import com.lymph.Walmart_Application.service.SearchMode;
+import com.lymph.Walmart_Application.service.TourStrategy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Wires the Mongo-free routing components shared by the services.
+ */
+@Configuration
+public class RoutingConfig {
+
+    // One engine per application so its pooled scratch buffers are shared by all callers.
+    @Bean
+    public PathSearchEngine pathSearchEngine(@Value("${routing.search.mode:astar}") String mode,
+                                             @Value("${routing.search.landmarks:8}") int landmarks) {
+        return new PathSearchEngine(SearchMode.fromProperty(mode), landmarks);
+    }
+
+    // "nearest-neighbour" for construction only, "local-search" to improve it with 2-opt / Or-opt.
+    @Bean
+    public TourStrategy tourStrategy(@Value("${routing.tour.strategy:local-search}") String strategy) {
+        return switch (strategy) {
+            case "nearest-neighbour" -> new NearestNeighbourTour();
+            case "local-search" -> new LocalSearchTour(new NearestNeighbourTour());
+            default -> throw new IllegalArgumentException("Unknown routing.tour.strategy: " + strategy);
+        };
+    }
+
+    // Bounded pool that solves routes, one thread per core by default; matrix searches fork into the same pool.
+    // Requests reach it through RouteAdmission, which bounds the queue in front of it.
+    @Bean
+    public ExecutorService routingComputeExecutor(@Value("${routing.compute.parallelism:0}") int parallelism) {
+        return new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    // Cost of one floor change through each connector type, in the same units as waypoint coordinates.
+    @Bean
+    public ConnectorCosts connectorCosts(@Value("${routing.connectors.escalator-cost:30}") double escalator,
+                                         @Value("${routing.connectors.elevator-cost:60}") double elevator,
+                                         @Value("${routing.connectors.stairs-cost:40}") double stairs) {
+        return new ConnectorCosts(Map.of(
+                WaypointType.ESCALATOR, escalator,
+                WaypointType.ELEVATOR, elevator,
+                WaypointType.STAIRS, stairs));
+    }
+
+    @Bean
+    public RoutePlanner routePlanner(PathSearchEngine pathSearchEngine, TourStrategy tourStrategy) {
+        return new RoutePlanner(pathSearchEngine, tourStrategy);
+    }
+}
@@ -1,21 +1,71 @@
 // WebConfig.java (Improved Version)
 package com.lymph.Walmart_Application; // Use your correct package name
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.HttpResource;
+import org.springframework.web.servlet.resource.PathResourceResolver;
+
 import java.nio.file.Paths;
+import java.time.Duration;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+    @Value("${maps.dir:uploaded-maps}")
+    private String mapsDirectory;
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
         // This line programmatically finds the absolute path to your upload directory
-        String uploadPath = Paths.get("uploaded-maps").toAbsolutePath().toString();
+        String uploadPath = Paths.get(mapsDirectory).toAbsolutePath().toString();
+
+        // Tiles are named after their content, so a URL never changes meaning and can be cached for good.
+        // A precompressed .gz next to a tile is served when the client accepts gzip; range requests are
+        // answered by the resource handler itself. The ETag is the hash in the file name,
+        // marked for the gzip variant so the two encodings never share a validator.
+        registry.addResourceHandler("/maps/tiles/**")
+                .addResourceLocations("file:///" + uploadPath + "/tiles/")
+                .setCacheControl(CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable())
+                .setEtagGenerator(resource -> {
+                    String name = resource.getFilename();
+                    if (name == null) return null;
+                    String hash = name.substring(0, name.indexOf('.') < 0 ? name.length() : name.indexOf('.'));
+                    boolean encoded = resource instanceof HttpResource http
+                            && http.getResponseHeaders().containsKey(HttpHeaders.CONTENT_ENCODING);
+                    return encoded ? hash + "-gz" : hash;
+                })
+                .resourceChain(true)
+                .addResolver(new EncodedResourceResolver())
+                .addResolver(new PathResourceResolver());
 
+        // Original uploads keep their names, so clients revalidate them on every use.
         // We add "file:///" to tell Spring it's a local file system path
         registry.addResourceHandler("/maps/**")
-                .addResourceLocations("file:///" + uploadPath + "/");
+                .addResourceLocations("file:///" + uploadPath + "/")
+                .setCacheControl(CacheControl.noCache());
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Everything under /maps is uploaded content served from our origin: a plan opened on its own
+        // must not run script, and browsers must not sniff it into another type.
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                response.setHeader("Content-Security-Policy", "script-src 'none'");
+                response.setHeader("X-Content-Type-Options", "nosniff");
+                return true;
+            }
+        }).addPathPatterns("/maps/**");
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,36 @@
+package com.lymph.Walmart_Application.controller;
+
+import com.lymph.Walmart_Application.service.Closure;
+import com.lymph.Walmart_Application.service.ClosureService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Controller for temporary waypoint and aisle closures. A closure is either
+ * {"waypointId"} or {"fromId", "toId"}, with an optional "reason" and ISO-8601 "expiresAt".
+ */
+@CrossOrigin(origins = "http://localhost:5173")
+@RestController
+@RequestMapping("/api/closures")
+public class ClosureController {
+
+    @Autowired
+    private ClosureService closureService;
+
+    @GetMapping
+    public List<Closure> getClosures(@RequestParam(required = false) String storeId) {
+        return closureService.getClosures(storeId);
+    }
+
+    @PostMapping
+    public Closure close(@RequestBody Closure closure) {
+        return closureService.close(closure);
+    }
+
+    @DeleteMapping("/{id}")
+    public Closure reopen(@PathVariable String id) {
+        return closureService.reopen(id);
+    }
+}
@@ -0,0 +1,37 @@
+package com.lymph.Walmart_Application.controller;
+
+import com.lymph.Walmart_Application.service.CongestionIngestResult;
+import com.lymph.Walmart_Application.service.CongestionUpdate;
+import com.lymph.Walmart_Application.service.CongestionWeights;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ingest endpoint for aisle congestion readings from the in-store sensors.
+ */
+@CrossOrigin(origins = "http://localhost:5173")
+@RestController
+@RequestMapping("/api/congestion")
+public class CongestionController {
+
+    @Autowired
+    private CongestionWeights congestionWeights;
+
+    /**
+     * Accepts a batch of {"from", "to", "multiplier"} readings. Routes planned with cost=congestion
+     * use them from the next published epoch.
+     */
+    @PostMapping
+    public CongestionIngestResult ingest(@RequestBody List<CongestionUpdate> readings,
+                                         @RequestParam(required = false) String storeId) {
+        return congestionWeights.ingest(storeId, readings);
+    }
+
+    @GetMapping("/epoch")
+    public Map<String, Long> getEpoch(@RequestParam(required = false) String storeId) {
+        return Map.of("epoch", congestionWeights.epoch(storeId));
+    }
+}
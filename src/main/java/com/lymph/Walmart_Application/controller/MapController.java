@@ -0,0 +1,49 @@
+package com.lymph.Walmart_Application.controller;
+
+import com.lymph.Walmart_Application.service.FloorPlan;
+import com.lymph.Walmart_Application.service.FloorPlanService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Floor plan uploads. Each SVG is tiled on upload; the returned manifest lists the tiles,
+ * which are served from /maps/tiles/ with long-lived cache headers.
+ */
+@CrossOrigin(origins = "http://localhost:5173")
+@RestController
+@RequestMapping("/api/maps")
+public class MapController {
+
+    @Autowired
+    private FloorPlanService floorPlanService;
+
+    @PostMapping(consumes = "multipart/form-data")
+    public ResponseEntity<?> upload(@RequestParam("file") MultipartFile file) throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            return ResponseEntity.ok(floorPlanService.upload(in));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping
+    public List<FloorPlan> list() {
+        return floorPlanService.list();
+    }
+
+    @GetMapping("/current")
+    public ResponseEntity<FloorPlan> current() {
+        return ResponseEntity.of(floorPlanService.current());
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<FloorPlan> get(@PathVariable String id) {
+        return ResponseEntity.of(floorPlanService.get(id));
+    }
+}
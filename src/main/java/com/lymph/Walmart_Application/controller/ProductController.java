@@ -2,34 +2,198 @@ package com.lymph.Walmart_Application.controller;
 
 import com.lymph.Walmart_Application.entity.Location;
 import com.lymph.Walmart_Application.entity.Product;
+import com.lymph.Walmart_Application.service.BatchRouteResult;
+import com.lymph.Walmart_Application.service.BulkImportService;
+import com.lymph.Walmart_Application.service.ChangeSet;
+import com.lymph.Walmart_Application.service.CompactRoute;
+import com.lymph.Walmart_Application.service.ComputeOverloadedException;
+import com.lymph.Walmart_Application.service.CostMode;
+import com.lymph.Walmart_Application.service.ImportFormat;
+import com.lymph.Walmart_Application.service.ImportReport;
+import com.lymph.Walmart_Application.service.ProductSearchIndex;
+import com.lymph.Walmart_Application.service.ProductSearchResult;
+import com.lymph.Walmart_Application.service.ResnapJob;
+import com.lymph.Walmart_Application.service.ResnapService;
 import com.lymph.Walmart_Application.service.RouteService;
+import com.lymph.Walmart_Application.service.RouteTrace;
+import com.lymph.Walmart_Application.service.SyncService;
+import com.lymph.Walmart_Application.service.WavePlan;
+import com.lymph.Walmart_Application.service.WavePlanningService;
+import com.lymph.Walmart_Application.service.WaveRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Controller to handle API requests related to Products.
  * This includes CRUD operations and route optimization.
  */
-@CrossOrigin(origins = "http://localhost:5173")
+@CrossOrigin(origins = "http://localhost:5173", exposedHeaders = {"ETag", SyncResponses.NEXT_CURSOR, "Server-Timing",
+        ProductController.UNREACHABLE_SKUS, HttpHeaders.RETRY_AFTER})
 @RestController
 @RequestMapping("/api/products")
 public class ProductController {
 
+    // Comma-separated SKUs of a route's products that no path leads to.
+    static final String UNREACHABLE_SKUS = "X-Unreachable-Skus";
+
     @Autowired
     private RouteService routeService;
+    @Autowired
+    private BulkImportService bulkImportService;
+    @Autowired
+    private SyncService syncService;
+    @Autowired
+    private ResnapService resnapService;
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+    @Autowired
+    private WavePlanningService wavePlanningService;
+
+    @Value("${search.max-limit:50}")
+    private int maxSearchLimit;
 
+    /**
+     * Lists products, optionally of one store only, and optionally a page of at most limit products
+     * ordered by SKU after cursor. Answers 304 when If-None-Match carries the current ETag.
+     */
     @GetMapping
-    public List<Product> getAllProducts(){
-        return routeService.getAllProducts();
+    public ResponseEntity<?> getAllProducts(WebRequest request, @RequestParam(required = false) String storeId,
+                                            @RequestParam(required = false) String cursor,
+                                            @RequestParam(required = false) Integer limit){
+        return SyncResponses.list(syncService, request, Product.class, storeId, "sku", Product::getSku, cursor, limit);
+    }
+
+    /**
+     * Typeahead search over SKU, name and category, served from memory. Category facets count every
+     * match of q; category narrows the hits only.
+     */
+    @GetMapping("/search")
+    public ProductSearchResult searchProducts(@RequestParam(defaultValue = "") String q,
+                                              @RequestParam(required = false) String storeId,
+                                              @RequestParam(required = false) String category,
+                                              @RequestParam(defaultValue = "10") int limit) {
+        return productSearchIndex.search(q, storeId, category, Math.max(0, Math.min(limit, maxSearchLimit)));
     }
 
+    /**
+     * SKUs upserted and deleted since a version returned by an earlier call.
+     */
+    @GetMapping("/changes")
+    public ChangeSet getProductChanges(@RequestParam long since) {
+        return syncService.changesSince(Product.class, "sku", since);
+    }
+
+    /**
+     * cost=congestion plans with live aisle congestion instead of plain distances.
+     * Products no path leads to are left out of the route and listed in the X-Unreachable-Skus header.
+     * format=compact answers with a {@link CompactRoute} instead of the full list of points.
+     * With trace=true the per-stage timings are returned in a Server-Timing header,
+     * which browser dev tools show alongside the request.
+     */
     @PostMapping("/optimize-route")
-    public List<Location> optimizeRoute (@RequestBody List<String> productIds){
-        return routeService.getOptimisedPath(productIds);
+    public CompletableFuture<ResponseEntity<?>> optimizeRoute (@RequestBody List<String> productIds,
+                                                         @RequestParam(required = false) String storeId,
+                                                         @RequestParam(required = false) Long budgetMs,
+                                                         @RequestParam(required = false) String cost,
+                                                         @RequestParam(defaultValue = "full") String format,
+                                                         @RequestParam(defaultValue = "false") boolean trace){
+        RouteTrace routeTrace = new RouteTrace();
+        if ("compact".equals(format)) {
+            return routeService.planCompactRouteAsync(storeId, productIds, budgetMs, costMode(cost), routeTrace)
+                    .thenApply(route -> routeResponse(route.getUnreachableSkus(), trace ? routeTrace : null).body(route));
+        }
+        if (!"full".equals(format)) throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown route format: " + format);
+        return routeService.planRouteAsync(storeId, productIds, budgetMs, costMode(cost), routeTrace)
+                .thenApply(plan -> routeResponse(plan.getUnreachableSkus(), trace ? routeTrace : null).body(plan.getPath()));
+    }
+
+    /**
+     * Streams a route as server-sent events: a "leg" event per leg of the preliminary nearest-neighbour
+     * tour as soon as it is known, the first after a single search from the entrance, then one "route"
+     * event with the final plan, which replaces the legs received so far.
+     */
+    @PostMapping(value = "/optimize-route/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamRoute(@RequestBody List<String> productIds,
+                                  @RequestParam(required = false) String storeId,
+                                  @RequestParam(required = false) Long budgetMs,
+                                  @RequestParam(required = false) String cost) {
+        SseEmitter emitter = new SseEmitter();
+        routeService.streamRouteAsync(storeId, productIds, budgetMs, costMode(cost), leg -> send(emitter, "leg", leg))
+                .whenComplete((plan, error) -> {
+                    if (error != null) {
+                        emitter.completeWithError(error instanceof CompletionException && error.getCause() != null
+                                ? error.getCause() : error);
+                        return;
+                    }
+                    send(emitter, "route", plan);
+                    emitter.complete();
+                });
+        return emitter;
+    }
+
+    // A client that went away only loses its events; the route is still finished and cached.
+    private static void send(SseEmitter emitter, String name, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            // disconnected or timed out; nothing left to deliver to
+        }
+    }
+
+    private static ResponseEntity.BodyBuilder routeResponse(List<String> unreachableSkus, RouteTrace trace) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (!unreachableSkus.isEmpty()) response.header(UNREACHABLE_SKUS, String.join(",", unreachableSkus));
+        if (trace != null) response.header("Server-Timing", trace.toServerTiming());
+        return response;
+    }
+
+    @PostMapping("/optimize-routes")
+    public CompletableFuture<List<BatchRouteResult>> optimizeRoutes(@RequestBody List<List<String>> carts,
+                                                 @RequestParam(required = false) String storeId,
+                                                 @RequestParam(required = false) Long budgetMs,
+                                                 @RequestParam(required = false) String cost) {
+        return routeService.planRoutes(storeId, carts, budgetMs, costMode(cost));
+    }
+
+    /**
+     * Groups online orders into picker batches within maxItems / maxTotes and routes each batch as one
+     * tour, reporting the distance saved against routing every order separately.
+     */
+    @PostMapping("/optimize-wave")
+    public CompletableFuture<WavePlan> optimizeWave(@RequestBody WaveRequest wave,
+                                                    @RequestParam(required = false) String storeId,
+                                                    @RequestParam(required = false) Long budgetMs,
+                                                    @RequestParam(required = false) String cost) {
+        return wavePlanningService.plan(storeId, wave, budgetMs, costMode(cost));
+    }
+
+    /**
+     * Route solving refused at admission: 503 with Retry-After, so clients back off instead of timing out.
+     */
+    @ExceptionHandler(ComputeOverloadedException.class)
+    public ResponseEntity<String> computeOverloaded(ComputeOverloadedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, e.getRetryAfter().toSeconds())))
+                .body(e.getMessage());
+    }
+
+    private static CostMode costMode(String cost) {
+        return cost == null ? null : CostMode.fromProperty(cost);
     }
 
     @PostMapping
@@ -37,6 +201,37 @@ public class ProductController {
         return routeService.createProduct(product);
     }
 
+    /**
+     * Streams products from an NDJSON or CSV body (columns sku, storeId, name, category, waypointId, x, y, z)
+     * and upserts them by SKU in batches.
+     */
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", "text/csv"})
+    public ImportReport importProducts(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType, InputStream body,
+                                       @RequestParam(required = false) Integer batchSize,
+                                       @RequestParam(defaultValue = "false") boolean snap) {
+        return bulkImportService.importProducts(body, ImportFormat.fromContentType(contentType), batchSize, snap);
+    }
+
+    /**
+     * Starts re-snapping the store's products to their nearest waypoints in the background, or
+     * returns the job already running. Poll GET /resnap/{id} for progress.
+     */
+    @PostMapping("/resnap")
+    public ResponseEntity<ResnapJob> startResnap(@RequestParam(required = false) String storeId) {
+        return ResponseEntity.accepted().body(resnapService.start(storeId, ResnapJob.Trigger.MANUAL));
+    }
+
+    @GetMapping("/resnap")
+    public ResponseEntity<ResnapJob> getLatestResnap(@RequestParam(required = false) String storeId) {
+        ResnapJob job = resnapService.getLatest(storeId);
+        return job == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(job);
+    }
+
+    @GetMapping("/resnap/{id}")
+    public ResnapJob getResnap(@PathVariable String id) {
+        return resnapService.getJob(id);
+    }
+
     @PutMapping("/{sku}")
     public Product updateProduct(@PathVariable String sku, @RequestBody Product productDetails) {
         return routeService.updateProduct(sku, productDetails);
@@ -53,6 +248,11 @@ public class ProductController {
         return routeService.updateProductLocation(sku, newLocation);
     }
 
+    @PutMapping("/locations")
+    public List<Product> updateProductLocations(@RequestBody Map<String, Location> locations) {
+        return routeService.updateProductLocations(locations);
+    }
+
     @PutMapping("/{sku}/assign-waypoint")
     public Product assignProductToWaypoint(@PathVariable String sku, @RequestBody Map<String, String> payload) {
         String waypointId = payload.get("waypointId");
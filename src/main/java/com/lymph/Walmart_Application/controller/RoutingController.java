@@ -0,0 +1,53 @@
+package com.lymph.Walmart_Application.controller;
+
+import com.lymph.Walmart_Application.service.ConnectivityReport;
+import com.lymph.Walmart_Application.service.CostMode;
+import com.lymph.Walmart_Application.service.PathQueryResult;
+import com.lymph.Walmart_Application.service.PathfindingService;
+import com.lymph.Walmart_Application.service.RouteCache;
+import com.lymph.Walmart_Application.service.RouteCacheStats;
+import com.lymph.Walmart_Application.service.SearchMode;
+import com.lymph.Walmart_Application.service.SearchStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Controller for inspecting the routing engine: single path queries, search statistics and graph connectivity.
+ */
+@CrossOrigin(origins = "http://localhost:5173")
+@RestController
+@RequestMapping("/api/routing")
+public class RoutingController {
+
+    @Autowired
+    private PathfindingService pathfindingService;
+    @Autowired
+    private RouteCache routeCache;
+
+    @GetMapping("/path")
+    public PathQueryResult findPath(@RequestParam String from, @RequestParam String to,
+                                    @RequestParam(required = false) String storeId,
+                                    @RequestParam(required = false) String mode,
+                                    @RequestParam(required = false) String cost) {
+        return pathfindingService.query(storeId, from, to, mode == null ? null : SearchMode.fromProperty(mode),
+                cost == null ? null : CostMode.fromProperty(cost));
+    }
+
+    @GetMapping("/stats")
+    public SearchStats getSearchStats() {
+        return pathfindingService.getSearchStats();
+    }
+
+    /**
+     * Orphaned waypoints and disconnected regions of a store's graph, for fixing the layout.
+     */
+    @GetMapping("/connectivity")
+    public ConnectivityReport getConnectivity(@RequestParam(required = false) String storeId) {
+        return pathfindingService.connectivity(storeId);
+    }
+
+    @GetMapping("/cache")
+    public RouteCacheStats getCacheStats() {
+        return routeCache.getStats();
+    }
+}
@@ -19,12 +19,13 @@ public class SettingsController {
     private RouteService routeService;
 
     @GetMapping
-    public Settings getSettings() {
-        return routeService.getSettings();
+    public Settings getSettings(@RequestParam(required = false) String storeId) {
+        return routeService.getSettings(storeId);
     }
 
     @PutMapping("/location/{type}")
-    public Settings updateLocationSetting(@PathVariable String type, @RequestBody Location location) {
-        return routeService.updateLocationSetting(type, location);
+    public Settings updateLocationSetting(@PathVariable String type, @RequestBody Location location,
+                                          @RequestParam(required = false) String storeId) {
+        return routeService.updateLocationSetting(storeId, type, location);
     }
 }
\ No newline at end of file
@@ -0,0 +1,40 @@
+package com.lymph.Walmart_Application.controller;
+
+import com.lymph.Walmart_Application.service.SyncService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.function.Function;
+
+/**
+ * Shared handling of synced collection listings: the collection's sync version is the ETag, so an
+ * unchanged collection answers If-None-Match with 304 without touching the documents. With a limit
+ * the response is one key-ordered page and X-Next-Cursor points at the next one; without, the whole
+ * collection is streamed as a JSON array.
+ */
+final class SyncResponses {
+
+    static final String NEXT_CURSOR = "X-Next-Cursor";
+
+    private SyncResponses() {
+    }
+
+    static <T> ResponseEntity<?> list(SyncService syncService, WebRequest request, Class<T> type, String storeId,
+                                      String keyField, Function<T, String> key, String cursor, Integer limit) {
+        String etag = "\"" + syncService.version(type) + "\"";
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        if (limit != null) {
+            SyncService.Page<T> page = syncService.page(type, storeId, keyField, key, cursor, limit);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(etag);
+            if (page.nextCursor() != null) response.header(NEXT_CURSOR, page.nextCursor());
+            return response.body(page.items());
+        }
+        StreamingResponseBody body = out -> syncService.writeAll(type, storeId, out);
+        return ResponseEntity.ok().eTag(etag).contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+}
@@ -2,28 +2,70 @@ package com.lymph.Walmart_Application.controller;
 
 import com.lymph.Walmart_Application.entity.Location;
 import com.lymph.Walmart_Application.entity.Waypoint;
+import com.lymph.Walmart_Application.service.BulkImportService;
+import com.lymph.Walmart_Application.service.ChangeSet;
+import com.lymph.Walmart_Application.service.EdgeEdit;
+import com.lymph.Walmart_Application.service.EdgeEditResult;
+import com.lymph.Walmart_Application.service.ImportFormat;
+import com.lymph.Walmart_Application.service.ImportReport;
+import com.lymph.Walmart_Application.service.SyncService;
 import com.lymph.Walmart_Application.service.WaypointService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
 
 /**
  * Controller for creating, retrieving, updating, deleting, and connecting Waypoint data.
  */
-@CrossOrigin(origins = "http://localhost:5173")
+@CrossOrigin(origins = "http://localhost:5173", exposedHeaders = {"ETag", SyncResponses.NEXT_CURSOR})
 @RestController
 @RequestMapping("/api/waypoints")
 public class WaypointController {
 
     @Autowired
     private WaypointService waypointService;
+    @Autowired
+    private BulkImportService bulkImportService;
+    @Autowired
+    private SyncService syncService;
 
+    /**
+     * Lists waypoints, optionally of one store only, and optionally a page of at most limit waypoints
+     * ordered by ID after cursor. Answers 304 when If-None-Match carries the current ETag.
+     */
     @GetMapping
-    public List<Waypoint> getAllWaypoints() {
-        return waypointService.getAllWaypoints();
+    public ResponseEntity<?> getAllWaypoints(WebRequest request, @RequestParam(required = false) String storeId,
+                                             @RequestParam(required = false) String cursor,
+                                             @RequestParam(required = false) Integer limit) {
+        return SyncResponses.list(syncService, request, Waypoint.class, storeId, "_id", Waypoint::getId, cursor, limit);
+    }
+
+    /**
+     * Waypoint IDs upserted and deleted since a version returned by an earlier call.
+     */
+    @GetMapping("/changes")
+    public ChangeSet getWaypointChanges(@RequestParam long since) {
+        return syncService.changesSince(Waypoint.class, "_id", since);
+    }
+
+    @GetMapping("/nearest")
+    public List<Waypoint> findNearestWaypoints(@RequestParam double x, @RequestParam double y,
+                                               @RequestParam(defaultValue = "0") double z,
+                                               @RequestParam(required = false) String storeId,
+                                               @RequestParam(defaultValue = "1") int k) {
+        return waypointService.findNearestWaypoints(storeId, new Location(x, y, z), k);
+    }
+
+    @PostMapping("/snap")
+    public List<String> snapToWaypoints(@RequestBody List<Location> locations,
+                                        @RequestParam(required = false) String storeId) {
+        return waypointService.snapToWaypoints(storeId, locations);
     }
 
     @PostMapping
@@ -31,6 +73,16 @@ public class WaypointController {
         return waypointService.createWaypoint(waypoint);
     }
 
+    /**
+     * Streams waypoints from an NDJSON or CSV body (columns id, storeId, floor, type, x, y, z, connections
+     * separated by ';') and upserts them by ID in batches. Each affected store's graph is rebuilt once afterwards.
+     */
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", "text/csv"})
+    public ImportReport importWaypoints(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType, InputStream body,
+                                        @RequestParam(required = false) Integer batchSize) {
+        return bulkImportService.importWaypoints(body, ImportFormat.fromContentType(contentType), batchSize);
+    }
+
     @PostMapping("/{id}/connect")
     public ResponseEntity<?> addConnection(@PathVariable String id, @RequestBody Map<String, String> payload) {
         String connectToId = payload.get("connectToId");
@@ -41,6 +93,20 @@ public class WaypointController {
         return ResponseEntity.ok().build();
     }
 
+    @DeleteMapping("/{id}/connect/{otherId}")
+    public ResponseEntity<?> removeConnection(@PathVariable String id, @PathVariable String otherId) {
+        waypointService.removeConnection(id, otherId);
+        return ResponseEntity.ok().build();
+    }
+
+    /**
+     * Applies a list of {"from", "to", "operation": "CONNECT" | "DISCONNECT"} edits in one request.
+     */
+    @PostMapping("/connections")
+    public EdgeEditResult applyEdgeEdits(@RequestBody List<EdgeEdit> edits) {
+        return waypointService.applyEdgeEdits(edits);
+    }
+
     @PutMapping("/{id}/location")
     public Waypoint updateWaypointLocation(@PathVariable String id, @RequestBody Location newLocation) {
         return waypointService.updateWaypointLocation(id, newLocation);
@@ -20,11 +20,15 @@ public class Product {
     private String sku;
     private String name;
     private String category; // Added missing category field
+    private String storeId; // Store stocking the product; null means the default store
     private String waypointId; // Associates product with a waypoint for pathfinding
+    private boolean waypointPinned; // Assigned by hand; re-snapping after layout changes leaves it alone
 
     @Embedded // Embeds the Location object directly into the Product table/document
     private Location location;
 
+    private Long version; // Sync version of the last write, issued by ChangeTracker
+
     // The conflicting inner static Location class has been REMOVED.
     // The project now uses the single, standalone Location.java entity.
 }
\ No newline at end of file
@@ -13,7 +13,8 @@ import lombok.Data;
 public class Settings {
 
     @Id
-    private String id; // A fixed ID, e.g., "store_config"
+    private String id; // "store_config" for the default store, "store_config:<storeId>" for the others
+    private String storeId;
 
     private Location entranceLocation;
     private Location checkoutLocation;
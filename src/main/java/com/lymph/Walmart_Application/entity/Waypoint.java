@@ -15,8 +15,12 @@ import lombok.Data;
 public class Waypoint {
     @Id
     private String id;
+    private String storeId; // Store the waypoint belongs to; null means the default store
+    private Integer floor; // Floor level; location.z holds the floor's height
+    private WaypointType type; // null is treated as an aisle
     private Location location;
     // Initialize the list to prevent NullPointerExceptions when adding connections.
     private List<String> connections = new ArrayList<>();
+    private Long version; // Sync version of the last write, issued by ChangeTracker
 
 }
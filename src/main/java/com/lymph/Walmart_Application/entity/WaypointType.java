@@ -0,0 +1,16 @@
+package com.lymph.Walmart_Application.entity;
+
+/**
+ * Kind of waypoint. Connector waypoints link floors, and edges through them that change floor
+ * cost the configured connector cost instead of their straight-line length.
+ */
+public enum WaypointType {
+    AISLE,
+    ESCALATOR,
+    ELEVATOR,
+    STAIRS;
+
+    public boolean isConnector() {
+        return this != AISLE;
+    }
+}
@@ -1,10 +1,14 @@
-// src/main/java/com/lymph/Walmart_Application/repo/WaypointRepository.java
 package com.lymph.Walmart_Application.repo;
 
 import com.lymph.Walmart_Application.entity.Waypoint;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface WaypointRepository extends MongoRepository<Waypoint, String> {
-}
\ No newline at end of file
+    List<Waypoint> findByStoreId(String storeId);
+    List<Waypoint> findByStoreIdIn(Collection<String> storeIds);
+}
@@ -0,0 +1,21 @@
+package com.lymph.Walmart_Application.service;
+
+import com.lymph.Walmart_Application.entity.Location;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Outcome of one cart in a batch route request. Exactly one of path and error is set;
+ * unreachableSkus lists the cart's products that no path leads to.
+ */
+@Data
+@AllArgsConstructor
+public class BatchRouteResult {
+    private int index;
+    private List<Location> path;
+    private double length;
+    private List<String> unreachableSkus;
+    private String error;
+}
@@ -0,0 +1,359 @@
+package com.lymph.Walmart_Application.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.lymph.Walmart_Application.entity.Location;
+import com.lymph.Walmart_Application.entity.Product;
+import com.lymph.Walmart_Application.entity.Waypoint;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Streams products and waypoints from NDJSON or CSV into Mongo. Records are parsed and
+ * validated one at a time and written through unordered bulk upserts, so an import of any
+ * size holds at most one batch in memory. A bad record is reported and skipped; it does not
+ * fail the rest of the import.
+ */
+@Service
+public class BulkImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkImportService.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    @Autowired
+    private NavigationGraph navigationGraph;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private ChangeTracker changeTracker;
+    @Autowired
+    private ProductWaypointIndex productWaypointIndex;
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Value("${import.batch-size:1000}")
+    private int defaultBatchSize;
+    @Value("${import.max-reported-errors:100}")
+    private int maxReportedErrors;
+
+    private final CsvMapper csvMapper = new CsvMapper();
+
+    /**
+     * Upserts products by SKU. Fields missing from a record keep their stored value.
+     * @param snap when true, products with a location but no waypointId are assigned their nearest
+     *             waypoint in their store's graph.
+     */
+    public ImportReport importProducts(InputStream body, ImportFormat format, Integer batchSize, boolean snap) {
+        Set<String> stores = new HashSet<>();
+        ImportReport report = run(body, format, batchSize, Product.class, "sku",
+                node -> productUpsert(node, snap, stores));
+        if (report.getInserted() + report.getUpdated() > 0) {
+            stores.forEach(productWaypointIndex::invalidate);
+            productSearchIndex.invalidate();
+        }
+        return report;
+    }
+
+    /**
+     * Upserts waypoints by ID and reloads the graph of every store they belong to once at the end.
+     * Connections are stored as listed, so an undirected aisle must be listed on both of its waypoints.
+     */
+    public ImportReport importWaypoints(InputStream body, ImportFormat format, Integer batchSize) {
+        Set<String> stores = new HashSet<>();
+        ImportReport report = run(body, format, batchSize, Waypoint.class, "_id", node -> waypointUpsert(node, stores));
+        if (report.getInserted() + report.getUpdated() > 0) stores.forEach(navigationGraph::reload);
+        return report;
+    }
+
+    private record Upsert(String key, Update update) {}
+
+    private record Pending(long line, Upsert upsert) {}
+
+    @FunctionalInterface
+    private interface RecordMapper {
+        Upsert map(JsonNode record) throws JsonProcessingException;
+    }
+
+    private ImportReport run(InputStream body, ImportFormat format, Integer batchSize, Class<?> type,
+                             String keyField, RecordMapper mapper) {
+        long started = System.nanoTime();
+        int size = batchSize != null && batchSize > 0 ? batchSize : defaultBatchSize;
+        ImportReport report = new ImportReport();
+        report.setFormat(format);
+
+        // Keyed by record key so a repeated key within one batch cannot race into two documents.
+        Map<String, Pending> batch = new LinkedHashMap<>();
+        try (RecordReader reader = open(body, format)) {
+            for (ParsedRecord record = reader.next(); record != null; record = reader.next()) {
+                report.setReceived(report.getReceived() + 1);
+                if (record.error() != null) {
+                    fail(report, record.line(), null, record.error());
+                    continue;
+                }
+                Upsert upsert;
+                try {
+                    upsert = mapper.map(record.node());
+                } catch (JsonProcessingException e) {
+                    fail(report, record.line(), null, e.getOriginalMessage());
+                    continue;
+                } catch (IllegalArgumentException e) {
+                    fail(report, record.line(), null, e.getMessage());
+                    continue;
+                }
+                if (batch.put(upsert.key(), new Pending(record.line(), upsert)) != null) {
+                    report.setDuplicates(report.getDuplicates() + 1);
+                }
+                if (batch.size() >= size) flush(type, keyField, batch, report);
+            }
+            report.setComplete(true);
+        } catch (IOException e) {
+            fail(report, 0, null, "Import stopped, body could not be read: " + e.getMessage());
+        }
+        flush(type, keyField, batch, report);
+
+        report.setElapsedMs((System.nanoTime() - started) / 1_000_000);
+        log.info("Imported {} {} records: {} inserted, {} updated, {} failed in {} batches ({} ms)",
+                report.getReceived(), type.getSimpleName(), report.getInserted(), report.getUpdated(),
+                report.getFailed(), report.getBatches(), report.getElapsedMs());
+        return report;
+    }
+
+    private void flush(Class<?> type, String keyField, Map<String, Pending> batch, ImportReport report) {
+        if (batch.isEmpty()) return;
+        List<Pending> pending = new ArrayList<>(batch.values());
+        batch.clear();
+
+        BulkWriteResult result = changeTracker.stamp(type, version -> {
+            BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, type);
+            for (Pending p : pending) {
+                operations.upsert(Query.query(Criteria.where(keyField).is(p.upsert().key())),
+                        stamped(p.upsert().update(), version));
+            }
+            try {
+                return operations.execute();
+            } catch (BulkOperationException e) {
+                // Unordered: everything except the listed operations was still applied.
+                for (BulkWriteError error : e.getErrors()) {
+                    Pending p = pending.get(error.getIndex());
+                    fail(report, p.line(), p.upsert().key(), error.getMessage());
+                }
+                return e.getResult();
+            }
+        });
+        report.setInserted(report.getInserted() + result.getUpserts().size());
+        report.setUpdated(report.getUpdated() + result.getModifiedCount());
+        report.setUnchanged(report.getUnchanged() + result.getMatchedCount() - result.getModifiedCount());
+        report.setBatches(report.getBatches() + 1);
+        log.debug("Import batch {} written: {} records so far", report.getBatches(), report.getReceived());
+    }
+
+    /**
+     * Turns the fields an upsert sets into one pipeline $set that also stamps the version, but only
+     * when a field actually changes, so re-importing identical records leaves them unmodified and
+     * out of the next delta sync. Values are passed as literals so strings starting with $ stay data.
+     */
+    private AggregationUpdate stamped(Update update, long version) {
+        Document fields = update.getUpdateObject().get("$set", Document.class);
+        Document stage = new Document();
+        List<Document> unchanged = new ArrayList<>();
+        unchanged.add(new Document("$ne", List.of(new Document("$type", "$version"), "missing")));
+        fields.forEach((field, value) -> {
+            Document literal = new Document("$literal", mongoTemplate.getConverter().convertToMongoType(value));
+            unchanged.add(new Document("$eq", List.of("$" + field, literal)));
+            stage.put(field, literal);
+        });
+        // Every expression of one $set stage sees the document as it was before the stage.
+        stage.put("version", new Document("$cond", List.of(new Document("$and", unchanged), "$version", version)));
+        return AggregationUpdate.from(List.of(context -> new Document("$set", stage)));
+    }
+
+    private void fail(ImportReport report, long line, String key, String message) {
+        report.setFailed(report.getFailed() + 1);
+        if (report.getErrors().size() < maxReportedErrors) {
+            report.getErrors().add(new ImportReport.RecordError(line, key, message));
+        }
+    }
+
+    private Upsert productUpsert(JsonNode node, boolean snap, Set<String> stores) throws JsonProcessingException {
+        Product product = objectMapper.treeToValue(node, Product.class);
+        if (product.getSku() == null || product.getSku().isBlank()) {
+            throw new IllegalArgumentException("sku is required");
+        }
+        validate(product.getLocation());
+        String store = NavigationGraph.storeOf(product.getStoreId());
+        stores.add(store);
+        boolean unassigned = product.getWaypointId() == null || product.getWaypointId().isBlank();
+        if (snap && unassigned && product.getLocation() != null) {
+            NavigationGraph.Snapshot graph = navigationGraph.snapshot(store);
+            int nearest = graph.nearestNode(product.getLocation());
+            if (nearest >= 0) product.setWaypointId(graph.id(nearest));
+        }
+
+        Update update = new Update();
+        if (product.getStoreId() != null) update.set("storeId", product.getStoreId());
+        if (product.getName() != null) update.set("name", product.getName());
+        if (product.getCategory() != null) update.set("category", product.getCategory());
+        if (product.getWaypointId() != null) {
+            // Waypoints given in the file are hand assignments; snapped ones follow layout changes.
+            update.set("waypointId", product.getWaypointId()).set("waypointPinned", !unassigned);
+        }
+        if (product.getLocation() != null) update.set("location", product.getLocation());
+        return new Upsert(product.getSku(), update);
+    }
+
+    private Upsert waypointUpsert(JsonNode node, Set<String> stores) throws JsonProcessingException {
+        Waypoint waypoint = objectMapper.treeToValue(node, Waypoint.class);
+        if (waypoint.getId() == null || waypoint.getId().isBlank()) {
+            throw new IllegalArgumentException("id is required");
+        }
+        if (waypoint.getLocation() == null) throw new IllegalArgumentException("location is required");
+        validate(waypoint.getLocation());
+
+        stores.add(NavigationGraph.storeOf(waypoint.getStoreId()));
+
+        Update update = new Update().set("location", waypoint.getLocation());
+        if (waypoint.getStoreId() != null) update.set("storeId", waypoint.getStoreId());
+        if (waypoint.getFloor() != null) update.set("floor", waypoint.getFloor());
+        if (waypoint.getType() != null) update.set("type", waypoint.getType());
+        if (node.has("connections") && waypoint.getConnections() != null) {
+            Set<String> connections = new LinkedHashSet<>(waypoint.getConnections());
+            connections.remove(waypoint.getId());
+            connections.remove(null);
+            update.set("connections", new ArrayList<>(connections));
+        }
+        return new Upsert(waypoint.getId(), update);
+    }
+
+    private static void validate(Location location) {
+        if (location == null) return;
+        if (!Double.isFinite(location.getX()) || !Double.isFinite(location.getY()) || !Double.isFinite(location.getZ())) {
+            throw new IllegalArgumentException("location coordinates must be finite numbers");
+        }
+    }
+
+    private record ParsedRecord(long line, JsonNode node, String error) {}
+
+    private interface RecordReader extends Closeable {
+        /**
+         * @return the next record, or null at the end of the body.
+         */
+        ParsedRecord next() throws IOException;
+    }
+
+    private RecordReader open(InputStream body, ImportFormat format) throws IOException {
+        return format == ImportFormat.CSV ? csvReader(body) : ndjsonReader(body);
+    }
+
+    private RecordReader ndjsonReader(InputStream body) {
+        BufferedReader lines = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        return new RecordReader() {
+            private long line;
+
+            @Override
+            public ParsedRecord next() throws IOException {
+                for (String text = lines.readLine(); text != null; text = lines.readLine()) {
+                    line++;
+                    if (text.isBlank()) continue;
+                    try {
+                        JsonNode node = objectMapper.readTree(text);
+                        if (!node.isObject()) return new ParsedRecord(line, null, "Expected a JSON object");
+                        return new ParsedRecord(line, node, null);
+                    } catch (JsonProcessingException e) {
+                        return new ParsedRecord(line, null, "Malformed JSON: " + e.getOriginalMessage());
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            public void close() throws IOException {
+                lines.close();
+            }
+        };
+    }
+
+    private RecordReader csvReader(InputStream body) throws IOException {
+        MappingIterator<Map<String, String>> rows = csvMapper.readerFor(Map.class)
+                .with(CsvSchema.emptySchema().withHeader())
+                .readValues(body);
+        return new RecordReader() {
+            @Override
+            public ParsedRecord next() throws IOException {
+                long line = rows.getCurrentLocation().getLineNr();
+                try {
+                    if (!rows.hasNextValue()) return null;
+                    // Taken from the parser, since quoted cells may span several lines.
+                    line = rows.getCurrentLocation().getLineNr();
+                    return new ParsedRecord(line, csvRecord(rows.nextValue()), null);
+                } catch (JsonProcessingException e) {
+                    // The parser skips the rest of a malformed row, so the next row still reads.
+                    return new ParsedRecord(line, null, "Malformed CSV row: " + e.getOriginalMessage());
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                rows.close();
+            }
+        };
+    }
+
+    // Reshapes a flat CSV row into the entity's JSON shape; blank cells are treated as absent.
+    private ObjectNode csvRecord(Map<String, String> row) {
+        ObjectNode node = objectMapper.createObjectNode();
+        ObjectNode location = null;
+        for (Map.Entry<String, String> cell : row.entrySet()) {
+            String column = cell.getKey().trim();
+            String value = cell.getValue() == null ? "" : cell.getValue().trim();
+            if (value.isEmpty()) continue;
+            switch (column) {
+                case "x", "y", "z" -> {
+                    if (location == null) location = node.putObject("location");
+                    location.put(column, value);
+                }
+                case "connections" -> {
+                    ArrayNode connections = node.putArray("connections");
+                    for (String id : value.split(";")) {
+                        if (!id.isBlank()) connections.add(id.trim());
+                    }
+                }
+                default -> node.put(column, value);
+            }
+        }
+        return node;
+    }
+}
@@ -0,0 +1,19 @@
+package com.lymph.Walmart_Application.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Keys of the documents upserted and deleted after a client's last sync version.
+ * The client passes version back as since on its next call.
+ */
+@Data
+@AllArgsConstructor
+public class ChangeSet {
+    private long since;
+    private long version;
+    private List<String> upserted;
+    private List<String> deleted;
+}
@@ -0,0 +1,93 @@
+package com.lymph.Walmart_Application.service;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+
+/**
+ * Issues per-collection version stamps for delta sync. Every write to a synced collection takes
+ * the next value of that collection's counter (kept in the "counters" collection) and stores it
+ * in the documents it touches; deletes leave a tombstone with their version in "tombstones".
+ * <p>
+ * A version is only handed to readers as a sync point once every write holding a lower version
+ * has finished, so a client that syncs up to {@link #watermark} never misses a slower writer.
+ * In-flight writes are tracked in memory, which assumes a single application instance.
+ */
+@Component
+public class ChangeTracker {
+
+    static final String COUNTERS = "counters";
+    static final String TOMBSTONES = "tombstones";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private final Map<String, Versions> versions = new ConcurrentHashMap<>();
+
+    private static final class Versions {
+        final AtomicLong lastIssued = new AtomicLong(-1);
+        final ConcurrentSkipListSet<Long> inFlight = new ConcurrentSkipListSet<>();
+    }
+
+    /**
+     * Runs a write with a freshly issued version for the entity's collection. The version stays
+     * in flight, holding back the watermark, until the write returns or throws.
+     */
+    public <T> T stamp(Class<?> type, LongFunction<T> write) {
+        String collection = mongoTemplate.getCollectionName(type);
+        Versions state = versions(collection);
+        Document counter = mongoTemplate.findAndModify(Query.query(Criteria.where("_id").is(collection)),
+                new Update().inc("value", 1L), FindAndModifyOptions.options().returnNew(true).upsert(true),
+                Document.class, COUNTERS);
+        long version = counter.get("value", Number.class).longValue();
+        state.inFlight.add(version);
+        state.lastIssued.accumulateAndGet(version, Math::max);
+        try {
+            return write.apply(version);
+        } finally {
+            state.inFlight.remove(version);
+        }
+    }
+
+    /**
+     * Records that the document with the given key was deleted at this version.
+     */
+    public void tombstone(Class<?> type, String key, long version) {
+        mongoTemplate.insert(new Document("collection", mongoTemplate.getCollectionName(type))
+                .append("key", key)
+                .append("version", version), TOMBSTONES);
+    }
+
+    /**
+     * @return the highest version for which every write at or below it has completed.
+     */
+    public long watermark(Class<?> type) {
+        Versions state = versions(mongoTemplate.getCollectionName(type));
+        // Read lastIssued before inFlight: a version issued in between is then above the returned value.
+        long last = state.lastIssued.get();
+        if (last < 0) last = initialise(mongoTemplate.getCollectionName(type), state);
+        Long oldest = state.inFlight.isEmpty() ? null : state.inFlight.first();
+        return oldest == null ? last : Math.min(last, oldest - 1);
+    }
+
+    private Versions versions(String collection) {
+        return versions.computeIfAbsent(collection, c -> new Versions());
+    }
+
+    private long initialise(String collection, Versions state) {
+        Document counter = mongoTemplate.findById(collection, Document.class, COUNTERS);
+        long stored = counter == null ? 0 : counter.get("value", Number.class).longValue();
+        return state.lastIssued.accumulateAndGet(stored, Math::max);
+    }
+}
@@ -0,0 +1,22 @@
+package com.lymph.Walmart_Application.service;
+
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * A temporary closure applied on top of a store's navigation graph. Either waypointId is set,
+ * closing the waypoint and every aisle through it, or fromId and toId are, closing the aisle
+ * between them in both directions.
+ */
+@Data
+public class Closure {
+    private String id;
+    private String storeId;
+    private String waypointId;
+    private String fromId;
+    private String toId;
+    private String reason;
+    private Instant expiresAt; // null keeps the closure until it is reopened
+    private Instant createdAt;
+}
@@ -0,0 +1,121 @@
+package com.lymph.Walmart_Application.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Closes and reopens waypoints and aisles temporarily, for restocking or spills, without touching
+ * the stored waypoints. Closures are applied as an overlay by {@link NavigationGraph} and lifted
+ * automatically when they expire. They are held in memory, so a restart reopens everything.
+ */
+@Service
+public class ClosureService {
+
+    private static final Logger log = LoggerFactory.getLogger(ClosureService.class);
+
+    @Autowired
+    private NavigationGraph navigationGraph;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private final Map<String, Closure> closures = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService expiry = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "closure-expiry");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * @param storeId store to list; null for every store
+     * @return the active closures, oldest first.
+     */
+    public List<Closure> getClosures(String storeId) {
+        return closures.values().stream()
+                .filter(closure -> storeId == null || closure.getStoreId().equals(NavigationGraph.storeOf(storeId)))
+                .sorted(Comparator.comparing(Closure::getCreatedAt))
+                .toList();
+    }
+
+    /**
+     * Closes a waypoint or the aisle between two waypoints until it is reopened or expires.
+     * @return the closure with its generated ID.
+     */
+    public synchronized Closure close(Closure request) {
+        String store = NavigationGraph.storeOf(request.getStoreId());
+        NavigationGraph.Snapshot graph = navigationGraph.snapshot(store).base();
+        boolean edge = request.getFromId() != null || request.getToId() != null;
+        if ((request.getWaypointId() == null) == !edge) {
+            throw new IllegalArgumentException("A closure needs either waypointId or both fromId and toId.");
+        }
+        if (request.getWaypointId() != null && !graph.contains(request.getWaypointId())) {
+            throw new RuntimeException("Waypoint not found: " + request.getWaypointId());
+        }
+        if (edge && !graph.hasEdge(request.getFromId(), request.getToId())) {
+            throw new RuntimeException("No aisle between " + request.getFromId() + " and " + request.getToId());
+        }
+        Instant now = Instant.now();
+        if (request.getExpiresAt() != null && !request.getExpiresAt().isAfter(now)) {
+            throw new IllegalArgumentException("expiresAt must be in the future.");
+        }
+
+        Closure closure = new Closure();
+        closure.setId(UUID.randomUUID().toString());
+        closure.setStoreId(store);
+        closure.setWaypointId(request.getWaypointId());
+        closure.setFromId(request.getFromId());
+        closure.setToId(request.getToId());
+        closure.setReason(request.getReason());
+        closure.setExpiresAt(request.getExpiresAt());
+        closure.setCreatedAt(now);
+        closures.put(closure.getId(), closure);
+        publish(closure, false);
+
+        if (closure.getExpiresAt() != null) {
+            long delayMs = Duration.between(now, closure.getExpiresAt()).toMillis();
+            expiry.schedule(() -> expire(closure.getId()), delayMs, TimeUnit.MILLISECONDS);
+        }
+        return closure;
+    }
+
+    public synchronized Closure reopen(String id) {
+        Closure closure = closures.remove(id);
+        if (closure == null) throw new RuntimeException("Closure not found: " + id);
+        publish(closure, true);
+        return closure;
+    }
+
+    private void expire(String id) {
+        try {
+            reopen(id);
+            log.info("Closure {} expired and was reopened", id);
+        } catch (RuntimeException e) {
+            log.debug("Closure {} was already reopened", id);
+        }
+    }
+
+    private void publish(Closure closure, boolean reopened) {
+        NavigationGraph.Snapshot snapshot = navigationGraph.setClosures(closure.getStoreId(), getClosures(closure.getStoreId()));
+        // A store that is not resident gets its closures when loaded, under a new base version no cached route matches.
+        if (snapshot != null) eventPublisher.publishEvent(new ClosuresChangedEvent(snapshot, closure, reopened));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        expiry.shutdownNow();
+    }
+}
@@ -0,0 +1,9 @@
+package com.lymph.Walmart_Application.service;
+
+/**
+ * Published by {@link ClosureService} after a closure was applied to or lifted from a store's graph.
+ * @param snapshot the store's snapshot with the current closures applied
+ * @param reopened true when the closure was lifted, false when it was added
+ */
+public record ClosuresChangedEvent(NavigationGraph.Snapshot snapshot, Closure closure, boolean reopened) {
+}
@@ -0,0 +1,34 @@
+package com.lymph.Walmart_Application.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact form of a planned route for handheld clients. The path is simplified and encoded with
+ * {@link RouteGeometry#encode}: x, y and z of every point, multiplied by precision, rounded and
+ * delta-encoded in the encoded-polyline character format. Each stop gives the index of its point
+ * in the decoded path and the SKUs picked there.
+ */
+@Data
+@NoArgsConstructor
+public class CompactRoute {
+    private String polyline;
+    private int precision;
+    private int points;
+    private double length;
+    private List<Stop> stops = new ArrayList<>();
+    private List<String> unreachableSkus = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Stop {
+        private int index;
+        private String waypointId;
+        private List<String> skus;
+    }
+}
@@ -0,0 +1,21 @@
+package com.lymph.Walmart_Application.service;
+
+import java.time.Duration;
+
+/**
+ * Thrown when route solving is refused because the compute queue is full. The request can be
+ * retried after retryAfter.
+ */
+public class ComputeOverloadedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Duration retryAfter;
+
+    public ComputeOverloadedException(int queued, Duration retryAfter) {
+        super("Route solving is at capacity (" + queued + " requests queued); retry after " + retryAfter.toSeconds() + "s.");
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() { return retryAfter; }
+}
@@ -0,0 +1,16 @@
+package com.lymph.Walmart_Application.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Outcome of a congestion batch: readings staged and readings rejected because they named an
+ * unknown aisle or an invalid multiplier. Staged readings are visible to routing from the next epoch.
+ */
+@Data
+@AllArgsConstructor
+public class CongestionIngestResult {
+    private int accepted;
+    private int rejected;
+    private long epoch;
+}
@@ -0,0 +1,18 @@
+package com.lymph.Walmart_Application.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One sensor reading: how much slower than normal the aisle between two waypoints is to walk.
+ * The multiplier applies in both directions; 1 means uncongested.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CongestionUpdate {
+    private String from;
+    private String to;
+    private double multiplier;
+}
@@ -0,0 +1,222 @@
+package com.lymph.Walmart_Application.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live congestion multipliers per aisle, used by the {@link CostMode#CONGESTION} cost mode.
+ * <p>
+ * Sensor readings are written lock-free into a per-store staging array (one float per edge of the
+ * store's base graph, stored as int bits in an {@link AtomicIntegerArray}). Every publish interval,
+ * changed staging arrays are copied into an immutable epoch; routing only ever reads the latest
+ * published epoch through a volatile field, so a search sees one consistent set of weights for its
+ * whole run and is never blocked by writers. A batch becomes visible within one publish interval.
+ * <p>
+ * Multipliers are clamped to [1, routing.congestion.max-multiplier]: weighted edges are never
+ * shorter than the straight line, so the Euclidean and landmark heuristics stay admissible.
+ */
+@Component
+public class CongestionWeights {
+
+    private static final int UNCONGESTED = Float.floatToIntBits(1f);
+
+    private record Epoch(long number, float[] multipliers) {}
+
+    // The weighted snapshot last built for one source snapshot and epoch, shared by all readers.
+    private record Weighted(NavigationGraph.Snapshot source, Epoch epoch, NavigationGraph.Snapshot graph) {}
+
+    private static final class StoreWeights {
+        final NavigationGraph.Snapshot base;
+        final AtomicIntegerArray staged;
+        final AtomicBoolean dirty = new AtomicBoolean();
+        volatile Epoch published;
+        volatile Weighted weighted;
+
+        StoreWeights(NavigationGraph.Snapshot base) {
+            this.base = base;
+            this.staged = new AtomicIntegerArray(base.edgeCount());
+            for (int e = 0; e < base.edgeCount(); e++) staged.lazySet(e, UNCONGESTED);
+        }
+    }
+
+    @Autowired
+    private NavigationGraph navigationGraph;
+
+    private final float maxMultiplier;
+    private final Map<String, StoreWeights> stores = new ConcurrentHashMap<>();
+    private final AtomicLong epochs = new AtomicLong();
+    private final LongAdder updates = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final ScheduledExecutorService publisher;
+
+    public CongestionWeights(@Value("${routing.congestion.max-multiplier:10}") double maxMultiplier,
+                             @Value("${routing.congestion.publish-interval:250ms}") Duration publishInterval) {
+        this.maxMultiplier = (float) Math.max(1, maxMultiplier);
+        this.publisher = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "congestion-publisher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMs = Math.max(1, publishInterval.toMillis());
+        publisher.scheduleAtFixedRate(this::publish, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stages a batch of readings for a store. Never blocks routing and never waits for other writers.
+     */
+    public CongestionIngestResult ingest(String storeId, List<CongestionUpdate> readings) {
+        String store = NavigationGraph.storeOf(storeId);
+        NavigationGraph.Snapshot base = navigationGraph.snapshot(store).base();
+        StoreWeights weights = stores.compute(store, (key, current) ->
+                current != null && current.base == base ? current : remap(current, base));
+        int accepted = 0;
+        for (CongestionUpdate reading : readings) {
+            int from = reading == null ? -1 : base.indexOf(reading.getFrom());
+            int to = reading == null ? -1 : base.indexOf(reading.getTo());
+            if (from < 0 || to < 0 || !(reading.getMultiplier() > 0) || Double.isInfinite(reading.getMultiplier())) continue;
+            double multiplier = Math.min(Math.max(reading.getMultiplier(), 1), maxMultiplier);
+            int bits = Float.floatToIntBits((float) multiplier);
+            boolean found = stage(weights, from, to, bits);
+            found |= stage(weights, to, from, bits);
+            if (found) accepted++;
+        }
+        if (accepted > 0) weights.dirty.set(true);
+        updates.add(accepted);
+        rejected.add(readings.size() - accepted);
+        Epoch epoch = weights.published;
+        return new CongestionIngestResult(accepted, readings.size() - accepted, epoch == null ? 0 : epoch.number());
+    }
+
+    private static boolean stage(StoreWeights weights, int from, int to, int bits) {
+        boolean found = false;
+        for (int e = weights.base.edgeStart(from); e < weights.base.edgeEnd(from); e++) {
+            if (weights.base.edgeTarget(e) == to) {
+                weights.staged.set(e, bits);
+                found = true;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * @return the graph with the latest published congestion applied, or the graph itself when its
+     * store has no readings for its current base graph yet.
+     */
+    public NavigationGraph.Snapshot apply(NavigationGraph.Snapshot graph) {
+        StoreWeights weights = stores.get(graph.storeId());
+        if (weights == null || weights.base != graph.base()) return graph;
+        Epoch epoch = weights.published;
+        if (epoch == null) return graph;
+        Weighted weighted = weights.weighted;
+        if (weighted != null && weighted.source() == graph && weighted.epoch() == epoch) return weighted.graph();
+        NavigationGraph.Snapshot result = graph.withMultipliers(epoch.multipliers(), navigationGraph.newVersion());
+        weights.weighted = new Weighted(graph, epoch, result);
+        return result;
+    }
+
+    /**
+     * @return the number of the epoch a graph returned by {@link #apply} was weighted with, 0 for an
+     * unweighted graph. A weighted graph that has since been superseded gets its negated version,
+     * which never matches an epoch number.
+     */
+    public long epochOf(NavigationGraph.Snapshot graph) {
+        if (!graph.congestionWeighted()) return 0;
+        StoreWeights weights = stores.get(graph.storeId());
+        Weighted weighted = weights == null ? null : weights.weighted;
+        return weighted != null && weighted.graph() == graph ? weighted.epoch().number() : -graph.version();
+    }
+
+    /**
+     * @return the latest published epoch for the store, or 0 if none has been published.
+     */
+    public long epoch(String storeId) {
+        StoreWeights weights = stores.get(NavigationGraph.storeOf(storeId));
+        Epoch epoch = weights == null ? null : weights.published;
+        return epoch == null ? 0 : epoch.number();
+    }
+
+    public long updateCount() { return updates.sum(); }
+    public long rejectedCount() { return rejected.sum(); }
+    public long epochCount() { return epochs.get(); }
+
+    /**
+     * Carries the readings and the published epoch over to a rebuilt graph, matching aisles by
+     * waypoint IDs, so routing keeps its congestion weights across the rebuild.
+     */
+    @EventListener
+    public void onGraphChanged(NavigationGraphChangedEvent event) {
+        NavigationGraph.Snapshot base = event.snapshot().base();
+        stores.computeIfPresent(base.storeId(), (key, current) -> current.base == base ? current : remap(current, base));
+    }
+
+    /**
+     * Drops the staged and published weights of a store whose graph left memory, unless the store
+     * has been loaded again and staged readings for the new graph in the meantime.
+     */
+    @EventListener
+    public void onGraphEvicted(NavigationGraphEvictedEvent event) {
+        NavigationGraph.Snapshot base = event.snapshot().base();
+        stores.computeIfPresent(base.storeId(), (key, current) -> current.base == base ? null : current);
+    }
+
+    // The published epoch keeps its number: it holds the same readings, now indexed by the new graph's edges.
+    private static StoreWeights remap(StoreWeights previous, NavigationGraph.Snapshot base) {
+        StoreWeights weights = new StoreWeights(base);
+        if (previous == null) return weights;
+        NavigationGraph.Snapshot old = previous.base;
+        Epoch published = previous.published;
+        float[] carried = null;
+        if (published != null) {
+            carried = new float[base.edgeCount()];
+            Arrays.fill(carried, 1f);
+        }
+        for (int u = 0; u < old.size(); u++) {
+            for (int e = old.edgeStart(u); e < old.edgeEnd(u); e++) {
+                int bits = previous.staged.get(e);
+                float live = published == null ? 1f : published.multipliers()[e];
+                if (bits == UNCONGESTED && live == 1f) continue;
+                int from = base.indexOf(old.id(u));
+                int to = base.indexOf(old.id(old.edgeTarget(e)));
+                if (from < 0 || to < 0) continue;
+                for (int f = base.edgeStart(from); f < base.edgeEnd(from); f++) {
+                    if (base.edgeTarget(f) != to) continue;
+                    weights.staged.set(f, bits);
+                    if (carried != null) carried[f] = live;
+                }
+            }
+        }
+        if (carried != null) weights.published = new Epoch(published.number(), carried);
+        weights.dirty.set(true);
+        return weights;
+    }
+
+    private void publish() {
+        for (StoreWeights weights : stores.values()) {
+            if (!weights.dirty.getAndSet(false)) continue;
+            float[] multipliers = new float[weights.staged.length()];
+            for (int e = 0; e < multipliers.length; e++) multipliers[e] = Float.intBitsToFloat(weights.staged.get(e));
+            weights.published = new Epoch(epochs.incrementAndGet(), multipliers);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        publisher.shutdownNow();
+    }
+}
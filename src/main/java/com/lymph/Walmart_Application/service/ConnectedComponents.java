@@ -0,0 +1,88 @@
+package com.lymph.Walmart_Application.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Weakly connected components of a {@link NavigationGraph.Snapshot}, found by union-find over its
+ * open edges; closed edges have an infinite length and do not join anything. Nodes in different
+ * components can never reach each other, so a search between them can be answered in O(1) without
+ * expanding a node. Nodes in the same component are usually mutually reachable, but one-way
+ * connections can still make a target unreachable, which only a search finds out.
+ * Components are numbered by decreasing size, so component 0 is the main sales floor.
+ */
+public final class ConnectedComponents {
+
+    private final int[] component;
+    private final int[] sizes;
+
+    private ConnectedComponents(int[] component, int[] sizes) {
+        this.component = component;
+        this.sizes = sizes;
+    }
+
+    public static ConnectedComponents build(NavigationGraph.Snapshot graph) {
+        int n = graph.size();
+        int[] parent = new int[n];
+        int[] size = new int[n];
+        for (int v = 0; v < n; v++) {
+            parent[v] = v;
+            size[v] = 1;
+        }
+        for (int u = 0; u < n; u++) {
+            for (int e = graph.edgeStart(u); e < graph.edgeEnd(u); e++) {
+                if (graph.edgeLength(e) == Double.POSITIVE_INFINITY) continue;
+                int a = find(parent, u);
+                int b = find(parent, graph.edgeTarget(e));
+                if (a == b) continue;
+                // Union by size keeps the trees shallow.
+                if (size[a] < size[b]) {
+                    int tmp = a;
+                    a = b;
+                    b = tmp;
+                }
+                parent[b] = a;
+                size[a] += size[b];
+            }
+        }
+
+        List<Integer> roots = new ArrayList<>();
+        for (int v = 0; v < n; v++) {
+            if (find(parent, v) == v) roots.add(v);
+        }
+        roots.sort(Comparator.comparingInt((Integer root) -> size[root]).reversed());
+        int[] numberByRoot = new int[n];
+        int[] sizes = new int[roots.size()];
+        for (int c = 0; c < sizes.length; c++) {
+            numberByRoot[roots.get(c)] = c;
+            sizes[c] = size[roots.get(c)];
+        }
+        int[] component = new int[n];
+        for (int v = 0; v < n; v++) component[v] = numberByRoot[find(parent, v)];
+        return new ConnectedComponents(component, sizes);
+    }
+
+    // Path halving: every visited node is pointed at its grandparent.
+    private static int find(int[] parent, int v) {
+        while (parent[v] != v) {
+            parent[v] = parent[parent[v]];
+            v = parent[v];
+        }
+        return v;
+    }
+
+    /**
+     * @return the number of components; every isolated waypoint counts as one.
+     */
+    public int count() { return sizes.length; }
+    public int component(int node) { return component[node]; }
+    public int size(int component) { return sizes[component]; }
+
+    /**
+     * @return false if no path can exist between the two nodes in either direction.
+     */
+    public boolean connected(int a, int b) {
+        return component[a] == component[b];
+    }
+}
@@ -0,0 +1,32 @@
+package com.lymph.Walmart_Application.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Connectivity of one store's graph with its current closures: the size of the main component,
+ * waypoints with no open connection at all, and every other disconnected region, largest first.
+ */
+@Data
+@NoArgsConstructor
+public class ConnectivityReport {
+    private String storeId;
+    private long graphVersion;
+    private int waypoints;
+    private int components;
+    private int mainComponentSize;
+    private List<String> orphanedWaypoints = new ArrayList<>();
+    private List<Region> disconnectedRegions = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Region {
+        private int size;
+        private List<String> waypointIds;
+    }
+}
@@ -0,0 +1,44 @@
+package com.lymph.Walmart_Application.service;
+
+import com.lymph.Walmart_Application.entity.Waypoint;
+import com.lymph.Walmart_Application.entity.WaypointType;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Edge costs for the navigation graph. An edge is its 3D straight-line length, except when it
+ * changes floor through a connector waypoint (escalator, elevator or stairs): then it costs the
+ * connector's per-floor cost times the floors spanned, but never less than its length. Keeping
+ * every edge at least as long as the straight line keeps the Euclidean A* heuristic admissible.
+ */
+public final class ConnectorCosts {
+
+    /** Plain 3D lengths for every edge. */
+    public static final ConnectorCosts NONE = new ConnectorCosts(Map.of());
+
+    private final Map<WaypointType, Double> perFloor;
+
+    public ConnectorCosts(Map<WaypointType, Double> perFloor) {
+        this.perFloor = perFloor.isEmpty() ? Map.of() : new EnumMap<>(perFloor);
+    }
+
+    public double cost(Waypoint from, Waypoint to, double length) {
+        int floors = floorsSpanned(from, to);
+        if (floors == 0) return length;
+        WaypointType connector = connectorOf(from);
+        if (connector == null) connector = connectorOf(to);
+        Double cost = connector == null ? null : perFloor.get(connector);
+        return cost == null ? length : Math.max(length, cost * floors);
+    }
+
+    private static WaypointType connectorOf(Waypoint waypoint) {
+        WaypointType type = waypoint.getType();
+        return type != null && type.isConnector() ? type : null;
+    }
+
+    private static int floorsSpanned(Waypoint from, Waypoint to) {
+        if (from.getFloor() != null && to.getFloor() != null) return Math.abs(from.getFloor() - to.getFloor());
+        return from.getLocation().getZ() != to.getLocation().getZ() ? 1 : 0;
+    }
+}
@@ -0,0 +1,18 @@
+package com.lymph.Walmart_Application.service;
+
+/**
+ * Edge cost used by route planning and path queries.
+ */
+public enum CostMode {
+    /** Static edge lengths, including connector costs. */
+    DISTANCE,
+    /** Edge lengths scaled by the live aisle congestion multipliers from {@link CongestionWeights}. */
+    CONGESTION;
+
+    /**
+     * Parses property values such as "distance" or "congestion".
+     */
+    public static CostMode fromProperty(String value) {
+        return valueOf(value.trim().replace('-', '_').toUpperCase());
+    }
+}
@@ -0,0 +1,20 @@
+package com.lymph.Walmart_Application.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One change to the undirected connection between two waypoints in a batch edge edit.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EdgeEdit {
+
+    public enum Operation { CONNECT, DISCONNECT }
+
+    private String from;
+    private String to;
+    private Operation operation;
+}
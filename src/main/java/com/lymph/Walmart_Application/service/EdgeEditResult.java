@@ -0,0 +1,15 @@
+package com.lymph.Walmart_Application.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Outcome of a batch edge edit: edits applied and waypoint documents actually changed
+ * (connecting an existing edge or removing a missing one changes nothing).
+ */
+@Data
+@AllArgsConstructor
+public class EdgeEditResult {
+    private int edits;
+    private long modifiedWaypoints;
+}
@@ -0,0 +1,33 @@
+package com.lymph.Walmart_Application.service;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Manifest of a processed floor plan. Tiles cover a square of side viewBox units starting at
+ * (minX, minY); level z has 2^z by 2^z tiles of tileSize pixels, and only non-empty ones are listed,
+ * keyed by "z/x/y" with their content-hashed path under /maps/. scale, offsetX and offsetY map viewBox
+ * units to the document's width and height, the coordinate space waypoints are drawn in.
+ */
+@Data
+@NoArgsConstructor
+public class FloorPlan {
+    private String id;
+    private long uploadedAt;
+    private double minX;
+    private double minY;
+    private double side;
+    private double width;
+    private double height;
+    private double scale;
+    private double offsetX;
+    private double offsetY;
+    private int tileSize;
+    private int maxZoom;
+    private String source;
+    private String overview;
+    private Map<String, String> tiles = new LinkedHashMap<>();
+}
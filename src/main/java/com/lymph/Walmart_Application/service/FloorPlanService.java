@@ -0,0 +1,170 @@
+package com.lymph.Walmart_Application.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Turns uploaded SVG floor plans into tile pyramids under maps.dir. The source is parsed once by
+ * {@link SvgTiler}; every tile and the low-detail overview are stored as tiles/&lt;hash&gt;.svg, named
+ * after their content so they can be cached forever, with a .svg.gz next to them when that is smaller.
+ * The manifest for each plan is kept as manifests/&lt;id&gt;.json, the id itself being a hash of the source.
+ */
+@Service
+public class FloorPlanService {
+
+    private static final Logger log = LoggerFactory.getLogger(FloorPlanService.class);
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${maps.dir:uploaded-maps}")
+    private String directory;
+    @Value("${maps.tiles.max-zoom:4}")
+    private int maxZoom;
+    @Value("${maps.tiles.min-feature-pixels:1}")
+    private double minFeaturePixels;
+    @Value("${maps.overview.width:1024}")
+    private int overviewWidth;
+
+    /**
+     * Stores and tiles an SVG floor plan. Uploading the same file again returns its existing manifest.
+     * @throws IllegalArgumentException if the file is not a usable SVG document
+     */
+    public FloorPlan upload(InputStream in) throws IOException {
+        byte[] source = in.readAllBytes();
+        String id = hash(source);
+        Optional<FloorPlan> existing = get(id);
+        if (existing.isPresent()) return existing.get();
+
+        long started = System.nanoTime();
+        SvgTiler tiler = SvgTiler.parse(new ByteArrayInputStream(source));
+        Map<String, String> tiles = tiler.tiles(maxZoom, minFeaturePixels);
+
+        FloorPlan plan = new FloorPlan();
+        plan.setId(id);
+        plan.setUploadedAt(System.currentTimeMillis());
+        plan.setMinX(tiler.minX());
+        plan.setMinY(tiler.minY());
+        plan.setSide(tiler.side());
+        plan.setWidth(tiler.width());
+        plan.setHeight(tiler.height());
+        plan.setScale(tiler.scale());
+        plan.setOffsetX(tiler.offsetX());
+        plan.setOffsetY(tiler.offsetY());
+        plan.setTileSize(SvgTiler.TILE_SIZE);
+        plan.setMaxZoom(maxZoom);
+        plan.setOverview(writeTile(tiler.overview(overviewWidth, minFeaturePixels)));
+        for (Map.Entry<String, String> tile : tiles.entrySet()) {
+            plan.getTiles().put(tile.getKey(), writeTile(tile.getValue()));
+        }
+        plan.setSource(id + ".svg");
+        write(root().resolve(plan.getSource()), source);
+        write(manifest(id), objectMapper.writeValueAsBytes(plan));
+        log.info("Tiled floor plan {} ({} bytes, {} elements) into {} tiles in {} ms", id, source.length,
+                tiler.elementCount(), tiles.size(), (System.nanoTime() - started) / 1_000_000);
+        return plan;
+    }
+
+    public Optional<FloorPlan> get(String id) {
+        if (!id.matches("[0-9a-f]{16}")) return Optional.empty();
+        Path path = manifest(id);
+        if (!Files.isRegularFile(path)) return Optional.empty();
+        try {
+            return Optional.of(objectMapper.readValue(path.toFile(), FloorPlan.class));
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable floor plan manifest {}: {}", path, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * @return every processed floor plan, most recently uploaded first.
+     */
+    public List<FloorPlan> list() {
+        Path manifests = root().resolve("manifests");
+        if (!Files.isDirectory(manifests)) return List.of();
+        List<FloorPlan> plans = new ArrayList<>();
+        try (Stream<Path> files = Files.list(manifests)) {
+            files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.endsWith(".json"))
+                    .forEach(name -> get(name.substring(0, name.length() - 5)).ifPresent(plans::add));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        plans.sort(Comparator.comparingLong(FloorPlan::getUploadedAt).reversed());
+        return plans;
+    }
+
+    public Optional<FloorPlan> current() {
+        return list().stream().findFirst();
+    }
+
+    // Tiles are immutable and shared between plans: one already on disk is never rewritten.
+    private String writeTile(String markup) throws IOException {
+        byte[] bytes = markup.getBytes(StandardCharsets.UTF_8);
+        String name = "tiles/" + hash(bytes) + ".svg";
+        Path path = root().resolve(name);
+        if (Files.isRegularFile(path)) return name;
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(bytes);
+        }
+        if (compressed.size() < bytes.length) write(path.resolveSibling(path.getFileName() + ".gz"), compressed.toByteArray());
+        write(path, bytes);
+        return name;
+    }
+
+    private static void write(Path path, byte[] bytes) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temp, bytes);
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private Path root() {
+        return Path.of(directory);
+    }
+
+    private Path manifest(String id) {
+        return root().resolve("manifests").resolve(id + ".json");
+    }
+
+    // First 64 bits of the SHA-256, in hex.
+    private static String hash(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes), 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
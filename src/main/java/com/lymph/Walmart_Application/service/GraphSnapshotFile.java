@@ -0,0 +1,229 @@
+package com.lymph.Walmart_Application.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Binary file holding one store's {@link NavigationGraph.Snapshot} and its product SKU to waypoint mapping,
+ * so a node can start routing without reading Mongo. Little-endian layout:
+ * <pre>
+ * header   magic, format version, written-at millis, node/edge/product counts, string table size, CRC32 of payload,
+ *          waypoint and product sync versions the contents reflect, store ID offset and length in the string table
+ * nodes    n fixed 32-byte records: x, y, z, id offset and length in the string table
+ * edges    m edge lengths, n+1 CSR offsets, m edge targets
+ * products p 16-byte records: SKU and waypoint ID offset and length in the string table
+ * strings  UTF-8 bytes of every ID
+ * </pre>
+ * Files are read through a read-only memory mapping and decoded into the same heap arrays a graph
+ * built from Mongo uses, so loading skips the database and the parsing but not the allocation.
+ * They are written to a temporary file that atomically replaces the old one.
+ */
+public final class GraphSnapshotFile {
+
+    static final int MAGIC = 0x57475246; // "WGRF"
+    static final int FORMAT_VERSION = 3;
+    private static final int HEADER_BYTES = 64;
+    private static final int NODE_BYTES = 32;
+    private static final int PRODUCT_BYTES = 16;
+
+    /**
+     * @param productWaypoints waypoint ID per SKU; the empty string for products without a waypoint.
+     * @param waypointVersion  {@link ChangeTracker} version of the waypoints the graph was built from
+     * @param productVersion   {@link ChangeTracker} version of the products the mapping was read at
+     */
+    public record Contents(NavigationGraph.Snapshot graph, Map<String, String> productWaypoints, long writtenAt,
+                           long waypointVersion, long productVersion) {}
+
+    private GraphSnapshotFile() {
+    }
+
+    public static void write(Path path, NavigationGraph.Snapshot graph, Map<String, String> productWaypoints,
+                             long waypointVersion, long productVersion) throws IOException {
+        int n = graph.size();
+        int m = graph.edgeCount();
+
+        // Waypoint IDs are stored once and shared by the node and product records.
+        StringTable strings = new StringTable();
+        int storeRef = strings.add(graph.storeId());
+        int[] idRefs = new int[n];
+        for (int node = 0; node < n; node++) idRefs[node] = strings.add(graph.id(node));
+        String[] skus = productWaypoints.keySet().toArray(new String[0]);
+        int p = skus.length;
+        int[] skuRefs = new int[p];
+        int[] waypointRefs = new int[p];
+        for (int i = 0; i < p; i++) {
+            skuRefs[i] = strings.add(skus[i]);
+            String waypointId = productWaypoints.get(skus[i]);
+            waypointRefs[i] = strings.add(waypointId == null ? "" : waypointId);
+        }
+
+        long payloadBytes = (long) n * NODE_BYTES + (long) m * 8 + (long) (n + 1) * 4 + (long) m * 4
+                + (long) p * PRODUCT_BYTES + strings.size;
+        if (HEADER_BYTES + payloadBytes > Integer.MAX_VALUE) throw new IOException("Graph too large for snapshot file");
+        ByteBuffer buffer = ByteBuffer.allocate((int) (HEADER_BYTES + payloadBytes)).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.position(HEADER_BYTES);
+        for (int node = 0; node < n; node++) {
+            buffer.putDouble(graph.x(node)).putDouble(graph.y(node)).putDouble(graph.z(node));
+            buffer.putInt(strings.offset(idRefs[node])).putInt(strings.length(idRefs[node]));
+        }
+        for (int e = 0; e < m; e++) buffer.putDouble(graph.edgeLength(e));
+        for (int node = 0; node < n; node++) buffer.putInt(graph.edgeStart(node));
+        buffer.putInt(m);
+        for (int e = 0; e < m; e++) buffer.putInt(graph.edgeTarget(e));
+        for (int i = 0; i < p; i++) {
+            buffer.putInt(strings.offset(skuRefs[i])).putInt(strings.length(skuRefs[i]));
+            buffer.putInt(strings.offset(waypointRefs[i])).putInt(strings.length(waypointRefs[i]));
+        }
+        buffer.put(strings.bytes, 0, strings.size);
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), HEADER_BYTES, (int) payloadBytes);
+        buffer.putInt(0, MAGIC).putInt(4, FORMAT_VERSION).putLong(8, System.currentTimeMillis())
+                .putInt(16, n).putInt(20, m).putInt(24, p).putInt(28, strings.size).putLong(32, crc.getValue())
+                .putLong(40, waypointVersion).putLong(48, productVersion)
+                .putInt(56, strings.offset(storeRef)).putInt(60, strings.length(storeRef));
+
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                buffer.rewind();
+                while (buffer.hasRemaining()) channel.write(buffer);
+                channel.force(true);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Maps and decodes a snapshot file, checking its magic number, format version, section sizes,
+     * checksum and store ID before use.
+     * @param storeId      store the file must have been written for
+     * @param graphVersion version to give the decoded graph
+     * @throws IOException if the file cannot be read or fails any check
+     */
+    public static Contents read(Path path, String storeId, long graphVersion) throws IOException {
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Not a graph snapshot: " + path);
+            }
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        ByteBuffer buffer = mapped.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.getInt(0) != MAGIC) throw new IOException("Not a graph snapshot: " + path);
+        int format = buffer.getInt(4);
+        if (format != FORMAT_VERSION) throw new IOException("Unsupported graph snapshot format " + format + ": " + path);
+        long writtenAt = buffer.getLong(8);
+        int n = buffer.getInt(16);
+        int m = buffer.getInt(20);
+        int p = buffer.getInt(24);
+        int stringBytes = buffer.getInt(28);
+        if (n < 0 || m < 0 || p < 0 || stringBytes < 0) throw new IOException("Corrupt graph snapshot header: " + path);
+        long payloadBytes = (long) n * NODE_BYTES + (long) m * 8 + (long) (n + 1) * 4 + (long) m * 4
+                + (long) p * PRODUCT_BYTES + stringBytes;
+        if (HEADER_BYTES + payloadBytes != buffer.capacity()) throw new IOException("Truncated graph snapshot: " + path);
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(HEADER_BYTES, (int) payloadBytes));
+        if (crc.getValue() != buffer.getLong(32)) throw new IOException("Graph snapshot checksum mismatch: " + path);
+
+        int nodes = HEADER_BYTES;
+        int lengths = nodes + n * NODE_BYTES;
+        int offsets = lengths + m * 8;
+        int targets = offsets + (n + 1) * 4;
+        int products = targets + m * 4;
+        int strings = products + p * PRODUCT_BYTES;
+        byte[] table = new byte[stringBytes];
+        buffer.get(strings, table);
+        String writtenFor = string(table, buffer.getInt(56), buffer.getInt(60));
+        if (!writtenFor.equals(storeId)) {
+            throw new IOException("Graph snapshot of store " + writtenFor + ", not " + storeId + ": " + path);
+        }
+
+        String[] ids = new String[n];
+        double[] x = new double[n];
+        double[] y = new double[n];
+        double[] z = new double[n];
+        for (int node = 0, at = nodes; node < n; node++, at += NODE_BYTES) {
+            x[node] = buffer.getDouble(at);
+            y[node] = buffer.getDouble(at + 8);
+            z[node] = buffer.getDouble(at + 16);
+            ids[node] = string(table, buffer.getInt(at + 24), buffer.getInt(at + 28));
+        }
+        double[] edgeLengths = new double[m];
+        buffer.slice(lengths, m * 8).order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer().get(edgeLengths);
+        int[] edgeOffsets = new int[n + 1];
+        buffer.slice(offsets, (n + 1) * 4).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().get(edgeOffsets);
+        int[] edgeTargets = new int[m];
+        buffer.slice(targets, m * 4).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().get(edgeTargets);
+        if (edgeOffsets[0] != 0 || edgeOffsets[n] != m) throw new IOException("Corrupt graph snapshot edges: " + path);
+        for (int node = 0; node < n; node++) {
+            if (edgeOffsets[node] > edgeOffsets[node + 1]) throw new IOException("Corrupt graph snapshot edges: " + path);
+        }
+        for (int target : edgeTargets) {
+            if (target < 0 || target >= n) throw new IOException("Corrupt graph snapshot edges: " + path);
+        }
+
+        Map<String, String> productWaypoints = new HashMap<>(p * 2);
+        for (int i = 0, at = products; i < p; i++, at += PRODUCT_BYTES) {
+            productWaypoints.put(string(table, buffer.getInt(at), buffer.getInt(at + 4)),
+                    string(table, buffer.getInt(at + 8), buffer.getInt(at + 12)));
+        }
+        NavigationGraph.Snapshot graph = NavigationGraph.Snapshot.of(storeId, graphVersion, ids, x, y, z,
+                edgeOffsets, edgeTargets, edgeLengths);
+        return new Contents(graph, productWaypoints, writtenAt, buffer.getLong(40), buffer.getLong(48));
+    }
+
+    private static String string(byte[] table, int offset, int length) throws IOException {
+        if (offset < 0 || length < 0 || offset > table.length - length) throw new IOException("Corrupt graph snapshot strings");
+        return new String(table, offset, length, StandardCharsets.UTF_8);
+    }
+
+    // Growable UTF-8 string table that stores each distinct string once.
+    private static final class StringTable {
+        private final Map<String, Integer> refs = new HashMap<>();
+        private int[] offsets = new int[64];
+        private int[] lengths = new int[64];
+        private byte[] bytes = new byte[1024];
+        private int count;
+        private int size;
+
+        int add(String value) {
+            Integer existing = refs.get(value);
+            if (existing != null) return existing;
+            byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+            if (count == offsets.length) {
+                offsets = Arrays.copyOf(offsets, count * 2);
+                lengths = Arrays.copyOf(lengths, count * 2);
+            }
+            if (size + encoded.length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + encoded.length));
+            }
+            System.arraycopy(encoded, 0, bytes, size, encoded.length);
+            offsets[count] = size;
+            lengths[count] = encoded.length;
+            size += encoded.length;
+            refs.put(value, count);
+            return count++;
+        }
+
+        int offset(int ref) { return offsets[ref]; }
+        int length(int ref) { return lengths[ref]; }
+    }
+}
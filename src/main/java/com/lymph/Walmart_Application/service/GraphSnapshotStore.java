@@ -0,0 +1,174 @@
+package com.lymph.Walmart_Application.service;
+
+import com.lymph.Walmart_Application.entity.Product;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Keeps one {@link GraphSnapshotFile} per store under routing.snapshot.dir in step with the
+ * in-memory graphs and product mappings. A store's file is read whenever its graph is loaded,
+ * at startup or after eviction, instead of querying Mongo; changes are written back on a
+ * background thread, coalescing bursts of edits into one write per store.
+ * Each file records the {@link ChangeTracker} versions of the waypoints and products it reflects,
+ * and a part whose version no longer matches Mongo's, after edits made while the application was
+ * down or by another instance, is ignored and rebuilt. When Mongo cannot be asked, the file is trusted.
+ * An empty directory setting disables the files entirely.
+ */
+@Component
+public class GraphSnapshotStore {
+
+    private static final Logger log = LoggerFactory.getLogger(GraphSnapshotStore.class);
+
+    private record PendingWrite(NavigationGraph.Snapshot graph, long waypointVersion,
+                                Supplier<Map<String, String>> productWaypoints) {}
+
+    private final ChangeTracker changeTracker;
+    private final Path directory;
+    private final long writeDelayMs;
+    private final ScheduledExecutorService writer;
+    private final Map<String, PendingWrite> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    public GraphSnapshotStore(ChangeTracker changeTracker,
+                              @Value("${routing.snapshot.dir:}") String directory,
+                              @Value("${routing.snapshot.write-delay:2s}") Duration writeDelay) {
+        this.changeTracker = changeTracker;
+        this.directory = directory == null || directory.isBlank() ? null : Path.of(directory);
+        this.writeDelayMs = writeDelay.toMillis();
+        this.writer = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "graph-snapshot-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public boolean exists(String storeId) {
+        return directory != null && Files.isRegularFile(path(storeId));
+    }
+
+    /**
+     * @param waypointVersion current waypoint sync version, or -1 if it could not be read
+     * @return the store's graph from its file; empty if there is no usable file, the file was built from
+     * other waypoints or a newer write is still pending.
+     */
+    public Optional<NavigationGraph.Snapshot> readGraph(String storeId, long version, long waypointVersion) {
+        return read(storeId, version)
+                .filter(contents -> current(storeId, "waypoints", contents.waypointVersion(), waypointVersion))
+                .map(GraphSnapshotFile.Contents::graph);
+    }
+
+    /**
+     * @return the store's product mapping from its file; empty if there is no usable file, products
+     * changed since it was written or a newer write is pending.
+     */
+    public Optional<Map<String, String>> readProductWaypoints(String storeId) {
+        return read(storeId, 0)
+                .filter(contents -> current(storeId, "products", contents.productVersion(), syncVersion(Product.class)))
+                .map(GraphSnapshotFile.Contents::productWaypoints);
+    }
+
+    /**
+     * @return the collection's current sync version, or -1 if Mongo could not be asked.
+     */
+    public long syncVersion(Class<?> type) {
+        try {
+            return changeTracker.watermark(type);
+        } catch (RuntimeException e) {
+            log.warn("Could not read the {} sync version: {}", type.getSimpleName(), e.getMessage());
+            return -1;
+        }
+    }
+
+    private static boolean current(String storeId, String part, long stored, long current) {
+        if (current < 0 || stored == current) return true;
+        log.info("Ignoring the {} in the graph snapshot of store {}: written at version {}, now {}",
+                part, storeId, stored, current);
+        return false;
+    }
+
+    private Optional<GraphSnapshotFile.Contents> read(String storeId, long version) {
+        if (!exists(storeId) || pending.containsKey(storeId)) return Optional.empty();
+        Path path = path(storeId);
+        long started = System.nanoTime();
+        try {
+            GraphSnapshotFile.Contents contents = GraphSnapshotFile.read(path, storeId, version);
+            log.debug("Read graph snapshot {} ({} waypoints, {} products, written {}) in {} ms",
+                    path, contents.graph().size(), contents.productWaypoints().size(),
+                    Instant.ofEpochMilli(contents.writtenAt()), (System.nanoTime() - started) / 1_000_000);
+            return Optional.of(contents);
+        } catch (IOException e) {
+            log.warn("Ignoring graph snapshot {}, loading from Mongo instead: {}", path, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Schedules the graph's store file to be rewritten. The product mapping is only read when the
+     * write runs, and a newer request for the same store replaces a pending one.
+     * Closures are not persisted; the file always holds the base graph.
+     * @param waypointVersion waypoint sync version read before the graph was built, or -1 if unknown
+     */
+    public void writeLater(NavigationGraph.Snapshot graph, long waypointVersion,
+                           Supplier<Map<String, String>> productWaypoints) {
+        if (directory == null) return;
+        pending.put(graph.storeId(), new PendingWrite(graph.base(), waypointVersion, productWaypoints));
+        if (scheduled.compareAndSet(false, true)) {
+            writer.schedule(this::flush, writeDelayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void flush() {
+        scheduled.set(false);
+        for (String storeId : pending.keySet()) {
+            PendingWrite write = pending.get(storeId);
+            if (write == null) continue;
+            Path path = path(storeId);
+            long started = System.nanoTime();
+            try {
+                // Read before the mapping, so the file never claims a product write its mapping may lack.
+                long productVersion = syncVersion(Product.class);
+                GraphSnapshotFile.write(path, write.graph(), write.productWaypoints().get(),
+                        write.waypointVersion(), productVersion);
+                log.debug("Wrote graph snapshot {} in {} ms", path, (System.nanoTime() - started) / 1_000_000);
+            } catch (IOException | RuntimeException e) {
+                log.warn("Could not write graph snapshot {}: {}", path, e.getMessage());
+            }
+            // Keep a newer request that arrived during the write; it will be flushed next.
+            pending.remove(storeId, write);
+        }
+        if (!pending.isEmpty() && scheduled.compareAndSet(false, true)) {
+            writer.schedule(this::flush, writeDelayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Hex of the ID's UTF-8 bytes: safe in any file system, case-insensitive ones included, and never
+    // the same for two stores.
+    Path path(String storeId) {
+        return directory.resolve(HexFormat.of().formatHex(storeId.getBytes(StandardCharsets.UTF_8)) + ".bin");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writer.shutdownNow();
+        flush();
+    }
+}
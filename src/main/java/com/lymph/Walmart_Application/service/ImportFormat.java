@@ -0,0 +1,20 @@
+package com.lymph.Walmart_Application.service;
+
+import java.util.Locale;
+
+/**
+ * Body formats accepted by the bulk import endpoints.
+ */
+public enum ImportFormat {
+    /** One JSON object per line, shaped like the entity. */
+    NDJSON,
+    /** Header row plus one record per line; locations as x, y, z columns and connections separated by ';'. */
+    CSV;
+
+    public static ImportFormat fromContentType(String contentType) {
+        String type = contentType == null ? "" : contentType.toLowerCase(Locale.ROOT);
+        if (type.contains("csv")) return CSV;
+        if (type.contains("ndjson") || type.contains("json")) return NDJSON;
+        throw new IllegalArgumentException("Unsupported import content type: " + contentType);
+    }
+}
@@ -0,0 +1,41 @@
+package com.lymph.Walmart_Application.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk import. Every record read is counted exactly once as inserted, updated,
+ * unchanged, duplicate (superseded by a later record with the same key in its batch) or failed.
+ * Only the first errors are listed; failed keeps counting past that.
+ */
+@Data
+@NoArgsConstructor
+public class ImportReport {
+    private ImportFormat format;
+    private long received;
+    private long inserted;
+    private long updated;
+    private long unchanged;
+    private long duplicates;
+    private long failed;
+    private int batches;
+    private boolean complete;
+    private long elapsedMs;
+    private List<RecordError> errors = new ArrayList<>();
+
+    /**
+     * @param line 1-based line of the record in the request body; 0 when the error is not tied to a record.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RecordError {
+        private long line;
+        private String key;
+        private String message;
+    }
+}
@@ -0,0 +1,107 @@
+package com.lymph.Walmart_Application.service;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap over node indices 0..capacity-1 keyed by a double priority.
+ * Every node appears at most once, and {@link #push} performs a true decrease-key
+ * in O(log n) instead of the remove/re-add that {@link java.util.PriorityQueue} needs.
+ */
+public final class IndexedMinHeap {
+
+    private int[] heap;
+    private int[] position; // node -> slot in heap, or -1 when absent
+    private double[] keys;
+    private int size;
+
+    public IndexedMinHeap(int capacity) {
+        heap = new int[capacity];
+        keys = new double[capacity];
+        position = new int[capacity];
+        Arrays.fill(position, -1);
+    }
+
+    public void ensureCapacity(int capacity) {
+        if (capacity <= position.length) return;
+        int oldCapacity = position.length;
+        heap = Arrays.copyOf(heap, capacity);
+        keys = Arrays.copyOf(keys, capacity);
+        position = Arrays.copyOf(position, capacity);
+        Arrays.fill(position, oldCapacity, capacity, -1);
+    }
+
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+    public boolean contains(int node) { return position[node] >= 0; }
+
+    /**
+     * Removes all remaining entries in O(size).
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) position[heap[i]] = -1;
+        size = 0;
+    }
+
+    /**
+     * Inserts the node, or lowers its key if it is already queued with a larger one.
+     */
+    public void push(int node, double key) {
+        int slot = position[node];
+        if (slot < 0) {
+            slot = size++;
+            heap[slot] = node;
+            position[node] = slot;
+            keys[node] = key;
+            siftUp(slot);
+        } else if (key < keys[node]) {
+            keys[node] = key;
+            siftUp(slot);
+        }
+    }
+
+    public double peekKey() { return keys[heap[0]]; }
+
+    public int poll() {
+        int top = heap[0];
+        position[top] = -1;
+        int last = heap[--size];
+        if (size > 0) {
+            heap[0] = last;
+            position[last] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    private void siftUp(int slot) {
+        int node = heap[slot];
+        double key = keys[node];
+        while (slot > 0) {
+            int parentSlot = (slot - 1) >>> 1;
+            int parent = heap[parentSlot];
+            if (keys[parent] <= key) break;
+            heap[slot] = parent;
+            position[parent] = slot;
+            slot = parentSlot;
+        }
+        heap[slot] = node;
+        position[node] = slot;
+    }
+
+    private void siftDown(int slot) {
+        int node = heap[slot];
+        double key = keys[node];
+        int half = size >>> 1;
+        while (slot < half) {
+            int child = 2 * slot + 1;
+            int right = child + 1;
+            if (right < size && keys[heap[right]] < keys[heap[child]]) child = right;
+            if (key <= keys[heap[child]]) break;
+            heap[slot] = heap[child];
+            position[heap[slot]] = slot;
+            slot = child;
+        }
+        heap[slot] = node;
+        position[node] = slot;
+    }
+}
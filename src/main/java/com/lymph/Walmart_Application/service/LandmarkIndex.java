@@ -0,0 +1,104 @@
+package com.lymph.Walmart_Application.service;
+
+import java.util.Arrays;
+
+/**
+ * Landmark distances for the ALT lower bound. For each landmark L the index stores d(L, v) and
+ * d(v, L) for every node v, so by the triangle inequality
+ * d(v, t) >= max(d(L, t) - d(L, v), d(v, L) - d(t, L)).
+ * Landmarks are chosen by farthest-point selection, which spreads them to the edges of the
+ * store where the bound is tightest, and which gives every disconnected region its own landmark.
+ */
+public final class LandmarkIndex {
+
+    private final NavigationGraph.Snapshot graph;
+    private final int[] landmarks;
+    private final double[][] fromLandmark;
+    private final double[][] toLandmark;
+
+    private LandmarkIndex(NavigationGraph.Snapshot graph, int[] landmarks, double[][] fromLandmark, double[][] toLandmark) {
+        this.graph = graph;
+        this.landmarks = landmarks;
+        this.fromLandmark = fromLandmark;
+        this.toLandmark = toLandmark;
+    }
+
+    public static LandmarkIndex build(NavigationGraph.Snapshot graph, int landmarkCount) {
+        int n = graph.size();
+        int count = Math.min(landmarkCount, n);
+        int[] landmarks = new int[count];
+        double[][] fromLandmark = new double[count][];
+        double[][] toLandmark = new double[count][];
+        if (count == 0) return new LandmarkIndex(graph, landmarks, fromLandmark, toLandmark);
+
+        // Distance from the nearest landmark chosen so far; the next landmark is the node maximising it.
+        double[] nearest = new double[n];
+        Arrays.fill(nearest, Double.POSITIVE_INFINITY);
+        int next = farthest(dijkstra(graph, 0, false));
+        for (int i = 0; i < count; i++) {
+            landmarks[i] = next;
+            fromLandmark[i] = dijkstra(graph, next, false);
+            toLandmark[i] = dijkstra(graph, next, true);
+            for (int v = 0; v < n; v++) nearest[v] = Math.min(nearest[v], fromLandmark[i][v]);
+            next = farthest(nearest);
+        }
+        return new LandmarkIndex(graph, landmarks, fromLandmark, toLandmark);
+    }
+
+    /**
+     * @return the snapshot this index was built for.
+     */
+    public NavigationGraph.Snapshot graph() { return graph; }
+    public int size() { return landmarks.length; }
+    public int landmark(int i) { return landmarks[i]; }
+
+    /**
+     * @return a lower bound on the shortest-path length from v to t.
+     */
+    public double lowerBound(int v, int t) {
+        double bound = 0;
+        for (int i = 0; i < landmarks.length; i++) {
+            double[] from = fromLandmark[i];
+            double[] to = toLandmark[i];
+            if (from[t] != Double.POSITIVE_INFINITY && from[v] != Double.POSITIVE_INFINITY) {
+                bound = Math.max(bound, from[t] - from[v]);
+            }
+            if (to[v] != Double.POSITIVE_INFINITY && to[t] != Double.POSITIVE_INFINITY) {
+                bound = Math.max(bound, to[v] - to[t]);
+            }
+        }
+        return bound;
+    }
+
+    // Picks the node with the largest distance; unreached (infinite) nodes win, chosen landmarks are at zero.
+    private static int farthest(double[] distances) {
+        int best = 0;
+        for (int v = 1; v < distances.length; v++) {
+            if (distances[v] > distances[best]) best = v;
+        }
+        return best;
+    }
+
+    // Full single-source Dijkstra, on the reverse graph when reverse is set.
+    private static double[] dijkstra(NavigationGraph.Snapshot graph, int source, boolean reverse) {
+        double[] distances = new double[graph.size()];
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        IndexedMinHeap open = new IndexedMinHeap(graph.size());
+        distances[source] = 0;
+        open.push(source, 0);
+        while (!open.isEmpty()) {
+            int u = open.poll();
+            int start = reverse ? graph.inEdgeStart(u) : graph.edgeStart(u);
+            int end = reverse ? graph.inEdgeEnd(u) : graph.edgeEnd(u);
+            for (int e = start; e < end; e++) {
+                int v = reverse ? graph.inEdgeSource(e) : graph.edgeTarget(e);
+                double length = graph.edgeLength(reverse ? graph.inEdge(e) : e);
+                if (distances[u] + length < distances[v]) {
+                    distances[v] = distances[u] + length;
+                    open.push(v, distances[v]);
+                }
+            }
+        }
+        return distances;
+    }
+}
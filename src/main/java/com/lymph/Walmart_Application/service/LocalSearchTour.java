@@ -0,0 +1,178 @@
+package com.lymph.Walmart_Application.service;
+
+import java.util.Arrays;
+
+/**
+ * Improves a constructed tour with 2-opt and Or-opt moves on the stop cost matrix until no
+ * improving move is left or the deadline passes. Every applied move shortens the tour, so the
+ * current tour is always the best one found and can be returned as soon as time runs out.
+ */
+public class LocalSearchTour implements TourStrategy {
+
+    private static final double EPSILON = 1e-9;
+    private static final int MAX_SEGMENT = 3;
+
+    private final TourStrategy construction;
+
+    public LocalSearchTour(TourStrategy construction) {
+        this.construction = construction;
+    }
+
+    @Override
+    public int[] order(StopDistanceMatrix matrix, int end, long deadlineNanos) {
+        int[] tour = construction.order(matrix, end, deadlineNanos);
+        boolean keepEnd = end > 0 && tour.length > 1 && tour[tour.length - 1] == end;
+
+        // If the checkout cannot be reached it stays appended, but the visits are optimised as an open tour.
+        int[] work = tour;
+        boolean fixedLast = keepEnd;
+        if (keepEnd && !allFinite(matrix, tour)) {
+            work = Arrays.copyOf(tour, tour.length - 1);
+            fixedLast = false;
+        }
+        if (!allFinite(matrix, work)) return tour;
+
+        new Search(matrix, work, fixedLast, deadlineNanos).run();
+
+        if (work != tour) System.arraycopy(work, 0, tour, 0, work.length);
+        return tour;
+    }
+
+    private static boolean allFinite(StopDistanceMatrix matrix, int[] tour) {
+        for (int a : tour) {
+            for (int b : tour) {
+                if (matrix.cost(a, b) == Double.POSITIVE_INFINITY) return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Mutable search state over one tour. Position 0 is fixed, and so is the last position
+     * when the tour has a fixed end; an open tour ends in a virtual stop of cost zero.
+     */
+    private static final class Search {
+        private final StopDistanceMatrix matrix;
+        private final int[] tour;
+        private final int lastMovable;
+        private final boolean symmetric;
+        private final long deadlineNanos;
+        private int checks;
+        private boolean timeUp;
+
+        Search(StopDistanceMatrix matrix, int[] tour, boolean fixedLast, long deadlineNanos) {
+            this.matrix = matrix;
+            this.tour = tour;
+            this.lastMovable = fixedLast ? tour.length - 2 : tour.length - 1;
+            this.symmetric = isSymmetric(matrix, tour);
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        void run() {
+            if (lastMovable < 2) return;
+            boolean improved = true;
+            while (improved && !expired()) {
+                improved = twoOpt();
+                improved |= orOpt();
+            }
+        }
+
+        private boolean expired() {
+            if (!timeUp && (checks++ & 0xFF) == 0) timeUp = System.nanoTime() - deadlineNanos > 0;
+            return timeUp;
+        }
+
+        private double cost(int a, int b) {
+            return a < 0 || b < 0 ? 0 : matrix.cost(a, b);
+        }
+
+        private int at(int position) {
+            return position < tour.length ? tour[position] : -1;
+        }
+
+        // Reverse tour[i..j] whenever that shortens the tour.
+        private boolean twoOpt() {
+            boolean improved = false;
+            for (int i = 1; i < lastMovable; i++) {
+                for (int j = i + 1; j <= lastMovable; j++) {
+                    if (expired()) return improved;
+                    int before = tour[i - 1];
+                    int after = at(j + 1);
+                    double delta = cost(before, tour[j]) + cost(tour[i], after)
+                            - cost(before, tour[i]) - cost(tour[j], after);
+                    if (!symmetric) delta += segmentDirectionDelta(i, j);
+                    if (delta < -EPSILON) {
+                        reverse(i, j);
+                        improved = true;
+                    }
+                }
+            }
+            return improved;
+        }
+
+        private double segmentDirectionDelta(int i, int j) {
+            double delta = 0;
+            for (int p = i; p < j; p++) {
+                delta += matrix.cost(tour[p + 1], tour[p]) - matrix.cost(tour[p], tour[p + 1]);
+            }
+            return delta;
+        }
+
+        private void reverse(int i, int j) {
+            while (i < j) {
+                int tmp = tour[i];
+                tour[i++] = tour[j];
+                tour[j--] = tmp;
+            }
+        }
+
+        // Move a run of up to MAX_SEGMENT stops to a cheaper place elsewhere in the tour.
+        private boolean orOpt() {
+            boolean improved = false;
+            for (int length = 1; length <= MAX_SEGMENT; length++) {
+                for (int i = 1; i + length - 1 <= lastMovable; i++) {
+                    int first = tour[i];
+                    int last = tour[i + length - 1];
+                    int before = tour[i - 1];
+                    int after = at(i + length);
+                    double removeGain = cost(before, first) + cost(last, after) - cost(before, after);
+
+                    for (int p = 0; p <= lastMovable; p++) {
+                        if (p >= i - 1 && p <= i + length - 1) continue;
+                        if (expired()) return improved;
+                        int u = tour[p];
+                        int w = at(p + 1);
+                        double insertCost = cost(u, first) + cost(last, w) - cost(u, w);
+                        if (insertCost - removeGain < -EPSILON) {
+                            move(i, length, p);
+                            improved = true;
+                            break;
+                        }
+                    }
+                }
+            }
+            return improved;
+        }
+
+        // Moves tour[i..i+length-1] so that it follows the stop currently at position p.
+        private void move(int i, int length, int p) {
+            int[] segment = Arrays.copyOfRange(tour, i, i + length);
+            if (p < i) {
+                System.arraycopy(tour, p + 1, tour, p + 1 + length, i - p - 1);
+                System.arraycopy(segment, 0, tour, p + 1, length);
+            } else {
+                System.arraycopy(tour, i + length, tour, i, p - i - length + 1);
+                System.arraycopy(segment, 0, tour, p - length + 1, length);
+            }
+        }
+
+        private static boolean isSymmetric(StopDistanceMatrix matrix, int[] tour) {
+            for (int a : tour) {
+                for (int b : tour) {
+                    if (Math.abs(matrix.cost(a, b) - matrix.cost(b, a)) > EPSILON) return false;
+                }
+            }
+            return true;
+        }
+    }
+}
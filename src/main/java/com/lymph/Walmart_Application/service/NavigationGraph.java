@@ -0,0 +1,597 @@
+package com.lymph.Walmart_Application.service;
+
+import com.lymph.Walmart_Application.entity.Location;
+import com.lymph.Walmart_Application.entity.Waypoint;
+import com.lymph.Walmart_Application.repo.WaypointRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Holds the in-memory routing graphs built from the "waypoints" collection, one per store.
+ * Each store's graph is loaded on first use into an immutable {@link Snapshot} and swapped
+ * atomically whenever its waypoints change, so routing never has to read Mongo on the hot path.
+ * Graphs are evicted when idle or when the resident graphs exceed the memory budget, and are
+ * loaded from the store's {@link GraphSnapshotStore} file when one is available.
+ * Temporary {@link Closure}s are kept per store and applied as an overlay on top of each base graph,
+ * so closing or reopening an aisle never rebuilds the graph from Mongo.
+ */
+@Component
+public class NavigationGraph {
+
+    /** Store of waypoints, products and settings without a storeId. */
+    public static final String DEFAULT_STORE = "default";
+
+    @Autowired
+    private WaypointRepository waypointRepository;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private GraphSnapshotStore snapshotStore;
+    @Autowired
+    private ConnectorCosts connectorCosts;
+    @Autowired
+    private PathSearchEngine searchEngine;
+
+    @Value("${routing.stores.memory-budget:256MB}")
+    private DataSize memoryBudget;
+    @Value("${routing.stores.idle-timeout:30m}")
+    private Duration idleTimeout;
+
+    // Versions are unique across stores, so a version alone identifies a snapshot.
+    private final AtomicLong versionCounter = new AtomicLong();
+    private Cache<String, Snapshot> graphs;
+    private final Map<String, List<Closure>> closuresByStore = new ConcurrentHashMap<>();
+    private final Map<String, Object> storeLocks = new ConcurrentHashMap<>();
+    // Waypoint sync version each store's resident base graph was built at, for its snapshot file.
+    private final Map<String, SourceVersion> sourceVersions = new ConcurrentHashMap<>();
+
+    private record SourceVersion(long graphVersion, long waypointVersion) {}
+
+    @PostConstruct
+    void init() {
+        graphs = Caffeine.newBuilder()
+                .maximumWeight(memoryBudget.toBytes())
+                .weigher((String store, Snapshot graph) -> (int) Math.min(Integer.MAX_VALUE, estimatedBytes(graph)))
+                .expireAfterAccess(idleTimeout)
+                .removalListener((String store, Snapshot graph, RemovalCause cause) -> {
+                    if (cause.wasEvicted() && graph != null) {
+                        eventPublisher.publishEvent(new NavigationGraphEvictedEvent(graph));
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    public static String storeOf(String storeId) {
+        return storeId == null || storeId.isBlank() ? DEFAULT_STORE : storeId;
+    }
+
+    /**
+     * Matches the documents of a store; documents without a storeId belong to the default store.
+     */
+    public static Criteria inStore(String storeId) {
+        String store = storeOf(storeId);
+        return DEFAULT_STORE.equals(store)
+                ? Criteria.where("storeId").in(Arrays.asList(null, DEFAULT_STORE))
+                : Criteria.where("storeId").is(store);
+    }
+
+    /**
+     * Returns the default store's current snapshot, loading it on first use.
+     */
+    public Snapshot snapshot() {
+        return snapshot(DEFAULT_STORE);
+    }
+
+    /**
+     * Returns the store's current snapshot, loading it on first use or after eviction.
+     * Concurrent callers for a store that is not resident share one load.
+     */
+    public Snapshot snapshot(String storeId) {
+        return graphs.get(storeOf(storeId), this::load);
+    }
+
+    public Snapshot reload() {
+        return reload(DEFAULT_STORE);
+    }
+
+    /**
+     * Rebuilds the store's snapshot from the repository and publishes it with a new version.
+     * Must be called after every create, move, connect or delete of one of its waypoints;
+     * listeners are notified through a {@link NavigationGraphChangedEvent}.
+     * Reloads of one store are serialized, so a build that read older waypoints can never be
+     * published over a newer one, and listeners see the versions in order.
+     */
+    public Snapshot reload(String storeId) {
+        String store = storeOf(storeId);
+        synchronized (lockFor(store)) {
+            Snapshot snapshot = withClosures(build(store));
+            Snapshot previous = graphs.asMap().put(store, snapshot);
+            eventPublisher.publishEvent(new NavigationGraphChangedEvent(snapshot, previous));
+            return snapshot;
+        }
+    }
+
+    public long version() {
+        return snapshot().version();
+    }
+
+    /**
+     * @return a fresh snapshot version, for snapshots derived outside this class.
+     */
+    public long newVersion() {
+        return versionCounter.incrementAndGet();
+    }
+
+    /**
+     * Replaces the closures of a store and swaps in a new overlay over its current base graph.
+     * A store that is not resident gets them applied when it is next loaded. Serialized with
+     * {@link #reload(String)}, so a reload that read the old closures cannot publish over the new overlay.
+     * @return the store's snapshot with the closures applied, or null if the store is not resident.
+     */
+    public Snapshot setClosures(String storeId, Collection<Closure> closures) {
+        String store = storeOf(storeId);
+        synchronized (lockFor(store)) {
+            if (closures.isEmpty()) closuresByStore.remove(store);
+            else closuresByStore.put(store, List.copyOf(closures));
+            return graphs.asMap().computeIfPresent(store, (key, current) -> withClosures(current.base()));
+        }
+    }
+
+    private Object lockFor(String store) {
+        return storeLocks.computeIfAbsent(store, key -> new Object());
+    }
+
+    private Snapshot withClosures(Snapshot base) {
+        List<Closure> closures = closuresByStore.getOrDefault(base.storeId(), List.of());
+        return closures.isEmpty() ? base : base.withClosures(closures, versionCounter.incrementAndGet());
+    }
+
+    /**
+     * @return the number of store graphs currently in memory.
+     */
+    public long residentStores() {
+        return graphs.estimatedSize();
+    }
+
+    public long evictions() {
+        return graphs.stats().evictionCount();
+    }
+
+    /**
+     * Loads the default store's snapshot file eagerly, so the first request is served without waiting for it.
+     * Without a file the graph stays lazy and is read from Mongo on first use.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadStoredSnapshot() {
+        if (snapshotStore.exists(DEFAULT_STORE)) snapshot();
+    }
+
+    /**
+     * @return the waypoint sync version the graph's base was built at, or -1 if unknown.
+     */
+    public long sourceVersion(Snapshot graph) {
+        SourceVersion source = sourceVersions.get(graph.storeId());
+        return source != null && source.graphVersion() == graph.base().version() ? source.waypointVersion() : -1;
+    }
+
+    private Snapshot load(String store) {
+        long waypointVersion = snapshotStore.syncVersion(Waypoint.class);
+        Optional<Snapshot> stored = snapshotStore.readGraph(store, versionCounter.incrementAndGet(), waypointVersion);
+        if (stored.isEmpty()) return withClosures(build(store));
+        sourceVersions.put(store, new SourceVersion(stored.get().version(), waypointVersion));
+        return withClosures(stored.get());
+    }
+
+    // The sync version is read before the waypoints, so the graph reflects at least every write up to it.
+    private Snapshot build(String store) {
+        long waypointVersion = snapshotStore.syncVersion(Waypoint.class);
+        List<Waypoint> waypoints = DEFAULT_STORE.equals(store)
+                ? waypointRepository.findByStoreIdIn(Arrays.asList(null, DEFAULT_STORE))
+                : waypointRepository.findByStoreId(store);
+        Snapshot graph = Snapshot.build(store, versionCounter.incrementAndGet(), waypoints, connectorCosts);
+        sourceVersions.put(store, new SourceVersion(graph.version(), waypointVersion));
+        return graph;
+    }
+
+    // Graph arrays plus the landmark tables the ALT modes will build for it.
+    private long estimatedBytes(Snapshot graph) {
+        long landmarks = searchEngine.mode() == SearchMode.ASTAR ? 0 : 16L * searchEngine.landmarkCount() * graph.size();
+        return graph.estimatedBytes() + landmarks;
+    }
+
+    /**
+     * Immutable, int-indexed view of the waypoint graph.
+     * Nodes are numbered 0..size()-1; outgoing edges of node u are the CSR range
+     * [edgeStart(u), edgeEnd(u)) with precomputed Euclidean lengths. Incoming edges are
+     * indexed the same way through inEdgeStart/inEdgeEnd, for searches on the reverse graph.
+     * A snapshot with closures applied shares everything with its base except the edge lengths,
+     * where closed edges are infinite.
+     */
+    public static final class Snapshot {
+        private final Snapshot base;
+        private final boolean congestionWeighted;
+        private final String storeId;
+        private final long version;
+        private final String[] ids;
+        private final Map<String, Integer> indexById;
+        private final double[] x;
+        private final double[] y;
+        private final double[] z;
+        private final int[] edgeOffsets;
+        private final int[] edgeTargets;
+        private final double[] edgeLengths;
+        private final int[] inEdgeOffsets;
+        private final int[] inEdges; // incoming edge -> index of the same edge in the outgoing arrays
+        private final int[] inEdgeSources;
+        private volatile SpatialIndex spatialIndex;
+        private volatile LandmarkIndex landmarks;
+        private volatile ConnectedComponents components;
+
+        private Snapshot(String storeId, long version, String[] ids, Map<String, Integer> indexById, double[] x, double[] y, double[] z,
+                         int[] edgeOffsets, int[] edgeTargets, double[] edgeLengths) {
+            this.base = this;
+            this.congestionWeighted = false;
+            this.storeId = storeId;
+            this.version = version;
+            this.ids = ids;
+            this.indexById = indexById;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.edgeOffsets = edgeOffsets;
+            this.edgeTargets = edgeTargets;
+            this.edgeLengths = edgeLengths;
+
+            int n = ids.length;
+            inEdgeOffsets = new int[n + 1];
+            for (int target : edgeTargets) inEdgeOffsets[target + 1]++;
+            for (int v = 0; v < n; v++) inEdgeOffsets[v + 1] += inEdgeOffsets[v];
+            inEdges = new int[edgeTargets.length];
+            inEdgeSources = new int[edgeTargets.length];
+            int[] fill = Arrays.copyOf(inEdgeOffsets, n);
+            for (int u = 0; u < n; u++) {
+                for (int e = edgeOffsets[u]; e < edgeOffsets[u + 1]; e++) {
+                    int slot = fill[edgeTargets[e]]++;
+                    inEdges[slot] = e;
+                    inEdgeSources[slot] = u;
+                }
+            }
+        }
+
+        private Snapshot(Snapshot base, long version, double[] edgeLengths, boolean congestionWeighted) {
+            this.base = base;
+            this.congestionWeighted = congestionWeighted;
+            this.storeId = base.storeId;
+            this.version = version;
+            this.ids = base.ids;
+            this.indexById = base.indexById;
+            this.x = base.x;
+            this.y = base.y;
+            this.z = base.z;
+            this.edgeOffsets = base.edgeOffsets;
+            this.edgeTargets = base.edgeTargets;
+            this.edgeLengths = edgeLengths;
+            this.inEdgeOffsets = base.inEdgeOffsets;
+            this.inEdges = base.inEdges;
+            this.inEdgeSources = base.inEdgeSources;
+        }
+
+        public static Snapshot build(long version, Collection<Waypoint> waypoints) {
+            return build(DEFAULT_STORE, version, waypoints, ConnectorCosts.NONE);
+        }
+
+        /**
+         * Builds a snapshot from one store's waypoint documents. Waypoints without a location are skipped,
+         * as are connections to unknown IDs (including other stores), self-loops and duplicate connections.
+         */
+        public static Snapshot build(String storeId, long version, Collection<Waypoint> waypoints, ConnectorCosts costs) {
+            List<Waypoint> nodes = new ArrayList<>(waypoints.size());
+            Map<String, Integer> indexById = new HashMap<>(waypoints.size() * 2);
+            for (Waypoint wp : waypoints) {
+                if (wp == null || wp.getId() == null || wp.getLocation() == null || indexById.containsKey(wp.getId())) continue;
+                indexById.put(wp.getId(), nodes.size());
+                nodes.add(wp);
+            }
+
+            int n = nodes.size();
+            String[] ids = new String[n];
+            double[] x = new double[n];
+            double[] y = new double[n];
+            double[] z = new double[n];
+            for (int i = 0; i < n; i++) {
+                Waypoint wp = nodes.get(i);
+                ids[i] = wp.getId();
+                x[i] = wp.getLocation().getX();
+                y[i] = wp.getLocation().getY();
+                z[i] = wp.getLocation().getZ();
+            }
+
+            int[] edgeOffsets = new int[n + 1];
+            int[] targets = new int[16];
+            int edgeCount = 0;
+            for (int u = 0; u < n; u++) {
+                edgeOffsets[u] = edgeCount;
+                List<String> connections = nodes.get(u).getConnections();
+                if (connections == null) continue;
+                for (String neighborId : connections) {
+                    Integer v = neighborId == null ? null : indexById.get(neighborId);
+                    if (v == null || v == u || containsTarget(targets, edgeOffsets[u], edgeCount, v)) continue;
+                    if (edgeCount == targets.length) targets = Arrays.copyOf(targets, edgeCount * 2);
+                    targets[edgeCount++] = v;
+                }
+            }
+            edgeOffsets[n] = edgeCount;
+
+            int[] edgeTargets = Arrays.copyOf(targets, edgeCount);
+            double[] edgeLengths = new double[edgeCount];
+            for (int u = 0; u < n; u++) {
+                for (int e = edgeOffsets[u]; e < edgeOffsets[u + 1]; e++) {
+                    int v = edgeTargets[e];
+                    double dx = x[u] - x[v];
+                    double dy = y[u] - y[v];
+                    double dz = z[u] - z[v];
+                    edgeLengths[e] = costs.cost(nodes.get(u), nodes.get(v), Math.sqrt(dx * dx + dy * dy + dz * dz));
+                }
+            }
+            return new Snapshot(storeId, version, ids, indexById, x, y, z, edgeOffsets, edgeTargets, edgeLengths);
+        }
+
+        /**
+         * Wraps already validated CSR arrays, as decoded from a {@link GraphSnapshotFile}.
+         */
+        static Snapshot of(String storeId, long version, String[] ids, double[] x, double[] y, double[] z,
+                           int[] edgeOffsets, int[] edgeTargets, double[] edgeLengths) {
+            Map<String, Integer> indexById = new HashMap<>(ids.length * 2);
+            for (int i = 0; i < ids.length; i++) indexById.put(ids[i], i);
+            return new Snapshot(storeId, version, ids, indexById, x, y, z, edgeOffsets, edgeTargets, edgeLengths);
+        }
+
+        /**
+         * Applies closures on top of this snapshot's base graph in O(edges): closed edges get an
+         * infinite length, so every search treats them as absent. Closures referring to waypoints
+         * or edges that are not in the graph are ignored.
+         */
+        public Snapshot withClosures(Collection<Closure> closures, long version) {
+            double[] lengths = base.edgeLengths.clone();
+            for (Closure closure : closures) {
+                if (closure.getWaypointId() != null) {
+                    int node = indexOf(closure.getWaypointId());
+                    if (node < 0) continue;
+                    Arrays.fill(lengths, edgeOffsets[node], edgeOffsets[node + 1], Double.POSITIVE_INFINITY);
+                    for (int in = inEdgeOffsets[node]; in < inEdgeOffsets[node + 1]; in++) {
+                        lengths[inEdges[in]] = Double.POSITIVE_INFINITY;
+                    }
+                } else {
+                    int from = indexOf(closure.getFromId());
+                    int to = indexOf(closure.getToId());
+                    if (from < 0 || to < 0) continue;
+                    closeEdge(lengths, from, to);
+                    closeEdge(lengths, to, from);
+                }
+            }
+            return new Snapshot(base, version, lengths, false);
+        }
+
+        /**
+         * Scales this snapshot's edge lengths, closures included, by per-edge multipliers indexed like
+         * the base graph's edges. Multipliers must be at least 1 to keep the search heuristics admissible.
+         */
+        public Snapshot withMultipliers(float[] multipliers, long version) {
+            double[] lengths = new double[edgeLengths.length];
+            for (int e = 0; e < lengths.length; e++) lengths[e] = edgeLengths[e] * multipliers[e];
+            Snapshot weighted = new Snapshot(base, version, lengths, true);
+            weighted.components = components(); // finite multipliers open or close nothing
+            return weighted;
+        }
+
+        private void closeEdge(double[] lengths, int from, int to) {
+            for (int e = edgeOffsets[from]; e < edgeOffsets[from + 1]; e++) {
+                if (edgeTargets[e] == to) lengths[e] = Double.POSITIVE_INFINITY;
+            }
+        }
+
+        /**
+         * @return true if the graph has an edge between the two waypoints in either direction.
+         */
+        public boolean hasEdge(String fromId, String toId) {
+            int from = indexOf(fromId);
+            int to = indexOf(toId);
+            if (from < 0 || to < 0) return false;
+            for (int e = edgeOffsets[from]; e < edgeOffsets[from + 1]; e++) {
+                if (edgeTargets[e] == to) return true;
+            }
+            for (int e = edgeOffsets[to]; e < edgeOffsets[to + 1]; e++) {
+                if (edgeTargets[e] == from) return true;
+            }
+            return false;
+        }
+
+        private static boolean containsTarget(int[] targets, int from, int to, int v) {
+            for (int e = from; e < to; e++) {
+                if (targets[e] == v) return true;
+            }
+            return false;
+        }
+
+        public String storeId() { return storeId; }
+        public long version() { return version; }
+
+        /**
+         * @return the snapshot without closures applied; this snapshot itself when it has none.
+         */
+        public Snapshot base() { return base; }
+
+        /**
+         * @return true if the edge lengths include live congestion multipliers.
+         */
+        public boolean congestionWeighted() { return congestionWeighted; }
+        public int size() { return ids.length; }
+        public int edgeCount() { return edgeTargets.length; }
+
+        /**
+         * @return the node index of the waypoint, or -1 if it is not part of the graph.
+         */
+        public int indexOf(String waypointId) {
+            if (waypointId == null) return -1;
+            Integer index = indexById.get(waypointId);
+            return index == null ? -1 : index;
+        }
+
+        public boolean contains(String waypointId) { return indexOf(waypointId) >= 0; }
+        public String id(int node) { return ids[node]; }
+        public double x(int node) { return x[node]; }
+        public double y(int node) { return y[node]; }
+        public double z(int node) { return z[node]; }
+        public int edgeStart(int node) { return edgeOffsets[node]; }
+        public int edgeEnd(int node) { return edgeOffsets[node + 1]; }
+        public int edgeTarget(int edge) { return edgeTargets[edge]; }
+        public double edgeLength(int edge) { return edgeLengths[edge]; }
+        public int inEdgeStart(int node) { return inEdgeOffsets[node]; }
+        public int inEdgeEnd(int node) { return inEdgeOffsets[node + 1]; }
+        public int inEdgeSource(int inEdge) { return inEdgeSources[inEdge]; }
+        public int inEdge(int inEdge) { return inEdges[inEdge]; }
+
+        // 3D Euclidean distance between two nodes; a lower bound on every edge cost, connectors included.
+        public double distance(int a, int b) {
+            double dx = x[a] - x[b];
+            double dy = y[a] - y[b];
+            double dz = z[a] - z[b];
+            return Math.sqrt(dx * dx + dy * dy + dz * dz);
+        }
+
+        /**
+         * @return the summed edge costs along a node path, or infinity if two consecutive nodes are not connected.
+         */
+        public double pathLength(int[] path) {
+            double length = 0;
+            for (int i = 1; i < path.length; i++) {
+                double edge = Double.POSITIVE_INFINITY;
+                for (int e = edgeOffsets[path[i - 1]]; e < edgeOffsets[path[i - 1] + 1]; e++) {
+                    if (edgeTargets[e] == path[i]) edge = Math.min(edge, edgeLengths[e]);
+                }
+                length += edge;
+            }
+            return length;
+        }
+
+        /**
+         * Rough heap footprint of this snapshot, used to weigh it against the store memory budget.
+         */
+        public long estimatedBytes() {
+            long n = ids.length;
+            long m = edgeTargets.length;
+            long idBytes = 0;
+            for (String id : ids) idBytes += 48 + id.length();
+            // coordinates, offsets and the id map per node; target, length and reverse entries per edge
+            long bytes = idBytes + n * (3 * 8 + 2 * 4 + 48) + m * (4 + 8 + 4 + 4);
+            return base == this ? bytes : bytes + m * 8;
+        }
+
+        /**
+         * @return landmark distances for the ALT searches, built on first use and kept with the snapshot.
+         * Snapshots with closures reuse their base graph's landmarks: closures only lengthen paths, so
+         * bounds from the open graph remain admissible and consistent.
+         */
+        public LandmarkIndex landmarks(int count) {
+            if (base != this) return base.landmarks(count);
+            LandmarkIndex index = landmarks;
+            if (index == null || index.size() != Math.min(count, size())) {
+                synchronized (this) {
+                    index = landmarks;
+                    if (index == null || index.size() != Math.min(count, size())) {
+                        index = LandmarkIndex.build(this, count);
+                        landmarks = index;
+                    }
+                }
+            }
+            return index;
+        }
+
+        /**
+         * @return the k-d tree over this snapshot's waypoint locations, built on first use.
+         */
+        public SpatialIndex spatialIndex() {
+            if (base != this) return base.spatialIndex();
+            SpatialIndex index = spatialIndex;
+            if (index == null) {
+                synchronized (this) {
+                    index = spatialIndex;
+                    if (index == null) {
+                        index = SpatialIndex.build(this);
+                        spatialIndex = index;
+                    }
+                }
+            }
+            return index;
+        }
+
+        /**
+         * @return the connected components of this snapshot's open edges, built on first use. Unlike the
+         * landmarks and the spatial index they are not shared with the base graph, since closures can
+         * split a component.
+         */
+        public ConnectedComponents components() {
+            ConnectedComponents index = components;
+            if (index == null) {
+                synchronized (this) {
+                    index = components;
+                    if (index == null) {
+                        index = ConnectedComponents.build(this);
+                        components = index;
+                    }
+                }
+            }
+            return index;
+        }
+
+        /**
+         * @return the node nearest to the given point, or -1 if the point is null or the graph is empty.
+         */
+        public int nearestNode(Location point) {
+            return point == null ? -1 : spatialIndex().nearest(point.getX(), point.getY(), point.getZ());
+        }
+
+        public Location location(int node) {
+            return new Location(x[node], y[node], z[node]);
+        }
+
+        /**
+         * Materialises a detached {@link Waypoint} for the given node, with its store, location and
+         * connections; floor and type are only kept in Mongo.
+         */
+        public Waypoint waypoint(int node) {
+            Waypoint wp = new Waypoint();
+            wp.setId(ids[node]);
+            if (!DEFAULT_STORE.equals(storeId)) wp.setStoreId(storeId);
+            wp.setLocation(location(node));
+            List<String> connections = new ArrayList<>(edgeEnd(node) - edgeStart(node));
+            for (int e = edgeStart(node); e < edgeEnd(node); e++) {
+                connections.add(ids[edgeTargets[e]]);
+            }
+            wp.setConnections(connections);
+            return wp;
+        }
+    }
+}
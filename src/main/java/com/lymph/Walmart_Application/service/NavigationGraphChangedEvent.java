@@ -0,0 +1,8 @@
+package com.lymph.Walmart_Application.service;
+
+/**
+ * Published by {@link NavigationGraph} after a new snapshot has been swapped in.
+ * @param previous the store's snapshot it replaced, or null if the store was not resident
+ */
+public record NavigationGraphChangedEvent(NavigationGraph.Snapshot snapshot, NavigationGraph.Snapshot previous) {
+}
@@ -0,0 +1,9 @@
+package com.lymph.Walmart_Application.service;
+
+/**
+ * Published by {@link NavigationGraph} after a store's snapshot was dropped from memory for size or
+ * idleness. The store is loaded again on its next use.
+ * @param snapshot the snapshot that was evicted
+ */
+public record NavigationGraphEvictedEvent(NavigationGraph.Snapshot snapshot) {
+}
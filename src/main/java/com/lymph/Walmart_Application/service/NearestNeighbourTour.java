@@ -0,0 +1,37 @@
+package com.lymph.Walmart_Application.service;
+
+import java.util.Arrays;
+
+/**
+ * Greedy construction: always walk to the closest stop not yet visited.
+ * Fast, but typically well above the optimal tour length on large carts.
+ */
+public class NearestNeighbourTour implements TourStrategy {
+
+    @Override
+    public int[] order(StopDistanceMatrix matrix, int end, long deadlineNanos) {
+        int stopCount = matrix.size();
+        int[] tour = new int[stopCount];
+        boolean[] visited = new boolean[stopCount];
+        int length = 0;
+        int current = 0;
+        visited[0] = true;
+        tour[length++] = 0;
+        if (end > 0) visited[end] = true;
+
+        while (true) {
+            int nearest = -1;
+            for (int candidate = 1; candidate < stopCount; candidate++) {
+                if (visited[candidate] || matrix.cost(current, candidate) == Double.POSITIVE_INFINITY) continue;
+                if (nearest < 0 || matrix.cost(current, candidate) < matrix.cost(current, nearest)) nearest = candidate;
+            }
+            if (nearest < 0) break;
+            visited[nearest] = true;
+            tour[length++] = nearest;
+            current = nearest;
+        }
+
+        if (end > 0) tour[length++] = end;
+        return Arrays.copyOf(tour, length);
+    }
+}
@@ -0,0 +1,18 @@
+package com.lymph.Walmart_Application.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * A single point-to-point search, with the work it took so search modes can be compared.
+ */
+@Data
+@AllArgsConstructor
+public class PathQueryResult {
+    private SearchMode mode;
+    private List<String> path;
+    private double distance;
+    private int expansions;
+}
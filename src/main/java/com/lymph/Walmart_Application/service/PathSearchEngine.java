@@ -0,0 +1,410 @@
+package com.lymph.Walmart_Application.service;
+
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Primitive-specialised shortest-path search over a {@link NavigationGraph.Snapshot}.
+ * Scores and parents live in scratch arrays borrowed from a small pool for the length of one
+ * search, so request threads (virtual or not) share them instead of each growing their own;
+ * a generation stamp marks which entries belong to the current search, so nothing has
+ * to be cleared or allocated per query apart from the returned path itself.
+ * Point-to-point queries use the configured {@link SearchMode}; landmark distances for the
+ * ALT modes are built lazily for each new snapshot and kept with it.
+ */
+public final class PathSearchEngine {
+
+    private static final int[] NO_PATH = new int[0];
+
+    // Searches beyond the pool's capacity allocate their own scratch, which is dropped afterwards.
+    private final BlockingQueue<Scratch> scratchPool =
+            new ArrayBlockingQueue<>(2 * Runtime.getRuntime().availableProcessors());
+    private final ThreadLocal<LastSearch> lastSearch = ThreadLocal.withInitial(LastSearch::new);
+    private final SearchMode mode;
+    private final int landmarkCount;
+
+    private final LongAdder queries = new LongAdder();
+    private final LongAdder totalExpansions = new LongAdder();
+    private final LongAdder disconnectedQueries = new LongAdder();
+
+    public PathSearchEngine() {
+        this(SearchMode.ASTAR, 0);
+    }
+
+    public PathSearchEngine(SearchMode mode, int landmarkCount) {
+        this.mode = mode;
+        this.landmarkCount = landmarkCount;
+    }
+
+    public SearchMode mode() { return mode; }
+    public int landmarkCount() { return landmarkCount; }
+
+    /**
+     * @return the length of the shortest path, or {@link Double#POSITIVE_INFINITY} if target is unreachable.
+     */
+    public double distance(NavigationGraph.Snapshot graph, int source, int target) {
+        return distance(graph, source, target, mode);
+    }
+
+    public double distance(NavigationGraph.Snapshot graph, int source, int target, SearchMode searchMode) {
+        Scratch s = borrow();
+        try {
+            return search(graph, source, target, searchMode, s) >= 0 ? s.bestDistance : Double.POSITIVE_INFINITY;
+        } finally {
+            release(s);
+        }
+    }
+
+    /**
+     * @return node indices from source to target inclusive, or an empty array if target is unreachable.
+     */
+    public int[] path(NavigationGraph.Snapshot graph, int source, int target) {
+        return path(graph, source, target, mode);
+    }
+
+    public int[] path(NavigationGraph.Snapshot graph, int source, int target, SearchMode searchMode) {
+        Scratch s = borrow();
+        try {
+            int meet = search(graph, source, target, searchMode, s);
+            if (meet < 0) return NO_PATH;
+            return searchMode == SearchMode.ALT_BIDIRECTIONAL ? s.pathThrough(meet) : s.pathTo(target);
+        } finally {
+            release(s);
+        }
+    }
+
+    /**
+     * Runs a single-source Dijkstra from source until every target is settled or the reachable
+     * graph is exhausted. Distances to targets are written to distances (infinity if unreachable)
+     * and the shortest-path tree is copied into predecessors, which must hold graph.size() entries.
+     * Only chains starting at a reached target are meaningful in the copied tree.
+     */
+    public void shortestPathTree(NavigationGraph.Snapshot graph, int source, int[] targets,
+                                 double[] distances, int[] predecessors) {
+        Scratch s = borrow();
+        try {
+            shortestPathTree(graph, source, targets, distances, predecessors, s);
+        } finally {
+            release(s);
+        }
+    }
+
+    private void shortestPathTree(NavigationGraph.Snapshot graph, int source, int[] targets,
+                                  double[] distances, int[] predecessors, Scratch s) {
+        s.prepare(graph.size());
+        IndexedMinHeap open = s.open;
+        ConnectedComponents components = graph.components();
+        int remaining = 0;
+        for (int target : targets) {
+            // Targets in another component are left unsettled instead of exhausting the graph looking for them.
+            if (!components.connected(source, target)) continue;
+            if (s.pending[target] != s.generation) {
+                s.pending[target] = s.generation;
+                remaining++;
+            }
+        }
+        s.reach(source, 0, -1);
+        open.push(source, 0);
+
+        while (!open.isEmpty() && remaining > 0) {
+            int current = open.poll();
+            s.settled[current] = s.generation;
+            if (s.pending[current] == s.generation) remaining--;
+            s.expansions++;
+            double currentScore = s.gScore[current];
+
+            for (int e = graph.edgeStart(current); e < graph.edgeEnd(current); e++) {
+                int neighbor = graph.edgeTarget(e);
+                if (s.settled[neighbor] == s.generation) continue;
+
+                double tentative = currentScore + graph.edgeLength(e);
+                if (tentative < s.g(neighbor)) {
+                    s.reach(neighbor, tentative, current);
+                    open.push(neighbor, tentative);
+                }
+            }
+            if (open.size() > s.maxHeapSize) s.maxHeapSize = open.size();
+        }
+
+        for (int i = 0; i < targets.length; i++) {
+            distances[i] = s.settled[targets[i]] == s.generation ? s.gScore[targets[i]] : Double.POSITIVE_INFINITY;
+        }
+        System.arraycopy(s.parent, 0, predecessors, 0, graph.size());
+    }
+
+    /**
+     * @return the number of nodes expanded by the last search on the calling thread.
+     */
+    public int lastExpansions() {
+        return lastSearch.get().expansions;
+    }
+
+    /**
+     * @return the largest open-set size reached by the last search on the calling thread.
+     */
+    public int lastMaxHeapSize() {
+        return lastSearch.get().maxHeapSize;
+    }
+
+    /**
+     * @return the number of point-to-point queries answered since startup.
+     */
+    public long queryCount() { return queries.sum(); }
+
+    /**
+     * @return the total number of nodes expanded by point-to-point queries since startup.
+     */
+    public long expansionCount() { return totalExpansions.sum(); }
+
+    /**
+     * @return the number of point-to-point queries answered without searching because source and
+     * target lie in different components.
+     */
+    public long disconnectedCount() { return disconnectedQueries.sum(); }
+
+    // Prefers a pooled scratch; its arrays grow to the largest graph it has searched and are kept.
+    private Scratch borrow() {
+        Scratch s = scratchPool.poll();
+        return s != null ? s : new Scratch();
+    }
+
+    private void release(Scratch s) {
+        LastSearch last = lastSearch.get();
+        last.expansions = s.expansions;
+        last.maxHeapSize = s.maxHeapSize;
+        scratchPool.offer(s);
+    }
+
+    // Returns the node where the path was found (the target, or the meeting node), or -1.
+    private int search(NavigationGraph.Snapshot graph, int source, int target, SearchMode searchMode, Scratch s) {
+        if (!graph.components().connected(source, target)) {
+            s.expansions = 0;
+            s.maxHeapSize = 0;
+            queries.increment();
+            disconnectedQueries.increment();
+            return -1;
+        }
+        LandmarkIndex index = searchMode == SearchMode.ASTAR ? null : landmarksFor(graph);
+        int found = searchMode == SearchMode.ALT_BIDIRECTIONAL
+                ? bidirectional(graph, source, target, index, s)
+                : aStar(graph, source, target, index, s);
+        queries.increment();
+        totalExpansions.add(s.expansions);
+        return found;
+    }
+
+    private LandmarkIndex landmarksFor(NavigationGraph.Snapshot graph) {
+        return graph.landmarks(landmarkCount);
+    }
+
+    // Lower bound on d(v, t): the straight line, tightened by the landmarks when available.
+    private static double potential(NavigationGraph.Snapshot graph, LandmarkIndex index, int v, int t) {
+        double bound = graph.distance(v, t);
+        return index == null ? bound : Math.max(bound, index.lowerBound(v, t));
+    }
+
+    private int aStar(NavigationGraph.Snapshot graph, int source, int target, LandmarkIndex index, Scratch s) {
+        s.prepare(graph.size());
+        IndexedMinHeap open = s.open;
+        s.reach(source, 0, -1);
+        open.push(source, potential(graph, index, source, target));
+
+        while (!open.isEmpty()) {
+            int current = open.poll();
+            if (current == target) {
+                s.bestDistance = s.gScore[target];
+                return target;
+            }
+
+            s.settled[current] = s.generation;
+            s.expansions++;
+            double currentScore = s.gScore[current];
+
+            for (int e = graph.edgeStart(current); e < graph.edgeEnd(current); e++) {
+                int neighbor = graph.edgeTarget(e);
+                if (s.settled[neighbor] == s.generation) continue;
+
+                double tentative = currentScore + graph.edgeLength(e);
+                if (tentative < s.g(neighbor)) {
+                    s.reach(neighbor, tentative, current);
+                    open.push(neighbor, tentative + potential(graph, index, neighbor, target));
+                }
+            }
+            if (open.size() > s.maxHeapSize) s.maxHeapSize = open.size();
+        }
+        return -1;
+    }
+
+    /**
+     * Bidirectional A* with the average potential p(v) = (h_t(v) - h_s(v)) / 2, which keeps reduced
+     * edge costs non-negative in both directions. The search stops once the two smallest queue keys
+     * add up to at least the best meeting cost found so far.
+     */
+    private int bidirectional(NavigationGraph.Snapshot graph, int source, int target, LandmarkIndex index, Scratch s) {
+        s.prepare(graph.size());
+        s.reach(source, 0, -1);
+        s.reachBackward(target, 0, -1);
+        if (source == target) {
+            s.bestDistance = 0;
+            return source;
+        }
+        IndexedMinHeap forward = s.open;
+        IndexedMinHeap backward = s.openBackward;
+        forward.push(source, averagePotential(graph, index, source, target, source));
+        backward.push(target, -averagePotential(graph, index, source, target, target));
+
+        double best = Double.POSITIVE_INFINITY;
+        int meet = -1;
+        while (!forward.isEmpty() && !backward.isEmpty()) {
+            if (forward.peekKey() + backward.peekKey() >= best) break;
+
+            if (forward.peekKey() <= backward.peekKey()) {
+                int current = forward.poll();
+                s.settled[current] = s.generation;
+                s.expansions++;
+                double currentScore = s.gScore[current];
+                for (int e = graph.edgeStart(current); e < graph.edgeEnd(current); e++) {
+                    int neighbor = graph.edgeTarget(e);
+                    if (s.settled[neighbor] == s.generation) continue;
+                    double tentative = currentScore + graph.edgeLength(e);
+                    if (tentative < s.g(neighbor)) {
+                        s.reach(neighbor, tentative, current);
+                        forward.push(neighbor, tentative + averagePotential(graph, index, source, target, neighbor));
+                        double through = tentative + s.gBackward(neighbor);
+                        if (through < best) {
+                            best = through;
+                            meet = neighbor;
+                        }
+                    }
+                }
+            } else {
+                int current = backward.poll();
+                s.settledBackward[current] = s.generation;
+                s.expansions++;
+                double currentScore = s.gScoreBackward[current];
+                for (int in = graph.inEdgeStart(current); in < graph.inEdgeEnd(current); in++) {
+                    int neighbor = graph.inEdgeSource(in);
+                    if (s.settledBackward[neighbor] == s.generation) continue;
+                    double tentative = currentScore + graph.edgeLength(graph.inEdge(in));
+                    if (tentative < s.gBackward(neighbor)) {
+                        s.reachBackward(neighbor, tentative, current);
+                        backward.push(neighbor, tentative - averagePotential(graph, index, source, target, neighbor));
+                        double through = s.g(neighbor) + tentative;
+                        if (through < best) {
+                            best = through;
+                            meet = neighbor;
+                        }
+                    }
+                }
+            }
+            int heapSize = forward.size() + backward.size();
+            if (heapSize > s.maxHeapSize) s.maxHeapSize = heapSize;
+        }
+        s.bestDistance = best;
+        return meet;
+    }
+
+    private static double averagePotential(NavigationGraph.Snapshot graph, LandmarkIndex index, int source, int target, int v) {
+        return (potential(graph, index, v, target) - potential(graph, index, source, v)) / 2;
+    }
+
+    // Counters of the calling thread's last search, kept apart from the pooled arrays.
+    private static final class LastSearch {
+        int expansions;
+        int maxHeapSize;
+    }
+
+    /**
+     * Reusable search state, held by one search at a time. Entries of gScore and parent are valid only where
+     * reached[v] equals the current generation; settled[v] marks closed nodes and pending[v]
+     * marks outstanding Dijkstra targets the same way. The *Backward arrays hold the reverse
+     * half of a bidirectional search, where next[v] points one step closer to the target.
+     */
+    static final class Scratch {
+        double[] gScore = new double[0];
+        int[] parent = new int[0];
+        int[] reached = new int[0];
+        int[] settled = new int[0];
+        int[] pending = new int[0];
+        double[] gScoreBackward = new double[0];
+        int[] next = new int[0];
+        int[] reachedBackward = new int[0];
+        int[] settledBackward = new int[0];
+        final IndexedMinHeap open = new IndexedMinHeap(0);
+        final IndexedMinHeap openBackward = new IndexedMinHeap(0);
+        int generation;
+        int expansions;
+        int maxHeapSize;
+        double bestDistance;
+
+        void prepare(int nodeCount) {
+            if (gScore.length < nodeCount) {
+                gScore = new double[nodeCount];
+                parent = new int[nodeCount];
+                reached = new int[nodeCount];
+                settled = new int[nodeCount];
+                pending = new int[nodeCount];
+                gScoreBackward = new double[nodeCount];
+                next = new int[nodeCount];
+                reachedBackward = new int[nodeCount];
+                settledBackward = new int[nodeCount];
+                open.ensureCapacity(nodeCount);
+                openBackward.ensureCapacity(nodeCount);
+                generation = 0;
+            }
+            open.clear();
+            openBackward.clear();
+            if (++generation == Integer.MAX_VALUE) {
+                Arrays.fill(reached, 0);
+                Arrays.fill(settled, 0);
+                Arrays.fill(pending, 0);
+                Arrays.fill(reachedBackward, 0);
+                Arrays.fill(settledBackward, 0);
+                generation = 1;
+            }
+            expansions = 0;
+            maxHeapSize = 0;
+        }
+
+        double g(int node) {
+            return reached[node] == generation ? gScore[node] : Double.POSITIVE_INFINITY;
+        }
+
+        void reach(int node, double score, int from) {
+            reached[node] = generation;
+            gScore[node] = score;
+            parent[node] = from;
+        }
+
+        double gBackward(int node) {
+            return reachedBackward[node] == generation ? gScoreBackward[node] : Double.POSITIVE_INFINITY;
+        }
+
+        void reachBackward(int node, double score, int to) {
+            reachedBackward[node] = generation;
+            gScoreBackward[node] = score;
+            next[node] = to;
+        }
+
+        // Joins the forward chain ending at meet with the backward chain starting after it.
+        int[] pathThrough(int meet) {
+            int[] head = pathTo(meet);
+            int tail = 0;
+            for (int v = next[meet]; v >= 0; v = next[v]) tail++;
+            int[] path = Arrays.copyOf(head, head.length + tail);
+            int i = head.length;
+            for (int v = next[meet]; v >= 0; v = next[v]) path[i++] = v;
+            return path;
+        }
+
+        int[] pathTo(int target) {
+            int length = 0;
+            for (int v = target; v >= 0; v = parent[v]) length++;
+            int[] path = new int[length];
+            for (int v = target, i = length - 1; v >= 0; v = parent[v], i--) path[i] = v;
+            return path;
+        }
+    }
+}
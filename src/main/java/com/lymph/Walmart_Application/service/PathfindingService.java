@@ -1,115 +1,103 @@
 package com.lymph.Walmart_Application.service;
 
-import com.lymph.Walmart_Application.entity.Location;
 import com.lymph.Walmart_Application.entity.Waypoint;
-import com.lymph.Walmart_Application.repo.WaypointRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.util.*;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
- * Implements the A* pathfinding algorithm to find the shortest path between two waypoints.
+ * Finds the shortest path between two waypoints over the in-memory {@link NavigationGraph}.
+ * The search itself is done by {@link PathSearchEngine}; this service adapts it to waypoint IDs.
  */
 @Service
 public class PathfindingService {
 
     @Autowired
-    private WaypointRepository waypointRepository;
-
-    private static class PathNode implements Comparable<PathNode> {
-        String waypointId;
-        double gScore; // Cost from start to the current node
-        double fScore; // Estimated cost from start to end (gScore + heuristic)
-        PathNode parent;
-
-        PathNode(String waypointId) {
-            this.waypointId = waypointId;
-            this.gScore = Double.POSITIVE_INFINITY;
-            this.fScore = Double.POSITIVE_INFINITY;
-        }
-
-        @Override
-        public int compareTo(PathNode other) {
-            return Double.compare(this.fScore, other.fScore);
-        }
-    }
-
-    public List<Waypoint> findPath(String startId, String endId) {
-        Map<String, Waypoint> allWaypoints = new HashMap<>();
-        waypointRepository.findAll().forEach(wp -> allWaypoints.put(wp.getId(), wp));
-
-        if (!allWaypoints.containsKey(startId) || !allWaypoints.containsKey(endId)) {
-            return new ArrayList<>(); // Return empty list if start or end doesn't exist
-        }
-
-        Map<String, PathNode> allPathNodes = new HashMap<>();
-        allWaypoints.keySet().forEach(id -> allPathNodes.put(id, new PathNode(id)));
-
-        PathNode startNode = allPathNodes.get(startId);
-        startNode.gScore = 0;
-        startNode.fScore = heuristic(allWaypoints.get(startId), allWaypoints.get(endId));
-
-        PriorityQueue<PathNode> openSet = new PriorityQueue<>();
-        openSet.add(startNode);
+    private NavigationGraph navigationGraph;
 
-        Set<String> closedSet = new HashSet<>();
-
-        while (!openSet.isEmpty()) {
-            PathNode current = openSet.poll();
-
-            if (current.waypointId.equals(endId)) {
-                return reconstructPath(current, allPathNodes, allWaypoints);
-            }
+    @Autowired
+    private PathSearchEngine searchEngine;
 
-            closedSet.add(current.waypointId);
+    @Autowired
+    private RoutingMetrics routingMetrics;
 
-            Waypoint currentWaypoint = allWaypoints.get(current.waypointId);
-            if (currentWaypoint.getConnections() == null) continue; // Skip if no connections
+    @Autowired
+    private CongestionWeights congestionWeights;
 
-            for (String neighborId : currentWaypoint.getConnections()) {
-                if (closedSet.contains(neighborId) || !allWaypoints.containsKey(neighborId)) continue;
+    public List<Waypoint> findPath(String startId, String endId) {
+        return findPath(null, startId, endId);
+    }
 
-                PathNode neighborNode = allPathNodes.get(neighborId);
-                double tentativeGScore = current.gScore + distanceBetween(currentWaypoint, allWaypoints.get(neighborId));
+    public List<Waypoint> findPath(String storeId, String startId, String endId) {
+        NavigationGraph.Snapshot graph = navigationGraph.snapshot(storeId);
+        int start = graph.indexOf(startId);
+        int end = graph.indexOf(endId);
 
-                if (tentativeGScore < neighborNode.gScore) {
-                    neighborNode.parent = current;
-                    neighborNode.gScore = tentativeGScore;
-                    neighborNode.fScore = neighborNode.gScore + heuristic(allWaypoints.get(neighborId), allWaypoints.get(endId));
+        if (start < 0 || end < 0) {
+            return new ArrayList<>(); // Return empty list if start or end doesn't exist
+        }
 
-                    if (!openSet.contains(neighborNode)) {
-                        openSet.add(neighborNode);
-                    } else {
-                        // Refresh priority if path is better
-                        openSet.remove(neighborNode);
-                        openSet.add(neighborNode);
-                    }
-                }
-            }
+        int[] path = searchEngine.path(graph, start, end);
+        routingMetrics.recordPathQuery(searchEngine.lastExpansions(), path.length > 0);
+        List<Waypoint> waypoints = new ArrayList<>(path.length);
+        for (int node : path) {
+            waypoints.add(graph.waypoint(node));
         }
-        return new ArrayList<>(); // No path found
+        return waypoints;
     }
 
-    // Heuristic is the straight-line distance (Euclidean distance).
-    private double heuristic(Waypoint a, Waypoint b) {
-        return distanceBetween(a, b);
+    /**
+     * Runs one search with the given mode (or the configured one when null) and reports its node expansions.
+     * In {@link CostMode#CONGESTION} the distance is the congestion-weighted cost of the path.
+     */
+    public PathQueryResult query(String storeId, String startId, String endId, SearchMode mode, CostMode costMode) {
+        NavigationGraph.Snapshot graph = navigationGraph.snapshot(storeId);
+        if (costMode == CostMode.CONGESTION) graph = congestionWeights.apply(graph);
+        int start = graph.indexOf(startId);
+        int end = graph.indexOf(endId);
+        if (start < 0) throw new RuntimeException("Waypoint not found: " + startId);
+        if (end < 0) throw new RuntimeException("Waypoint not found: " + endId);
+
+        SearchMode searchMode = mode != null ? mode : searchEngine.mode();
+        int[] path = searchEngine.path(graph, start, end, searchMode);
+        int expansions = searchEngine.lastExpansions();
+        routingMetrics.recordPathQuery(expansions, path.length > 0);
+        List<String> ids = new ArrayList<>(path.length);
+        for (int node : path) ids.add(graph.id(node));
+        // Edge costs, not straight-line distances, so floor changes are counted at their connector cost.
+        return new PathQueryResult(searchMode, ids, path.length == 0 ? Double.POSITIVE_INFINITY : graph.pathLength(path),
+                expansions);
     }
 
-    // Calculates 2D Euclidean distance. Ignores Z-axis for pathfinding simplicity.
-    private double distanceBetween(Waypoint a, Waypoint b) {
-        Location locA = a.getLocation();
-        Location locB = b.getLocation();
-        return Math.sqrt(Math.pow(locA.getX() - locB.getX(), 2) + Math.pow(locA.getY() - locB.getY(), 2));
+    /**
+     * Lists the parts of a store's graph that routes cannot reach from its main component.
+     */
+    public ConnectivityReport connectivity(String storeId) {
+        NavigationGraph.Snapshot graph = navigationGraph.snapshot(storeId);
+        ConnectedComponents components = graph.components();
+        ConnectivityReport report = new ConnectivityReport();
+        report.setStoreId(graph.storeId());
+        report.setGraphVersion(graph.version());
+        report.setWaypoints(graph.size());
+        report.setComponents(components.count());
+        report.setMainComponentSize(components.count() == 0 ? 0 : components.size(0));
+
+        List<List<String>> members = new ArrayList<>();
+        for (int c = 0; c < components.count(); c++) members.add(new ArrayList<>());
+        for (int node = 0; node < graph.size(); node++) members.get(components.component(node)).add(graph.id(node));
+        for (int c = 1; c < components.count(); c++) {
+            if (components.size(c) == 1) report.getOrphanedWaypoints().add(members.get(c).get(0));
+            else report.getDisconnectedRegions().add(new ConnectivityReport.Region(components.size(c), members.get(c)));
+        }
+        return report;
     }
 
-    private List<Waypoint> reconstructPath(PathNode current, Map<String, PathNode> allPathNodes, Map<String, Waypoint> allWaypoints) {
-        List<Waypoint> totalPath = new ArrayList<>();
-        while (current != null) {
-            totalPath.add(allWaypoints.get(current.waypointId));
-            current = current.parent;
-        }
-        Collections.reverse(totalPath);
-        return totalPath;
+    public SearchStats getSearchStats() {
+        long queries = searchEngine.queryCount();
+        long expansions = searchEngine.expansionCount();
+        return new SearchStats(searchEngine.mode(), searchEngine.landmarkCount(), queries, expansions,
+                queries == 0 ? 0 : (double) expansions / queries, searchEngine.disconnectedCount());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,374 @@
+package com.lymph.Walmart_Application.service;
+
+import com.lymph.Walmart_Application.entity.Product;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory typeahead index over product SKUs, names and categories.
+ * <p>
+ * Every field is split into lower-case terms. A sorted term dictionary finds the terms a query
+ * token is a prefix of, and trigram postings find the terms it occurs inside, so "nana" still
+ * matches "banana". Each candidate is then scored against its own terms: an exact term beats a
+ * prefix, which beats an infix, and SKU matches weigh more than name matches, which weigh more than
+ * category matches. All query tokens must match. The index is built from one projection scan on
+ * first use and kept current by the services that write products.
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final double SKU_WEIGHT = 1.5;
+    private static final double NAME_WEIGHT = 1.0;
+    private static final double CATEGORY_WEIGHT = 0.5;
+    private static final int EXACT = 3;
+    private static final int PREFIX = 2;
+    private static final int INFIX = 1;
+    private static final double LEADING_TERM_BONUS = 0.25;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Index index; // guarded by lock; null until first use or after invalidate()
+
+    /**
+     * @param query    free text; blank lists every product, shortest names first
+     * @param storeId  only search this store's products; null for every store
+     * @param category only return hits in this category (facet counts ignore it)
+     * @param limit    maximum number of hits
+     */
+    public ProductSearchResult search(String query, String storeId, String category, int limit) {
+        long started = System.nanoTime();
+        String[] tokens = tokenize(query).toArray(new String[0]);
+        String store = storeId == null ? null : NavigationGraph.storeOf(storeId);
+        ProductSearchResult result = new ProductSearchResult();
+
+        Index index = readIndex();
+        try {
+            BitSet candidates = index.candidates(tokens);
+            Map<String, Integer> facets = new HashMap<>();
+            PriorityQueue<ProductSearchResult.Hit> top = new PriorityQueue<>(Math.max(1, limit), RANKING.reversed());
+            for (int id = candidates.nextSetBit(0); id >= 0; id = candidates.nextSetBit(id + 1)) {
+                Doc doc = index.docs.get(id);
+                if (doc == null || (store != null && !store.equals(NavigationGraph.storeOf(doc.storeId)))) continue;
+                double score = doc.score(tokens);
+                if (score < 0) continue;
+                if (doc.category != null) facets.merge(doc.category, 1, Integer::sum);
+                if (category != null && !category.equalsIgnoreCase(doc.category)) continue;
+
+                result.setTotal(result.getTotal() + 1);
+                if (limit <= 0) continue;
+                ProductSearchResult.Hit hit = new ProductSearchResult.Hit(doc.sku, doc.name, doc.category, doc.storeId, score);
+                if (top.size() < limit) top.add(hit);
+                else if (RANKING.compare(hit, top.peek()) < 0) {
+                    top.poll();
+                    top.add(hit);
+                }
+            }
+            List<ProductSearchResult.Hit> hits = new ArrayList<>(top);
+            hits.sort(RANKING);
+            result.setHits(hits);
+            facets.forEach((name, count) -> result.getCategories().add(new ProductSearchResult.Facet(name, count)));
+            result.getCategories().sort(Comparator.comparingInt(ProductSearchResult.Facet::getCount).reversed()
+                    .thenComparing(ProductSearchResult.Facet::getCategory));
+        } finally {
+            lock.readLock().unlock();
+        }
+        result.setTookMicros((System.nanoTime() - started) / 1_000);
+        return result;
+    }
+
+    // Best score first, then shorter names, then SKU for a stable order.
+    private static final Comparator<ProductSearchResult.Hit> RANKING =
+            Comparator.comparingDouble(ProductSearchResult.Hit::getScore).reversed()
+                    .thenComparingInt((ProductSearchResult.Hit hit) -> hit.getName() == null ? Integer.MAX_VALUE : hit.getName().length())
+                    .thenComparing(ProductSearchResult.Hit::getSku);
+
+    public void put(Product product) {
+        if (product.getSku() == null) return;
+        lock.writeLock().lock();
+        try {
+            if (index == null) return; // built with this product on first use
+            index.remove(product.getSku());
+            index.add(product);
+            if (index.sparse()) index = index.compacted();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String sku) {
+        lock.writeLock().lock();
+        try {
+            if (index == null) return;
+            index.remove(sku);
+            if (index.sparse()) index = index.compacted();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drops the index after writes it cannot follow one by one, such as bulk imports;
+     * it is rebuilt from Mongo on next use.
+     */
+    public void invalidate() {
+        lock.writeLock().lock();
+        try {
+            index = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the index contents without reading Mongo.
+     */
+    void replaceAll(Collection<Product> products) {
+        Index rebuilt = new Index();
+        products.forEach(rebuilt::add);
+        lock.writeLock().lock();
+        try {
+            index = rebuilt;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Document slots in use, live or empty; for tests.
+    int slotCount() {
+        Index index = readIndex();
+        try {
+            return index.docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Returns the index with the read lock held, building it first if needed.
+    private Index readIndex() {
+        lock.readLock().lock();
+        if (index != null) return index;
+        lock.readLock().unlock();
+        lock.writeLock().lock();
+        try {
+            if (index == null) index = load();
+            lock.readLock().lock();
+            return index;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Index load() {
+        Index loaded = new Index();
+        Query query = new Query();
+        query.fields().include("sku").include("name").include("category").include("storeId");
+        try (Stream<Product> products = mongoTemplate.stream(query, Product.class)) {
+            products.forEach(loaded::add);
+        }
+        return loaded;
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null) return List.of();
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) tokens.add(token);
+        }
+        return new ArrayList<>(tokens);
+    }
+
+    private static final class Doc {
+        final String sku;
+        final String name;
+        final String category;
+        final String storeId;
+        final String[] skuTerms;
+        final String[] nameTerms;
+        final String[] categoryTerms;
+
+        Doc(Product product) {
+            sku = product.getSku();
+            name = product.getName();
+            category = product.getCategory();
+            storeId = product.getStoreId();
+            List<String> skuTokens = tokenize(sku);
+            String whole = sku.toLowerCase(Locale.ROOT);
+            if (!skuTokens.contains(whole)) skuTokens.add(0, whole);
+            skuTerms = skuTokens.toArray(new String[0]);
+            nameTerms = tokenize(name).toArray(new String[0]);
+            categoryTerms = tokenize(category).toArray(new String[0]);
+        }
+
+        Set<String> terms() {
+            Set<String> terms = new LinkedHashSet<>(Arrays.asList(skuTerms));
+            terms.addAll(Arrays.asList(nameTerms));
+            terms.addAll(Arrays.asList(categoryTerms));
+            return terms;
+        }
+
+        /**
+         * @return the summed best match per token, or -1 if some token matches no field.
+         */
+        double score(String[] tokens) {
+            double total = 0;
+            for (String token : tokens) {
+                double best = Math.max(SKU_WEIGHT * match(skuTerms, token),
+                        Math.max(NAME_WEIGHT * match(nameTerms, token), CATEGORY_WEIGHT * match(categoryTerms, token)));
+                if (best == 0) return -1;
+                if (nameTerms.length > 0 && nameTerms[0].startsWith(token)) best += LEADING_TERM_BONUS;
+                total += best;
+            }
+            return total;
+        }
+
+        private static int match(String[] terms, String token) {
+            int best = 0;
+            for (String term : terms) {
+                if (term.equals(token)) return EXACT;
+                if (term.startsWith(token)) best = PREFIX;
+                else if (best == 0 && token.length() >= 3 && term.contains(token)) best = INFIX;
+            }
+            return best;
+        }
+    }
+
+    // Sorted, growable list of document IDs.
+    private static final class Postings {
+        int[] ids = new int[4];
+        int size;
+
+        void add(int id) {
+            if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+            ids[size++] = id; // IDs are assigned in increasing order, so appending keeps the list sorted
+        }
+
+        void remove(int id) {
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at < 0) return;
+            System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+            size--;
+        }
+
+        void addTo(BitSet set) {
+            for (int i = 0; i < size; i++) set.set(ids[i]);
+        }
+    }
+
+    private static final class Index {
+        private static final int MIN_COMPACTED_SLOTS = 1024;
+
+        final List<Doc> docs = new ArrayList<>(); // by document ID; null once removed
+        final Map<String, Integer> idBySku = new HashMap<>();
+        final TreeMap<String, Postings> terms = new TreeMap<>();
+        final Map<String, Postings> trigrams = new HashMap<>();
+
+        void add(Product product) {
+            if (product.getSku() != null) add(new Doc(product));
+        }
+
+        private void add(Doc doc) {
+            int id = docs.size();
+            docs.add(doc);
+            idBySku.put(doc.sku, id);
+            Set<String> grams = new LinkedHashSet<>();
+            for (String term : doc.terms()) {
+                terms.computeIfAbsent(term, t -> new Postings()).add(id);
+                for (int i = 0; i + 3 <= term.length(); i++) grams.add(term.substring(i, i + 3));
+            }
+            for (String gram : grams) trigrams.computeIfAbsent(gram, g -> new Postings()).add(id);
+        }
+
+        void remove(String sku) {
+            Integer id = idBySku.remove(sku);
+            if (id == null) return;
+            Doc doc = docs.set(id, null);
+            Set<String> grams = new LinkedHashSet<>();
+            for (String term : doc.terms()) {
+                removePosting(terms, term, id);
+                for (int i = 0; i + 3 <= term.length(); i++) grams.add(term.substring(i, i + 3));
+            }
+            for (String gram : grams) removePosting(trigrams, gram, id);
+        }
+
+        /**
+         * Every update appends a new document ID and leaves the old slot empty, so an index whose
+         * products keep changing grows without bound unless it is compacted now and then.
+         * @return true once at least half of a large enough index is empty slots.
+         */
+        boolean sparse() {
+            return docs.size() >= MIN_COMPACTED_SLOTS && idBySku.size() * 2 < docs.size();
+        }
+
+        // A copy holding only the live documents, renumbered from zero.
+        Index compacted() {
+            Index compacted = new Index();
+            for (Doc doc : docs) {
+                if (doc != null) compacted.add(doc);
+            }
+            return compacted;
+        }
+
+        private static void removePosting(Map<String, Postings> postings, String key, int id) {
+            Postings list = postings.get(key);
+            if (list == null) return;
+            list.remove(id);
+            if (list.size == 0) postings.remove(key);
+        }
+
+        /**
+         * Documents that may match every token: a term starts with the token, or (for tokens of three
+         * or more characters) contains all of its trigrams. Candidates are verified when scored.
+         */
+        BitSet candidates(String[] tokens) {
+            BitSet result = null;
+            for (String token : tokens) {
+                BitSet matches = new BitSet(docs.size());
+                for (Postings postings : terms.subMap(token, true, token + Character.MAX_VALUE, false).values()) {
+                    postings.addTo(matches);
+                }
+                if (token.length() >= 3) matches.or(containing(token));
+                if (result == null) result = matches;
+                else result.and(matches);
+                if (result.isEmpty()) return result;
+            }
+            if (result == null) {
+                result = new BitSet(docs.size());
+                result.set(0, docs.size());
+            }
+            return result;
+        }
+
+        private BitSet containing(String token) {
+            BitSet result = null;
+            for (int i = 0; i + 3 <= token.length(); i++) {
+                Postings postings = trigrams.get(token.substring(i, i + 3));
+                if (postings == null) return new BitSet();
+                BitSet gram = new BitSet(docs.size());
+                postings.addTo(gram);
+                if (result == null) result = gram;
+                else result.and(gram);
+            }
+            return result;
+        }
+    }
+}
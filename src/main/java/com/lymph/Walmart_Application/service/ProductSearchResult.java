@@ -0,0 +1,40 @@
+package com.lymph.Walmart_Application.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Typeahead search result: the best matching products, how many matched in total, and the
+ * number of matches per category before any category filter, for facet counts.
+ */
+@Data
+@NoArgsConstructor
+public class ProductSearchResult {
+    private List<Hit> hits = new ArrayList<>();
+    private int total;
+    private List<Facet> categories = new ArrayList<>();
+    private long tookMicros;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Hit {
+        private String sku;
+        private String name;
+        private String category;
+        private String storeId;
+        private double score;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Facet {
+        private String category;
+        private int count;
+    }
+}
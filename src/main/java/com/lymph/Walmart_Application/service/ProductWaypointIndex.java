@@ -0,0 +1,164 @@
+package com.lymph.Walmart_Application.service;
+
+import com.lymph.Walmart_Application.entity.Product;
+import com.lymph.Walmart_Application.repo.ProductRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * In-memory SKU to waypoint ID mapping per store, so routing resolves a cart without querying Mongo.
+ * A store's mapping is loaded from its {@link GraphSnapshotStore} file when there is one, otherwise
+ * with a single projection scan of the store's products, and kept current by the services that
+ * write products. Idle stores are dropped after routing.stores.idle-timeout.
+ * Products without a waypoint map to the empty string.
+ */
+@Component
+public class ProductWaypointIndex {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private NavigationGraph navigationGraph;
+    @Autowired
+    private GraphSnapshotStore snapshotStore;
+
+    @Value("${routing.stores.idle-timeout:30m}")
+    private Duration idleTimeout;
+
+    private Cache<String, Map<String, String>> waypointsByStore;
+    // Stores whose file mapping is known to be stale and must be rebuilt from Mongo.
+    private final Set<String> staleFiles = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    void init() {
+        waypointsByStore = Caffeine.newBuilder().expireAfterAccess(idleTimeout).build();
+    }
+
+    /**
+     * Resolves SKUs of a store's products to waypoint IDs. SKUs missing from the index (for example
+     * products written by another instance) are looked up in Mongo once and remembered.
+     * @return waypoint ID per known SKU; SKUs of unknown products or of other stores are absent.
+     */
+    public Map<String, String> resolve(String storeId, Collection<String> skus) {
+        String store = NavigationGraph.storeOf(storeId);
+        Map<String, String> index = waypoints(store);
+        Map<String, String> resolved = new HashMap<>(skus.size() * 2);
+        List<String> missing = new ArrayList<>();
+        for (String sku : skus) {
+            if (sku == null) continue;
+            String waypointId = index.get(sku);
+            if (waypointId != null) resolved.put(sku, waypointId);
+            else missing.add(sku);
+        }
+        if (!missing.isEmpty()) {
+            for (Product product : productRepository.findBySkuIn(missing)) {
+                if (!store.equals(NavigationGraph.storeOf(product.getStoreId()))) continue;
+                put(product);
+                resolved.put(product.getSku(), waypointOf(product));
+            }
+        }
+        return resolved;
+    }
+
+    public void put(Product product) {
+        if (product.getSku() == null) return;
+        String store = NavigationGraph.storeOf(product.getStoreId());
+        waypoints(store).put(product.getSku(), waypointOf(product));
+        changed(store);
+    }
+
+    /**
+     * Records many reassignments at once, scheduling one snapshot write per store.
+     */
+    public void putAll(Collection<Product> products) {
+        Set<String> stores = new HashSet<>();
+        for (Product product : products) {
+            if (product.getSku() == null) continue;
+            String store = NavigationGraph.storeOf(product.getStoreId());
+            waypoints(store).put(product.getSku(), waypointOf(product));
+            stores.add(store);
+        }
+        stores.forEach(this::changed);
+    }
+
+    public void remove(Product product) {
+        String store = NavigationGraph.storeOf(product.getStoreId());
+        waypoints(store).remove(product.getSku());
+        changed(store);
+    }
+
+    /**
+     * Drops a store's mapping after writes it cannot follow one by one, such as bulk imports;
+     * it is rebuilt from Mongo on next use.
+     */
+    public void invalidate(String storeId) {
+        String store = NavigationGraph.storeOf(storeId);
+        staleFiles.add(store);
+        waypointsByStore.invalidate(store);
+    }
+
+    @EventListener
+    public void onGraphChanged(NavigationGraphChangedEvent event) {
+        writeSnapshot(event.snapshot());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadStoredMapping() {
+        if (snapshotStore.exists(NavigationGraph.DEFAULT_STORE)) waypoints(NavigationGraph.DEFAULT_STORE);
+    }
+
+    private void changed(String store) {
+        writeSnapshot(navigationGraph.snapshot(store));
+    }
+
+    private void writeSnapshot(NavigationGraph.Snapshot graph) {
+        String store = graph.storeId();
+        snapshotStore.writeLater(graph, navigationGraph.sourceVersion(graph), () -> waypoints(store));
+    }
+
+    private static String waypointOf(Product product) {
+        return product.getWaypointId() == null ? "" : product.getWaypointId();
+    }
+
+    private Map<String, String> waypoints(String store) {
+        return waypointsByStore.get(store, this::load);
+    }
+
+    private Map<String, String> load(String store) {
+        if (!staleFiles.remove(store)) {
+            Map<String, String> stored = snapshotStore.readProductWaypoints(store).orElse(null);
+            if (stored != null) return new ConcurrentHashMap<>(stored);
+        }
+        Map<String, String> index = new ConcurrentHashMap<>();
+        Query query = new Query(NavigationGraph.inStore(store));
+        query.fields().include("sku").include("waypointId");
+        try (Stream<Product> products = mongoTemplate.stream(query, Product.class)) {
+            products.forEach(product -> {
+                if (product.getSku() != null) index.put(product.getSku(), waypointOf(product));
+            });
+        }
+        writeSnapshot(navigationGraph.snapshot(store));
+        return index;
+    }
+}
@@ -0,0 +1,28 @@
+package com.lymph.Walmart_Application.service;
+
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * Progress of a background re-snap of one store's products to their nearest waypoints.
+ * Updated by the job thread while it runs, so readers see a live view.
+ */
+@Data
+public class ResnapJob {
+
+    public enum State { RUNNING, COMPLETED, FAILED }
+
+    public enum Trigger { MANUAL, LAYOUT_CHANGE }
+
+    private String id;
+    private String storeId;
+    private Trigger trigger;
+    private volatile State state;
+    private volatile long scanned;   // products with a location read so far
+    private volatile long reassigned; // products whose nearest waypoint changed and were rewritten
+    private volatile int batches;
+    private Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String error;
+}
@@ -0,0 +1,215 @@
+package com.lymph.Walmart_Application.service;
+
+import com.lymph.Walmart_Application.entity.Product;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Reassigns a store's products to their nearest waypoint after the layout changed. Products are
+ * streamed from Mongo in batches, snapped in parallel against the store's spatial index and only
+ * the changed assignments are written back, in one unordered bulk write per batch. Products whose
+ * waypoint was assigned by hand are left alone.
+ * <p>
+ * Jobs run one at a time on a background thread. A job starts automatically once
+ * resnap.auto-threshold waypoints of a store have been added, moved or removed, resnap.auto-delay
+ * after the last of those edits.
+ */
+@Service
+public class ResnapService {
+
+    private static final Logger log = LoggerFactory.getLogger(ResnapService.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    @Autowired
+    private NavigationGraph navigationGraph;
+    @Autowired
+    private ChangeTracker changeTracker;
+    @Autowired
+    private ProductWaypointIndex productWaypointIndex;
+
+    @Value("${resnap.batch-size:1000}")
+    private int batchSize;
+    @Value("${resnap.auto-threshold:25}")
+    private int autoThreshold;
+    @Value("${resnap.auto-delay:10s}")
+    private Duration autoDelay;
+
+    private final Map<String, ResnapJob> latestByStore = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> layoutEdits = new ConcurrentHashMap<>();
+    private final Map<String, Long> autoStartAt = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService runner = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "resnap-job");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Starts a re-snap of the store, or returns the one already running for it.
+     */
+    public synchronized ResnapJob start(String storeId, ResnapJob.Trigger trigger) {
+        String store = NavigationGraph.storeOf(storeId);
+        ResnapJob current = latestByStore.get(store);
+        if (current != null && current.getState() == ResnapJob.State.RUNNING) return current;
+
+        ResnapJob job = new ResnapJob();
+        job.setId(UUID.randomUUID().toString());
+        job.setStoreId(store);
+        job.setTrigger(trigger);
+        job.setState(ResnapJob.State.RUNNING);
+        job.setStartedAt(Instant.now());
+        latestByStore.put(store, job);
+        layoutEdits.remove(store);
+        runner.execute(() -> run(job));
+        return job;
+    }
+
+    /**
+     * @return the store's latest job, or null if none has run since startup.
+     */
+    public ResnapJob getLatest(String storeId) {
+        return latestByStore.get(NavigationGraph.storeOf(storeId));
+    }
+
+    public ResnapJob getJob(String id) {
+        return latestByStore.values().stream().filter(job -> job.getId().equals(id)).findFirst()
+                .orElseThrow(() -> new RuntimeException("Re-snap job not found: " + id));
+    }
+
+    private void run(ResnapJob job) {
+        long started = System.nanoTime();
+        try {
+            NavigationGraph.Snapshot graph = navigationGraph.snapshot(job.getStoreId()).base();
+            Query query = new Query(NavigationGraph.inStore(job.getStoreId())
+                    .and("location").ne(null)
+                    .and("waypointPinned").ne(true));
+            query.fields().include("sku").include("storeId").include("waypointId").include("location");
+            List<Product> batch = new ArrayList<>(batchSize);
+            try (Stream<Product> products = mongoTemplate.stream(query, Product.class)) {
+                for (Iterator<Product> it = products.iterator(); it.hasNext(); ) {
+                    batch.add(it.next());
+                    if (batch.size() >= batchSize) {
+                        resnap(job, graph, batch);
+                        batch.clear();
+                    }
+                }
+            }
+            resnap(job, graph, batch);
+            job.setState(ResnapJob.State.COMPLETED);
+            log.info("Re-snapped store {}: {} products scanned, {} reassigned in {} ms", job.getStoreId(),
+                    job.getScanned(), job.getReassigned(), (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException e) {
+            job.setError(e.getMessage());
+            job.setState(ResnapJob.State.FAILED);
+            log.warn("Re-snap of store {} failed after {} products: {}", job.getStoreId(), job.getScanned(), e.getMessage());
+        } finally {
+            job.setFinishedAt(Instant.now());
+        }
+        // Edits made while the job ran may already call for another one.
+        scheduleIfNeeded(job.getStoreId());
+    }
+
+    private void resnap(ResnapJob job, NavigationGraph.Snapshot graph, List<Product> batch) {
+        if (batch.isEmpty()) return;
+        String[] nearest = new String[batch.size()];
+        IntStream.range(0, batch.size()).parallel().forEach(i -> {
+            int node = graph.nearestNode(batch.get(i).getLocation());
+            nearest[i] = node >= 0 ? graph.id(node) : null;
+        });
+
+        List<Product> changed = new ArrayList<>();
+        for (int i = 0; i < nearest.length; i++) {
+            Product product = batch.get(i);
+            if (Objects.equals(product.getWaypointId(), nearest[i])) continue;
+            product.setWaypointId(nearest[i]);
+            changed.add(product);
+        }
+        job.setScanned(job.getScanned() + batch.size());
+        job.setBatches(job.getBatches() + 1);
+        if (changed.isEmpty()) return;
+
+        changeTracker.stamp(Product.class, version -> {
+            BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class);
+            for (Product product : changed) {
+                // Skips products pinned by hand since they were read.
+                operations.updateOne(Query.query(Criteria.where("sku").is(product.getSku()).and("waypointPinned").ne(true)),
+                        new Update().set("waypointId", product.getWaypointId()).set("version", version));
+            }
+            return operations.execute();
+        });
+        productWaypointIndex.putAll(changed);
+        job.setReassigned(job.getReassigned() + changed.size());
+    }
+
+    /**
+     * Counts the waypoints added, moved or removed by a graph rebuild towards the store's auto threshold.
+     */
+    @EventListener
+    public void onGraphChanged(NavigationGraphChangedEvent event) {
+        if (autoThreshold <= 0 || event.previous() == null) return;
+        NavigationGraph.Snapshot current = event.snapshot().base();
+        int edits = layoutEdits(event.previous().base(), current);
+        if (edits == 0) return;
+        layoutEdits.computeIfAbsent(current.storeId(), store -> new AtomicInteger()).addAndGet(edits);
+        scheduleIfNeeded(current.storeId());
+    }
+
+    private void scheduleIfNeeded(String store) {
+        AtomicInteger edits = layoutEdits.get(store);
+        if (edits == null || edits.get() < autoThreshold) return;
+        // Debounced: every further edit pushes the start back, so a planogram reset triggers one job.
+        long startAt = System.nanoTime() + autoDelay.toNanos();
+        autoStartAt.put(store, startAt);
+        runner.schedule(() -> {
+            Long due = autoStartAt.get(store);
+            if (due == null || due != startAt) return;
+            autoStartAt.remove(store);
+            start(store, ResnapJob.Trigger.LAYOUT_CHANGE);
+        }, autoDelay.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    // Waypoints present in only one of the graphs, or at a different location in each.
+    static int layoutEdits(NavigationGraph.Snapshot previous, NavigationGraph.Snapshot current) {
+        int edits = 0;
+        for (int node = 0; node < current.size(); node++) {
+            int old = previous.indexOf(current.id(node));
+            if (old < 0 || previous.x(old) != current.x(node) || previous.y(old) != current.y(node)
+                    || previous.z(old) != current.z(node)) edits++;
+        }
+        for (int old = 0; old < previous.size(); old++) {
+            if (!current.contains(previous.id(old))) edits++;
+        }
+        return edits;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        runner.shutdownNow();
+    }
+}
@@ -0,0 +1,123 @@
+package com.lymph.Walmart_Application.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Admission control in front of the bounded compute pool that solves routes. Request threads
+ * (virtual threads when enabled) only hand work over; at most routing.compute.max-queue tasks may
+ * wait for a compute thread, and further work is refused at once with a
+ * {@link ComputeOverloadedException} instead of queueing until the client times out. A batch
+ * larger than max-queue is admitted with max-queue slots, each of which passes to the batch's next
+ * task once its current task starts.
+ */
+@Component
+public class RouteAdmission {
+
+    @Autowired
+    @Qualifier("routingComputeExecutor")
+    private ExecutorService computeExecutor;
+
+    @Value("${routing.compute.max-queue:64}")
+    private int maxQueue;
+    @Value("${routing.compute.retry-after:1s}")
+    private Duration retryAfter;
+
+    private final AtomicInteger queued = new AtomicInteger();
+    private final LongAdder started = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        return submitAll(List.of(task)).get(0);
+    }
+
+    /**
+     * Admits all tasks or none, so a batch is never left half queued.
+     * @throws ComputeOverloadedException if the tasks do not fit in the queue
+     */
+    public <T> List<CompletableFuture<T>> submitAll(List<? extends Supplier<T>> tasks) {
+        int slots = Math.min(tasks.size(), Math.max(1, maxQueue));
+        reserve(slots, tasks.size());
+        List<CompletableFuture<T>> futures = new ArrayList<>(tasks.size());
+        for (int i = 0; i < tasks.size(); i++) futures.add(new CompletableFuture<>());
+        AtomicInteger next = new AtomicInteger(slots);
+        long admitted = System.nanoTime();
+        for (int i = 0; i < slots; i++) {
+            try {
+                launch(tasks, futures, i, next, admitted);
+            } catch (RejectedExecutionException e) {
+                // Only happens while shutting down; release the slots that were never used.
+                queued.addAndGet(-(slots - i));
+                throw e;
+            }
+        }
+        return futures;
+    }
+
+    private <T> void launch(List<? extends Supplier<T>> tasks, List<CompletableFuture<T>> futures, int i,
+                            AtomicInteger next, long admitted) {
+        computeExecutor.execute(() -> {
+            started.increment();
+            waitNanos.add(System.nanoTime() - admitted);
+            handOver(tasks, futures, next, admitted);
+            try {
+                futures.get(i).complete(tasks.get(i).get());
+            } catch (Throwable t) {
+                // Wrapped the way supplyAsync would, so callers see the same exceptions as before.
+                futures.get(i).completeExceptionally(t instanceof CompletionException ? t : new CompletionException(t));
+            }
+        });
+    }
+
+    // Passes the slot of a task that has just started to the next task of its batch, or frees it.
+    private <T> void handOver(List<? extends Supplier<T>> tasks, List<CompletableFuture<T>> futures,
+                              AtomicInteger next, long admitted) {
+        int following = next.getAndIncrement();
+        if (following >= tasks.size()) {
+            queued.decrementAndGet();
+            return;
+        }
+        try {
+            launch(tasks, futures, following, next, admitted);
+        } catch (RejectedExecutionException e) {
+            // Shutting down: fail what is left of the batch instead of leaving it waiting.
+            queued.decrementAndGet();
+            futures.get(following).completeExceptionally(e);
+            for (int j; (j = next.getAndIncrement()) < tasks.size(); ) futures.get(j).completeExceptionally(e);
+        }
+    }
+
+    private void reserve(int slots, int tasks) {
+        while (true) {
+            int current = queued.get();
+            // An empty queue takes any batch, so no request is refused forever.
+            if (current > 0 && current + slots > maxQueue) {
+                rejected.add(tasks);
+                throw new ComputeOverloadedException(current, retryAfter);
+            }
+            if (queued.compareAndSet(current, current + slots)) return;
+        }
+    }
+
+    /**
+     * @return queue slots held by tasks admitted but not yet started on a compute thread.
+     */
+    public int queued() { return queued.get(); }
+    public long startedCount() { return started.sum(); }
+    public double totalWaitNanos() { return waitNanos.sum(); }
+    public long rejectedCount() { return rejected.sum(); }
+}
@@ -0,0 +1,165 @@
+package com.lymph.Walmart_Application.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of planned routes. Entries are keyed by store and the sorted set of waypoints a cart
+ * resolves to plus the graph and settings versions they were planned against, so a graph or
+ * settings change can never serve a stale route. Concurrent requests for the same key share
+ * a single computation.
+ * Keys use the base graph version, so closures don't empty the cache: closing an aisle only
+ * drops the routes that walk through it, since closures can only make other routes longer, and
+ * reopening one drops the routes that were planned while closures were in place. A route planned on a
+ * graph read before the latest closure change is returned to its caller but not kept.
+ */
+@Component
+public class RouteCache {
+
+    /**
+     * @param waypointIds       sorted, de-duplicated waypoint IDs to visit
+     * @param graphVersion      version of the store's base graph, without closures
+     * @param congestionEpoch congestion epoch the graph was weighted with, or 0 for static edge costs
+     */
+    public record Key(String storeId, List<String> waypointIds, long graphVersion, long congestionEpoch,
+                      long settingsVersion, long budgetMs) {
+    }
+
+    private final boolean enabled;
+    private final AsyncCache<Key, RoutePlan> cache;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final Map<String, AtomicLong> closureGenerations = new ConcurrentHashMap<>();
+
+    public RouteCache(@Value("${routing.cache.enabled:true}") boolean enabled,
+                      @Value("${routing.cache.max-weight:500000}") long maxWeight,
+                      @Value("${routing.cache.ttl:10m}") Duration ttl) {
+        this.enabled = enabled;
+        // Weighed by the number of points held, so a few huge routes cannot crowd out many small ones.
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((Key key, RoutePlan plan) -> 1 + key.waypointIds().size() + plan.getPath().size())
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+    }
+
+    /**
+     * @return a counter of the store's closure changes. Read it before the graph a route is planned
+     * on, and pass it to {@link #get(Key, long, Supplier)}.
+     */
+    public long closureGeneration(String storeId) {
+        AtomicLong generation = closureGenerations.get(storeId);
+        return generation == null ? 0 : generation.get();
+    }
+
+    public RoutePlan get(Key key, Supplier<RoutePlan> planner) {
+        return get(key, closureGeneration(key.storeId()), planner);
+    }
+
+    /**
+     * Returns the cached plan for the key, or computes it on the calling thread. Callers that
+     * arrive while the same key is being computed wait for that result instead of recomputing.
+     * Failed computations are not cached, and neither are plans computed after the store's closures
+     * changed from closureGeneration, since their graph may predate the change.
+     */
+    public RoutePlan get(Key key, long closureGeneration, Supplier<RoutePlan> planner) {
+        if (!enabled) return planner.get();
+
+        CompletableFuture<RoutePlan> pending = new CompletableFuture<>();
+        CompletableFuture<RoutePlan> existing = cache.asMap().putIfAbsent(key, pending);
+        if (existing != null) {
+            if (existing.isDone()) hits.increment();
+            else coalesced.increment();
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) throw cause;
+                throw e;
+            }
+        }
+
+        misses.increment();
+        try {
+            RoutePlan plan = planner.get();
+            // A change after this check is followed by its own sweep, which sees this entry.
+            if (closureGeneration(key.storeId()) != closureGeneration) cache.asMap().remove(key, pending);
+            pending.complete(plan);
+            return plan;
+        } catch (RuntimeException e) {
+            cache.asMap().remove(key, pending);
+            pending.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    public void invalidateAll() {
+        cache.synchronous().invalidateAll();
+    }
+
+    /**
+     * Drops the routes planned for one store; other stores' entries stay valid.
+     */
+    public void invalidateStore(String storeId) {
+        cache.asMap().keySet().removeIf(key -> key.storeId().equals(storeId));
+    }
+
+    @EventListener
+    public void onGraphChanged(NavigationGraphChangedEvent event) {
+        invalidateStore(event.snapshot().storeId());
+    }
+
+    @EventListener
+    public void onClosuresChanged(ClosuresChangedEvent event) {
+        String storeId = event.snapshot().storeId();
+        Closure closure = event.closure();
+        // Counted before the sweep, so plans inserted after it on an older graph are not kept.
+        closureGenerations.computeIfAbsent(storeId, key -> new AtomicLong()).incrementAndGet();
+        cache.asMap().entrySet().removeIf(entry -> {
+            if (!entry.getKey().storeId().equals(storeId)) return false;
+            RoutePlan plan = entry.getValue().getNow(null);
+            if (plan == null) return true; // still being planned, possibly on the previous graph
+            return event.reopened() ? plan.getGraphVersion() != entry.getKey().graphVersion() : walksThrough(plan, closure);
+        });
+    }
+
+    private static boolean walksThrough(RoutePlan plan, Closure closure) {
+        List<String> path = plan.getWaypointPath();
+        if (closure.getWaypointId() != null) return path.contains(closure.getWaypointId());
+        for (int i = 1; i < path.size(); i++) {
+            String a = path.get(i - 1);
+            String b = path.get(i);
+            if ((a.equals(closure.getFromId()) && b.equals(closure.getToId()))
+                    || (a.equals(closure.getToId()) && b.equals(closure.getFromId()))) return true;
+        }
+        return false;
+    }
+
+    public long hitCount() { return hits.sum(); }
+    public long missCount() { return misses.sum(); }
+    public long coalescedCount() { return coalesced.sum(); }
+
+    public RouteCacheStats getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long coalescedCount = coalesced.sum();
+        long requests = hitCount + missCount + coalescedCount;
+        return new RouteCacheStats(enabled, cache.synchronous().estimatedSize(), hitCount, missCount, coalescedCount,
+                cache.synchronous().stats().evictionCount(),
+                requests == 0 ? 0 : (double) (hitCount + coalescedCount) / requests);
+    }
+}
@@ -0,0 +1,19 @@
+package com.lymph.Walmart_Application.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Route cache counters since startup. Coalesced requests waited on an identical in-flight computation.
+ */
+@Data
+@AllArgsConstructor
+public class RouteCacheStats {
+    private boolean enabled;
+    private long size;
+    private long hits;
+    private long misses;
+    private long coalesced;
+    private long evictions;
+    private double hitRate;
+}
@@ -0,0 +1,163 @@
+package com.lymph.Walmart_Application.service;
+
+import com.lymph.Walmart_Application.entity.Location;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Path simplification and encoding for {@link CompactRoute}s.
+ */
+public final class RouteGeometry {
+
+    private static final int DIMENSIONS = 3;
+
+    private RouteGeometry() {}
+
+    /**
+     * Builds the compact form of a plan. Each leg between two stops is simplified on its own, so
+     * stops always stay on the path.
+     * @param waypointBySku waypoint of every SKU in the request, to list what is picked at each stop
+     * @param tolerance     largest distance a dropped point may lie from the simplified path
+     * @param precision     coordinates are rounded to multiples of 1 / precision
+     */
+    public static CompactRoute compact(RoutePlan plan, Map<String, String> waypointBySku, double tolerance,
+                                       int precision) {
+        List<Location> path = plan.getPath();
+        List<String> waypointPath = plan.getWaypointPath();
+
+        // Stops in path order; a stop after a missing leg is not on the path and gets no index.
+        List<Integer> stopPoints = new ArrayList<>();
+        List<String> stopIds = new ArrayList<>();
+        int cursor = 0;
+        for (String stop : plan.getStopOrder()) {
+            int at = waypointPath.subList(cursor, waypointPath.size()).indexOf(stop);
+            if (at < 0) continue;
+            cursor += at;
+            stopPoints.add(cursor);
+            stopIds.add(stop);
+        }
+
+        boolean[] keep = new boolean[path.size()];
+        if (!path.isEmpty()) {
+            keep[0] = true;
+            keep[path.size() - 1] = true;
+        }
+        int legStart = 0;
+        for (int point : stopPoints) {
+            keep[point] = true;
+            simplify(path, legStart, point, tolerance, keep);
+            legStart = point;
+        }
+        simplify(path, legStart, path.size() - 1, tolerance, keep);
+
+        List<Location> kept = new ArrayList<>();
+        int[] keptIndex = new int[path.size()];
+        for (int i = 0; i < path.size(); i++) {
+            if (!keep[i]) continue;
+            keptIndex[i] = kept.size();
+            kept.add(path.get(i));
+        }
+
+        CompactRoute route = new CompactRoute();
+        route.setPolyline(encode(kept, precision));
+        route.setPrecision(precision);
+        route.setPoints(kept.size());
+        route.setLength(plan.getLength());
+        route.setUnreachableSkus(plan.getUnreachableSkus());
+        for (int s = 0; s < stopPoints.size(); s++) {
+            String waypointId = stopIds.get(s);
+            List<String> skus = new ArrayList<>();
+            waypointBySku.forEach((sku, waypoint) -> {
+                if (waypoint.equals(waypointId)) skus.add(sku);
+            });
+            skus.sort(null);
+            route.getStops().add(new CompactRoute.Stop(keptIndex[stopPoints.get(s)], waypointId, skus));
+        }
+        return route;
+    }
+
+    /**
+     * Douglas-Peucker over path[from..to]: marks in keep the points needed to stay within tolerance
+     * of the original, endpoints excluded. Runs on an explicit stack, so long legs cannot overflow it.
+     */
+    static void simplify(List<Location> path, int from, int to, double tolerance, boolean[] keep) {
+        List<int[]> ranges = new ArrayList<>();
+        ranges.add(new int[] {from, to});
+        while (!ranges.isEmpty()) {
+            int[] range = ranges.remove(ranges.size() - 1);
+            int farthest = -1;
+            double worst = tolerance;
+            for (int i = range[0] + 1; i < range[1]; i++) {
+                double d = distanceToSegment(path.get(i), path.get(range[0]), path.get(range[1]));
+                if (d > worst) {
+                    worst = d;
+                    farthest = i;
+                }
+            }
+            if (farthest < 0) continue;
+            keep[farthest] = true;
+            ranges.add(new int[] {range[0], farthest});
+            ranges.add(new int[] {farthest, range[1]});
+        }
+    }
+
+    private static double distanceToSegment(Location p, Location a, Location b) {
+        double[] ab = {b.getX() - a.getX(), b.getY() - a.getY(), b.getZ() - a.getZ()};
+        double[] ap = {p.getX() - a.getX(), p.getY() - a.getY(), p.getZ() - a.getZ()};
+        double lengthSquared = ab[0] * ab[0] + ab[1] * ab[1] + ab[2] * ab[2];
+        double t = lengthSquared == 0 ? 0 : Math.max(0, Math.min(1, (ap[0] * ab[0] + ap[1] * ab[1] + ap[2] * ab[2]) / lengthSquared));
+        double dx = ap[0] - t * ab[0];
+        double dy = ap[1] - t * ab[1];
+        double dz = ap[2] - t * ab[2];
+        return Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+
+    /**
+     * Encodes points in the encoded-polyline format with three values per point: every coordinate
+     * is scaled by precision, rounded and stored as the zig-zag delta from the previous point in
+     * 5-bit groups, each written as one printable character (63 + group, 0x20 set on all but the last).
+     */
+    public static String encode(List<Location> points, int precision) {
+        StringBuilder out = new StringBuilder(points.size() * 4);
+        long[] previous = new long[DIMENSIONS];
+        for (Location point : points) {
+            double[] coordinates = {point.getX(), point.getY(), point.getZ()};
+            for (int axis = 0; axis < DIMENSIONS; axis++) {
+                long value = Math.round(coordinates[axis] * precision);
+                long delta = value - previous[axis];
+                previous[axis] = value;
+                long zigzag = (delta << 1) ^ (delta >> 63);
+                while (zigzag >= 0x20) {
+                    out.append((char) ((0x20 | (zigzag & 0x1f)) + 63));
+                    zigzag >>>= 5;
+                }
+                out.append((char) (zigzag + 63));
+            }
+        }
+        return out.toString();
+    }
+
+    public static List<Location> decode(String polyline, int precision) {
+        List<Location> points = new ArrayList<>();
+        long[] values = new long[DIMENSIONS];
+        int i = 0;
+        while (i < polyline.length()) {
+            for (int axis = 0; axis < DIMENSIONS; axis++) {
+                long zigzag = 0;
+                int shift = 0;
+                int chunk;
+                do {
+                    chunk = polyline.charAt(i++) - 63;
+                    zigzag |= (long) (chunk & 0x1f) << shift;
+                    shift += 5;
+                } while (chunk >= 0x20);
+                values[axis] += (zigzag >>> 1) ^ -(zigzag & 1);
+            }
+            points.add(new Location((double) values[0] / precision, (double) values[1] / precision,
+                    (double) values[2] / precision));
+        }
+        return points;
+    }
+}
@@ -0,0 +1,20 @@
+package com.lymph.Walmart_Application.service;
+
+import com.lymph.Walmart_Application.entity.Location;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * One leg of a streamed route: the walk from one stop to the next, numbered from 0 at the start.
+ */
+@Data
+@AllArgsConstructor
+public class RouteLeg {
+    private int index;
+    private String fromWaypointId;
+    private String toWaypointId;
+    private List<Location> path;
+    private double length;
+}
@@ -0,0 +1,12 @@
+package com.lymph.Walmart_Application.service;
+
+/**
+ * Receives the legs of a route while it is being planned, for progressive delivery. Legs come
+ * from the greedy construction tour, which local search may still reorder; the final
+ * {@link RoutePlan} replaces them.
+ */
+@FunctionalInterface
+public interface RouteListener {
+
+    void onLeg(RouteLeg leg);
+}
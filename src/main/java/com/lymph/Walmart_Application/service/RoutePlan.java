@@ -0,0 +1,44 @@
+package com.lymph.Walmart_Application.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.lymph.Walmart_Application.entity.Location;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result of planning a route: the expanded walking path, the waypoints visited as stops
+ * in order, and the total path length. Stops that could not be reached are listed separately,
+ * together with the SKUs stocked there, and missingLegs counts consecutive stops with no path
+ * between them. The waypoint IDs along the path and the graph version it was planned on are
+ * kept for cache invalidation only.
+ */
+@Data
+@AllArgsConstructor
+public class RoutePlan {
+    private List<Location> path;
+    private List<String> stopOrder;
+    private double length;
+    private List<String> unreachableStops;
+    private List<String> unreachableSkus;
+    private int missingLegs;
+    @JsonIgnore
+    private List<String> waypointPath;
+    @JsonIgnore
+    private long graphVersion;
+
+    public static RoutePlan empty() {
+        return new RoutePlan(new ArrayList<>(), new ArrayList<>(), 0, new ArrayList<>(), new ArrayList<>(), 0,
+                new ArrayList<>(), 0);
+    }
+
+    /**
+     * @return a copy listing the given SKUs as unreachable; plans are cached per waypoint set and
+     * shared between requests, so they are never modified in place.
+     */
+    public RoutePlan withUnreachableSkus(List<String> skus) {
+        return new RoutePlan(path, stopOrder, length, unreachableStops, skus, missingLegs, waypointPath, graphVersion);
+    }
+}
@@ -0,0 +1,200 @@
+package com.lymph.Walmart_Application.service;
+
+import com.lymph.Walmart_Application.entity.Location;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Orders a set of stops into a walking route and expands it into a path.
+ * All pairwise stop costs come from a single {@link StopDistanceMatrix}, so a cart with
+ * k stops costs k searches regardless of how the {@link TourStrategy} orders them.
+ */
+public class RoutePlanner {
+
+    private static final Logger log = LoggerFactory.getLogger(RoutePlanner.class);
+    private static final TourStrategy PREVIEW = new NearestNeighbourTour();
+
+    private final PathSearchEngine searchEngine;
+    private final TourStrategy tourStrategy;
+
+    public RoutePlanner(PathSearchEngine searchEngine, TourStrategy tourStrategy) {
+        this.searchEngine = searchEngine;
+        this.tourStrategy = tourStrategy;
+    }
+
+    /**
+     * @param start         node to start from, or -1 to start at the first visit
+     * @param visits        nodes to visit, in no particular order
+     * @param end           node to finish at, or -1 to finish at the last visit
+     * @param deadlineNanos {@link System#nanoTime()} value by which stop ordering must finish
+     */
+    public RoutePlan plan(NavigationGraph.Snapshot graph, int start, int[] visits, int end, long deadlineNanos) {
+        return plan(graph, start, visits, end, deadlineNanos, new RouteTrace());
+    }
+
+    /**
+     * Same as {@link #plan(NavigationGraph.Snapshot, int, int[], int, long)}, recording the matrix,
+     * ordering and expansion stages into the trace.
+     */
+    public RoutePlan plan(NavigationGraph.Snapshot graph, int start, int[] visits, int end, long deadlineNanos,
+                          RouteTrace trace) {
+        return plan(graph, start, visits, end, deadlineNanos, trace, null);
+    }
+
+    /**
+     * Same as {@link #plan(NavigationGraph.Snapshot, int, int[], int, long, RouteTrace)}, sending the legs
+     * of the nearest-neighbour tour to the listener as they become known: the first one after a single
+     * search from the start, the others once the stop matrix is complete.
+     * @param listener receives the preview legs; null to plan without them
+     */
+    public RoutePlan plan(NavigationGraph.Snapshot graph, int start, int[] visits, int end, long deadlineNanos,
+                          RouteTrace trace, RouteListener listener) {
+        if (visits.length == 0) return RoutePlan.empty();
+        long started = System.nanoTime();
+
+        // Stops outside the route's component are dropped in O(1) each instead of searched for.
+        ConnectedComponents components = graph.components();
+        int anchor = start >= 0 ? start : end >= 0 ? end : mostVisited(components, visits);
+        int component = components.component(anchor);
+        List<String> unreachable = new ArrayList<>();
+        int[] reachable = Arrays.stream(visits).filter(v -> components.component(v) == component).toArray();
+        for (int v : visits) {
+            if (components.component(v) != component) unreachable.add(graph.id(v));
+        }
+        if (end >= 0 && components.component(end) != component) {
+            log.warn("Checkout waypoint {} is disconnected from entrance waypoint {}.", graph.id(end), graph.id(start));
+            end = -1;
+        }
+        if (reachable.length == 0) {
+            log.warn("None of the {} waypoint(s) {} is reachable from the entrance or checkout.", unreachable.size(), unreachable);
+            return new RoutePlan(new ArrayList<>(), new ArrayList<>(), 0, unreachable, new ArrayList<>(), 0,
+                    new ArrayList<>(), graph.version());
+        }
+        visits = reachable;
+
+        int visitOffset = start >= 0 ? 1 : 0;
+        int stopCount = visits.length + visitOffset + (end >= 0 ? 1 : 0);
+        int[] stops = new int[stopCount];
+        if (start >= 0) stops[0] = start;
+        System.arraycopy(visits, 0, stops, visitOffset, visits.length);
+        if (end >= 0) stops[stopCount - 1] = end;
+
+        int firstStop = listener == null ? -1 : sendFirstLeg(graph, stops, end >= 0 ? stopCount - 1 : -1, trace, listener);
+        StopDistanceMatrix matrix = StopDistanceMatrix.compute(searchEngine, graph, stops);
+        trace.setExpansions(trace.getExpansions() + matrix.expansions());
+        trace.setMaxHeapSize(Math.max(trace.getMaxHeapSize(), matrix.maxHeapSize()));
+        started = trace.lap(RouteTrace.Stage.MATRIX, started);
+
+        if (listener != null) {
+            int[] preview = PREVIEW.order(matrix, end >= 0 ? stopCount - 1 : -1, deadlineNanos);
+            int sent = preview.length > 1 && preview[1] == firstStop ? 1 : 0;
+            for (int i = sent; i + 1 < preview.length; i++) {
+                int from = matrix.stop(preview[i]);
+                int to = matrix.stop(preview[i + 1]);
+                listener.onLeg(leg(graph, i, from, to, matrix.leg(preview[i], preview[i + 1]),
+                        matrix.cost(preview[i], preview[i + 1])));
+            }
+        }
+        int[] order = tourStrategy.order(matrix, end >= 0 ? stopCount - 1 : -1, deadlineNanos);
+        started = trace.lap(RouteTrace.Stage.ORDER, started);
+
+        // Don't list the checkout twice when the last product already sits on its waypoint.
+        int length = order.length;
+        if (end >= 0 && length > 1 && matrix.stop(order[length - 2]) == end) length--;
+
+        // One-way connections can still hide a stop inside the component; only the search tells.
+        unreachable.addAll(unreachableVisits(graph, matrix, order, visitOffset, visitOffset + visits.length));
+        if (!unreachable.isEmpty()) {
+            log.warn("Could not find a path to {} waypoint(s) {}. The graph may be disconnected.", unreachable.size(), unreachable);
+        }
+        RoutePlan plan = expand(graph, matrix, order, length, unreachable);
+        trace.lap(RouteTrace.Stage.EXPAND, started);
+        return plan;
+    }
+
+    /**
+     * Runs the start's row of the stop matrix on its own and sends the leg to the stop the
+     * nearest-neighbour tour visits first, before the remaining rows are searched.
+     * @return the index of that stop, or -1 if no stop is reachable
+     */
+    private int sendFirstLeg(NavigationGraph.Snapshot graph, int[] stops, int end, RouteTrace trace,
+                             RouteListener listener) {
+        double[] distances = new double[stops.length];
+        int[] predecessors = new int[graph.size()];
+        searchEngine.shortestPathTree(graph, stops[0], stops, distances, predecessors);
+        trace.setExpansions(trace.getExpansions() + searchEngine.lastExpansions());
+        int nearest = -1;
+        for (int candidate = 1; candidate < stops.length; candidate++) {
+            if (candidate == end || distances[candidate] == Double.POSITIVE_INFINITY) continue;
+            if (nearest < 0 || distances[candidate] < distances[nearest]) nearest = candidate;
+        }
+        if (nearest < 0) return -1;
+        int length = 0;
+        for (int v = stops[nearest]; v >= 0; v = predecessors[v]) length++;
+        int[] path = new int[length];
+        for (int v = stops[nearest], p = length - 1; v >= 0; v = predecessors[v], p--) path[p] = v;
+        listener.onLeg(leg(graph, 0, stops[0], stops[nearest], path, distances[nearest]));
+        return nearest;
+    }
+
+    private static RouteLeg leg(NavigationGraph.Snapshot graph, int index, int from, int to, int[] nodes, double length) {
+        List<Location> path = new ArrayList<>(nodes.length);
+        for (int node : nodes) path.add(graph.location(node));
+        return new RouteLeg(index, graph.id(from), graph.id(to), path, length);
+    }
+
+    // Component holding the most visits, for routes without an entrance or checkout to anchor them.
+    private static int mostVisited(ConnectedComponents components, int[] visits) {
+        Map<Integer, Integer> counts = new HashMap<>();
+        int best = visits[0];
+        for (int v : visits) {
+            int count = counts.merge(components.component(v), 1, Integer::sum);
+            if (count > counts.get(components.component(best))) best = v;
+        }
+        return best;
+    }
+
+    private static List<String> unreachableVisits(NavigationGraph.Snapshot graph, StopDistanceMatrix matrix,
+                                                  int[] order, int visitStart, int visitEnd) {
+        boolean[] ordered = new boolean[matrix.size()];
+        for (int stop : order) ordered[stop] = true;
+        List<String> unreachable = new ArrayList<>();
+        for (int stop = visitStart; stop < visitEnd; stop++) {
+            if (!ordered[stop]) unreachable.add(graph.id(matrix.stop(stop)));
+        }
+        return unreachable;
+    }
+
+    private RoutePlan expand(NavigationGraph.Snapshot graph, StopDistanceMatrix matrix, int[] order, int stopCount,
+                             List<String> unreachable) {
+        List<Location> path = new ArrayList<>();
+        List<String> waypointPath = new ArrayList<>();
+        List<String> stopOrder = new ArrayList<>();
+        double length = 0;
+        int missingLegs = 0;
+        stopOrder.add(graph.id(matrix.stop(order[0])));
+        for (int i = 0; i < stopCount - 1; i++) {
+            int from = order[i];
+            int to = order[i + 1];
+            stopOrder.add(graph.id(matrix.stop(to)));
+            int[] leg = matrix.leg(from, to);
+            if (leg.length == 0) {
+                missingLegs++;
+                continue;
+            }
+            length += matrix.cost(from, to);
+            for (int p = path.isEmpty() ? 0 : 1; p < leg.length; p++) {
+                path.add(graph.location(leg[p]));
+                waypointPath.add(graph.id(leg[p]));
+            }
+        }
+        return new RoutePlan(path, stopOrder, length, unreachable, new ArrayList<>(), missingLegs, waypointPath,
+                graph.version());
+    }
+}
@@ -3,130 +3,338 @@ package com.lymph.Walmart_Application.service;
 import com.lymph.Walmart_Application.entity.Location;
 import com.lymph.Walmart_Application.entity.Product;
 import com.lymph.Walmart_Application.entity.Settings;
-import com.lymph.Walmart_Application.entity.Waypoint;
 import com.lymph.Walmart_Application.repo.ProductRepository;
 import com.lymph.Walmart_Application.repo.SettingsRepository;
 import com.lymph.Walmart_Application.repo.WaypointRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
 @Service
 public class RouteService {
 
+    private static final Logger log = LoggerFactory.getLogger(RouteService.class);
+
     @Autowired
     private ProductRepository productRepository;
     @Autowired
     private WaypointRepository waypointRepository;
     @Autowired
-    private PathfindingService pathfindingService;
+    private RoutePlanner routePlanner;
     @Autowired
     private SettingsRepository settingsRepository;
+    @Autowired
+    private NavigationGraph navigationGraph;
+    @Autowired
+    private RouteCache routeCache;
+    @Autowired
+    private RoutingMetrics routingMetrics;
+    @Autowired
+    private ChangeTracker changeTracker;
+    @Autowired
+    private ProductWaypointIndex productWaypointIndex;
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+    @Autowired
+    private CongestionWeights congestionWeights;
+    @Autowired
+    private RouteAdmission routeAdmission;
+
+    // Settings are read on every route, so they are kept in memory with a version for cache keys.
+    private record VersionedSettings(Settings settings, long version) {}
+    private final AtomicLong settingsVersions = new AtomicLong();
+    private final Map<String, VersionedSettings> settingsByStore = new ConcurrentHashMap<>();
+
+    @Value("${routing.cost.mode:distance}")
+    private String defaultCostMode;
+    @Value("${routing.compact.tolerance:0.5}")
+    private double compactTolerance;
+    @Value("${routing.compact.precision:10}")
+    private int compactPrecision;
+    @Value("${routing.tour.budget-ms:20}")
+    private long defaultBudgetMs;
+    @Value("${routing.tour.max-budget-ms:1000}")
+    private long maxBudgetMs;
 
     public List<Location> getOptimisedPath(List<String> productIds) {
-        List<Product> productsToVisit = productRepository.findBySkuIn(productIds);
-        if (productsToVisit.isEmpty()) return new ArrayList<>();
+        return getOptimisedPath(productIds, null);
+    }
 
-        Map<String, Waypoint> waypointMap = waypointRepository.findAll().stream()
-                .filter(wp -> wp != null && wp.getLocation() != null)
-                .collect(Collectors.toMap(Waypoint::getId, wp -> wp));
+    public List<Location> getOptimisedPath(List<String> productIds, Long budgetMs) {
+        return getOptimisedPath(null, productIds, budgetMs);
+    }
 
-        List<String> waypointIdsToVisit = productsToVisit.stream()
-                .map(Product::getWaypointId)
-                .filter(id -> id != null && !id.isEmpty() && waypointMap.containsKey(id))
-                .distinct()
-                .collect(Collectors.toList());
+    public List<Location> getOptimisedPath(String storeId, List<String> productIds, Long budgetMs) {
+        return planRoute(storeId, productIds, budgetMs, null, new RouteTrace()).getPath();
+    }
 
-        if (waypointIdsToVisit.isEmpty()) {
-            System.err.println("Routing failed: Products are not assigned to valid waypoints.");
-            return new ArrayList<>();
-        }
+    /**
+     * Plans a route through the default store; see {@link #planRoute(String, List, Long, CostMode, RouteTrace)}.
+     */
+    public RoutePlan planRoute(List<String> productIds, Long budgetMs) {
+        return planRoute(null, productIds, budgetMs, null, new RouteTrace());
+    }
+
+    /**
+     * Plans a route from the store's entrance through every product's waypoint to its checkout.
+     * Stop-to-stop costs are computed once per stop, then ordered by the configured {@link TourStrategy}.
+     * Results are served from the {@link RouteCache} when the same set of waypoints was planned
+     * against the current graph and settings. Products of other stores are ignored.
+     * @param storeId  store to route through; null for the default store
+     * @param budgetMs time allowed for the whole request before the best tour so far is used;
+     *                 null for the configured default, capped at routing.tour.max-budget-ms.
+     * @param costMode edge costs to plan with; null for routing.cost.mode
+     * @param trace    receives per-stage timings
+     */
+    public RoutePlan planRoute(String storeId, List<String> productIds, Long budgetMs, CostMode costMode,
+                               RouteTrace trace) {
+        return planRoute(prepare(storeId, productIds, budgetMs, costMode, trace), trace, null);
+    }
 
-        Settings settings = getSettings();
-        String entranceWaypointId = getNearestWaypointId(settings.getEntranceLocation());
-        String checkoutWaypointId = getNearestWaypointId(settings.getCheckoutLocation());
+    /**
+     * Asynchronous {@link #planRoute(String, List, Long, CostMode, RouteTrace)}: the SKU lookup, graph load
+     * and settings read run on the calling thread, the route solving on the bounded compute pool.
+     * @throws ComputeOverloadedException if the compute queue is full
+     */
+    public CompletableFuture<RoutePlan> planRouteAsync(String storeId, List<String> productIds, Long budgetMs,
+                                                       CostMode costMode, RouteTrace trace) {
+        RouteRequest request = prepare(storeId, productIds, budgetMs, costMode, trace);
+        return routeAdmission.submit(() -> planRoute(request, trace, null));
+    }
 
-        List<String> orderedWaypointIds = new ArrayList<>();
-        String currentWaypointId = entranceWaypointId;
+    /**
+     * Streaming {@link #planRouteAsync}: legs of the preliminary tour go to the listener as soon as they
+     * are known, on the compute thread, and the returned plan is the final route that replaces them.
+     * A route served from the cache sends no legs. Time to the first leg (or to the plan when there is
+     * none) and the total time are recorded separately.
+     * @throws ComputeOverloadedException if the compute queue is full
+     */
+    public CompletableFuture<RoutePlan> streamRouteAsync(String storeId, List<String> productIds, Long budgetMs,
+                                                         CostMode costMode, RouteListener listener) {
+        long started = System.nanoTime();
+        AtomicBoolean firstSent = new AtomicBoolean();
+        RouteListener timed = leg -> {
+            if (firstSent.compareAndSet(false, true)) routingMetrics.recordFirstLeg(System.nanoTime() - started);
+            listener.onLeg(leg);
+        };
+        RouteTrace trace = new RouteTrace();
+        RouteRequest request = prepare(storeId, productIds, budgetMs, costMode, trace);
+        return routeAdmission.submit(() -> {
+            RoutePlan plan = planRoute(request, trace, timed);
+            if (firstSent.compareAndSet(false, true)) routingMetrics.recordFirstLeg(System.nanoTime() - started);
+            routingMetrics.recordStreamTotal(System.nanoTime() - started);
+            return plan;
+        });
+    }
 
-        if (currentWaypointId == null || !waypointMap.containsKey(currentWaypointId)) {
-            if (waypointIdsToVisit.isEmpty()) return new ArrayList<>();
-            currentWaypointId = waypointIdsToVisit.remove(0);
-        }
-        orderedWaypointIds.add(currentWaypointId);
-
-        while (!waypointIdsToVisit.isEmpty()) {
-            String finalCurrentWaypointId = currentWaypointId;
-            String nearestWaypointId = waypointIdsToVisit.stream()
-                    .min(Comparator.comparingDouble(candidateId -> {
-                        List<Waypoint> path = pathfindingService.findPath(finalCurrentWaypointId, candidateId);
-                        return path.isEmpty() ? Double.MAX_VALUE : path.size();
-                    }))
-                    .orElse(null);
-
-            if (nearestWaypointId == null) {
-                System.err.println("Could not find a path to remaining waypoints. The graph may be disconnected.");
-                break;
-            }
+    /**
+     * Same as {@link #planRouteAsync}, returning the route in its {@link CompactRoute} form; the
+     * simplification and encoding also run on the compute pool.
+     * @throws ComputeOverloadedException if the compute queue is full
+     */
+    public CompletableFuture<CompactRoute> planCompactRouteAsync(String storeId, List<String> productIds, Long budgetMs,
+                                                                 CostMode costMode, RouteTrace trace) {
+        RouteRequest request = prepare(storeId, productIds, budgetMs, costMode, trace);
+        return routeAdmission.submit(() -> RouteGeometry.compact(planRoute(request, trace, null), request.waypointBySku(),
+                compactTolerance, compactPrecision));
+    }
 
-            orderedWaypointIds.add(nearestWaypointId);
-            waypointIdsToVisit.remove(nearestWaypointId);
-            currentWaypointId = nearestWaypointId;
-        }
+    // Everything a route needs from Mongo and the graph cache, resolved before any solving starts.
+    private record RouteRequest(Map<String, String> waypointBySku, NavigationGraph.Snapshot graph,
+                                long closureGeneration, VersionedSettings settings, long budget, long deadlineNanos) {}
+
+    private RouteRequest prepare(String storeId, List<String> productIds, Long budgetMs, CostMode costMode,
+                                 RouteTrace trace) {
+        long budget = budgetMs(budgetMs);
+        long started = System.nanoTime();
+        long deadlineNanos = started + budget * 1_000_000L;
+        Map<String, String> waypointBySku = productWaypointIndex.resolve(storeId, productIds);
+        started = trace.lap(RouteTrace.Stage.SKU_LOOKUP, started);
+        long closureGeneration = routeCache.closureGeneration(NavigationGraph.storeOf(storeId));
+        NavigationGraph.Snapshot graph = graph(storeId, costMode);
+        VersionedSettings settings = currentSettings(graph.storeId());
+        trace.lap(RouteTrace.Stage.GRAPH_LOAD, started);
+        return new RouteRequest(waypointBySku, graph, closureGeneration, settings, budget, deadlineNanos);
+    }
+
+    private RoutePlan planRoute(RouteRequest request, RouteTrace trace, RouteListener listener) {
+        return planRoute(request.waypointBySku(), request.graph(), request.closureGeneration(), request.settings(),
+                request.budget(), request.deadlineNanos(), trace, listener);
+    }
+
+    /**
+     * Plans many carts at once. All SKUs are resolved in one pass and every cart is planned
+     * against the same graph snapshot and settings, in parallel on the bounded compute pool.
+     * The carts are admitted to the pool together or not at all.
+     * @return one result per cart, in input order; a cart that fails carries an error instead of a path.
+     * @throws ComputeOverloadedException if the compute queue cannot take every cart
+     */
+    public CompletableFuture<List<BatchRouteResult>> planRoutes(String storeId, List<List<String>> carts, Long budgetMs,
+                                                                CostMode costMode) {
+        Set<String> skus = new HashSet<>();
+        carts.forEach(cart -> { if (cart != null) skus.addAll(cart); });
+        Map<String, String> waypointBySku = productWaypointIndex.resolve(storeId, skus);
+
+        long closureGeneration = routeCache.closureGeneration(NavigationGraph.storeOf(storeId));
+        NavigationGraph.Snapshot graph = graph(storeId, costMode);
+        VersionedSettings settings = currentSettings(graph.storeId());
+        long budget = budgetMs(budgetMs);
 
-        if (checkoutWaypointId != null && waypointMap.containsKey(checkoutWaypointId) && !orderedWaypointIds.get(orderedWaypointIds.size()-1).equals(checkoutWaypointId)) {
-            orderedWaypointIds.add(checkoutWaypointId);
+        List<Supplier<RoutePlan>> tasks = new ArrayList<>(carts.size());
+        for (List<String> cart : carts) {
+            tasks.add(() -> {
+                if (cart == null) throw new IllegalArgumentException("Cart must not be null.");
+                Map<String, String> cartWaypoints = new LinkedHashMap<>();
+                for (String sku : cart) {
+                    String waypointId = waypointBySku.get(sku);
+                    if (waypointId != null) cartWaypoints.put(sku, waypointId);
+                }
+                return planRoute(cartWaypoints, graph, closureGeneration, settings, budget,
+                        System.nanoTime() + budget * 1_000_000L, new RouteTrace(), null);
+            });
         }
 
-        List<Location> finalPath = new ArrayList<>();
-        for (int i = 0; i < orderedWaypointIds.size() - 1; i++) {
-            List<Waypoint> legPathWaypoints = pathfindingService.findPath(orderedWaypointIds.get(i), orderedWaypointIds.get(i + 1));
-            if (legPathWaypoints != null && !legPathWaypoints.isEmpty()) {
-                List<Location> legPathLocations = legPathWaypoints.stream()
-                        .map(Waypoint::getLocation)
-                        .collect(Collectors.toList());
-                if (i > 0 && !finalPath.isEmpty() && !legPathLocations.isEmpty()) {
-                    finalPath.addAll(legPathLocations.subList(1, legPathLocations.size()));
-                } else {
-                    finalPath.addAll(legPathLocations);
+        List<CompletableFuture<RoutePlan>> futures = routeAdmission.submitAll(tasks);
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).handle((done, failure) -> {
+            List<BatchRouteResult> results = new ArrayList<>(carts.size());
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    RoutePlan plan = futures.get(i).join();
+                    results.add(new BatchRouteResult(i, plan.getPath(), plan.getLength(), plan.getUnreachableSkus(), null));
+                } catch (CompletionException e) {
+                    results.add(new BatchRouteResult(i, null, 0, null, String.valueOf(e.getCause().getMessage())));
                 }
             }
-        }
-        return finalPath;
+            return results;
+        });
     }
 
-    private String getNearestWaypointId(Location point) {
-        if (point == null) return null;
-        return waypointRepository.findAll().stream()
-                .filter(wp -> wp.getLocation() != null)
-                .min(Comparator.comparingDouble(wp -> distanceBetween(point, wp.getLocation())))
-                .map(Waypoint::getId)
-                .orElse(null);
+    // The store's current graph, with the latest congestion epoch applied in congestion mode.
+    private NavigationGraph.Snapshot graph(String storeId, CostMode costMode) {
+        NavigationGraph.Snapshot graph = navigationGraph.snapshot(storeId);
+        CostMode mode = costMode != null ? costMode : CostMode.fromProperty(defaultCostMode);
+        return mode == CostMode.CONGESTION ? congestionWeights.apply(graph) : graph;
+    }
+
+    // Keyed by congestion epoch rather than the weighted snapshot's version, which also changes whenever
+    // the weighted graph is rebuilt for the same epoch; static costs are keyed as 0.
+    private long congestionEpoch(NavigationGraph.Snapshot graph) {
+        return congestionWeights.epochOf(graph);
+    }
+
+    private long budgetMs(Long requested) {
+        return Math.max(0, Math.min(requested != null ? requested : defaultBudgetMs, maxBudgetMs));
+    }
+
+    /**
+     * @param waypointBySku     waypoint ID of each product found, empty for products without one
+     * @param closureGeneration the store's {@link RouteCache#closureGeneration} read before the graph
+     * @param listener          receives preview legs when the route is actually computed; may be null
+     */
+    private RoutePlan planRoute(Map<String, String> waypointBySku, NavigationGraph.Snapshot graph,
+                                long closureGeneration, VersionedSettings settings, long budget, long deadlineNanos,
+                                RouteTrace trace, RouteListener listener) {
+        if (waypointBySku.isEmpty()) return RoutePlan.empty();
+
+        long started = System.nanoTime();
+        int[] waypointsToVisit = waypointBySku.values().stream()
+                .filter(id -> id != null && !id.isEmpty())
+                .mapToInt(graph::indexOf)
+                .filter(node -> node >= 0)
+                .distinct()
+                .toArray();
+
+        trace.lap(RouteTrace.Stage.SNAP, started);
+        trace.setCartSize(waypointsToVisit.length);
+
+        if (waypointsToVisit.length == 0) {
+            log.warn("Routing failed: Products are not assigned to valid waypoints.");
+            return RoutePlan.empty();
+        }
+
+        List<String> waypointIds = new ArrayList<>(waypointsToVisit.length);
+        for (int node : waypointsToVisit) waypointIds.add(graph.id(node));
+        Collections.sort(waypointIds);
+        RouteCache.Key key = new RouteCache.Key(graph.storeId(), waypointIds, graph.base().version(),
+                congestionEpoch(graph), settings.version(), budget);
+
+        trace.setCacheHit(true);
+        RoutePlan plan = routeCache.get(key, closureGeneration, () -> {
+            trace.setCacheHit(false);
+            long snapStarted = System.nanoTime();
+            int entrance = graph.nearestNode(settings.settings().getEntranceLocation());
+            int checkout = graph.nearestNode(settings.settings().getCheckoutLocation());
+            trace.lap(RouteTrace.Stage.SNAP, snapStarted);
+            return routePlanner.plan(graph, entrance, waypointsToVisit, checkout, deadlineNanos, trace, listener);
+        });
+        routingMetrics.record(trace, plan);
+        if (plan.getUnreachableStops().isEmpty()) return plan;
+        return plan.withUnreachableSkus(skusAt(waypointBySku, plan.getUnreachableStops()));
     }
 
-    private double distanceBetween(Location a, Location b) {
-        if (a == null || b == null) return Double.MAX_VALUE;
-        return Math.sqrt(Math.pow(a.getX() - b.getX(), 2) + Math.pow(a.getY() - b.getY(), 2));
+    private static List<String> skusAt(Map<String, String> waypointBySku, List<String> waypointIds) {
+        Set<String> waypoints = new HashSet<>(waypointIds);
+        List<String> skus = new ArrayList<>();
+        waypointBySku.forEach((sku, waypointId) -> {
+            if (waypoints.contains(waypointId)) skus.add(sku);
+        });
+        Collections.sort(skus);
+        return skus;
     }
 
     public List<Product> getAllProducts() { return productRepository.findAll(); }
-    public Product createProduct(Product product) { return productRepository.save(product); }
+    public Product createProduct(Product product) { return save(product); }
     public Product updateProduct(String sku, Product productDetails) {
         Product product = productRepository.findBySku(sku).orElseThrow(() -> new RuntimeException("Product not found: " + sku));
         product.setName(productDetails.getName());
         if (productDetails.getCategory() != null) product.setCategory(productDetails.getCategory());
+        if (!Objects.equals(product.getWaypointId(), productDetails.getWaypointId())) {
+            product.setWaypointPinned(productDetails.getWaypointId() != null);
+        }
         product.setWaypointId(productDetails.getWaypointId());
         product.setLocation(productDetails.getLocation());
-        return productRepository.save(product);
+        return save(product);
     }
     @Transactional
-    public void deleteProduct(String sku) { productRepository.deleteBySku(sku); }
+    public void deleteProduct(String sku) {
+        Product product = productRepository.findBySku(sku).orElse(null);
+        changeTracker.stamp(Product.class, version -> {
+            productRepository.deleteBySku(sku);
+            changeTracker.tombstone(Product.class, sku, version);
+            return null;
+        });
+        if (product != null) productWaypointIndex.remove(product);
+        productSearchIndex.remove(sku);
+    }
+
+    private Product save(Product product) {
+        Product saved = changeTracker.stamp(Product.class, version -> {
+            product.setVersion(version);
+            return productRepository.save(product);
+        });
+        productWaypointIndex.put(saved);
+        productSearchIndex.put(saved);
+        return saved;
+    }
 
     /**
      * This method was missing, causing the "cannot find symbol" error.
@@ -140,30 +348,97 @@ public class RouteService {
         Product product = productRepository.findBySku(sku)
                 .orElseThrow(() -> new RuntimeException("Product not found with SKU: " + sku));
         product.setLocation(newLocation);
-        product.setWaypointId(getNearestWaypointId(newLocation));
-        return productRepository.save(product);
+        NavigationGraph.Snapshot graph = navigationGraph.snapshot(product.getStoreId());
+        int nearest = graph.nearestNode(newLocation);
+        product.setWaypointId(nearest >= 0 ? graph.id(nearest) : null);
+        product.setWaypointPinned(false);
+        return save(product);
+    }
+
+    /**
+     * Bulk version of {@link #updateProductLocation}: one product lookup, one spatial-index query
+     * per product against its store's graph and one batched save.
+     * @param locations new location per SKU
+     * @return the updated products.
+     */
+    public List<Product> updateProductLocations(Map<String, Location> locations) {
+        List<Product> products = productRepository.findBySkuIn(new ArrayList<>(locations.keySet()));
+        if (products.size() < locations.size()) {
+            Set<String> missing = new HashSet<>(locations.keySet());
+            products.forEach(p -> missing.remove(p.getSku()));
+            if (!missing.isEmpty()) throw new RuntimeException("Products not found: " + missing);
+        }
+        Map<String, NavigationGraph.Snapshot> graphs = new HashMap<>();
+        return changeTracker.stamp(Product.class, version -> {
+            for (Product product : products) {
+                Location location = locations.get(product.getSku());
+                NavigationGraph.Snapshot graph = graphs.computeIfAbsent(
+                        NavigationGraph.storeOf(product.getStoreId()), navigationGraph::snapshot);
+                int nearest = graph.nearestNode(location);
+                product.setLocation(location);
+                product.setWaypointId(nearest >= 0 ? graph.id(nearest) : null);
+                product.setWaypointPinned(false);
+                product.setVersion(version);
+            }
+            List<Product> saved = productRepository.saveAll(products);
+            saved.forEach(productWaypointIndex::put);
+            return saved;
+        });
     }
 
     public Product assignProductToWaypoint(String sku, String waypointId) {
         Product product = productRepository.findBySku(sku).orElseThrow(() -> new RuntimeException("Product not found: " + sku));
         waypointRepository.findById(waypointId).orElseThrow(() -> new RuntimeException("Waypoint not found: " + waypointId));
         product.setWaypointId(waypointId);
-        return productRepository.save(product);
+        product.setWaypointPinned(true);
+        return save(product);
     }
     public Settings getSettings() {
-        return settingsRepository.findById("store_config").orElseGet(() -> {
+        return getSettings(null);
+    }
+
+    public Settings getSettings(String storeId) {
+        return currentSettings(NavigationGraph.storeOf(storeId)).settings();
+    }
+
+    private VersionedSettings currentSettings(String store) {
+        return settingsByStore.computeIfAbsent(store,
+                s -> new VersionedSettings(loadSettings(s), settingsVersions.incrementAndGet()));
+    }
+
+    private static String settingsId(String store) {
+        return NavigationGraph.DEFAULT_STORE.equals(store) ? "store_config" : "store_config:" + store;
+    }
+
+    private Settings loadSettings(String store) {
+        return settingsRepository.findById(settingsId(store)).orElseGet(() -> {
             Settings defaultSettings = new Settings();
-            defaultSettings.setId("store_config");
+            defaultSettings.setId(settingsId(store));
+            if (!NavigationGraph.DEFAULT_STORE.equals(store)) defaultSettings.setStoreId(store);
             defaultSettings.setEntranceLocation(new Location(300, 750, 0));
             defaultSettings.setCheckoutLocation(new Location(600, 680, 0));
             return settingsRepository.save(defaultSettings);
         });
     }
+
     public Settings updateLocationSetting(String type, Location location) {
-        Settings settings = getSettings();
+        return updateLocationSetting(null, type, location);
+    }
+
+    public synchronized Settings updateLocationSetting(String storeId, String type, Location location) {
+        String store = NavigationGraph.storeOf(storeId);
+        Settings current = getSettings(store);
+        Settings settings = new Settings();
+        settings.setId(current.getId());
+        settings.setStoreId(current.getStoreId());
+        settings.setEntranceLocation(current.getEntranceLocation());
+        settings.setCheckoutLocation(current.getCheckoutLocation());
         if ("entrance".equalsIgnoreCase(type)) settings.setEntranceLocation(location);
         else if ("checkout".equalsIgnoreCase(type)) settings.setCheckoutLocation(location);
         else throw new IllegalArgumentException("Invalid location type: " + type);
-        return settingsRepository.save(settings);
+        Settings saved = settingsRepository.save(settings);
+        settingsByStore.put(store, new VersionedSettings(saved, settingsVersions.incrementAndGet()));
+        routeCache.invalidateStore(store);
+        return saved;
     }
 }
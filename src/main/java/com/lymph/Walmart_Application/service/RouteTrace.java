@@ -0,0 +1,63 @@
+package com.lymph.Walmart_Application.service;
+
+import java.util.Locale;
+import java.util.StringJoiner;
+
+/**
+ * Per-request timings of the route pipeline stages, plus search work done by the stop matrix.
+ * Recorded into Micrometer by {@link RoutingMetrics} and optionally returned to the client
+ * as a Server-Timing header.
+ */
+public class RouteTrace {
+
+    public enum Stage {
+        SKU_LOOKUP, GRAPH_LOAD, SNAP, MATRIX, ORDER, EXPAND;
+
+        public String tagValue() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private final long[] stageNanos = new long[Stage.values().length];
+    private long expansions;
+    private int maxHeapSize;
+    private int cartSize;
+    private boolean cacheHit;
+
+    public void record(Stage stage, long nanos) {
+        stageNanos[stage.ordinal()] += nanos;
+    }
+
+    /**
+     * Records the time since startNanos against the stage and returns the current time,
+     * so consecutive stages can be chained.
+     */
+    public long lap(Stage stage, long startNanos) {
+        long now = System.nanoTime();
+        record(stage, now - startNanos);
+        return now;
+    }
+
+    public long nanos(Stage stage) { return stageNanos[stage.ordinal()]; }
+    public long getExpansions() { return expansions; }
+    public void setExpansions(long expansions) { this.expansions = expansions; }
+    public int getMaxHeapSize() { return maxHeapSize; }
+    public void setMaxHeapSize(int maxHeapSize) { this.maxHeapSize = maxHeapSize; }
+    public int getCartSize() { return cartSize; }
+    public void setCartSize(int cartSize) { this.cartSize = cartSize; }
+    public boolean isCacheHit() { return cacheHit; }
+    public void setCacheHit(boolean cacheHit) { this.cacheHit = cacheHit; }
+
+    /**
+     * @return the trace in Server-Timing header syntax, e.g. {@code snap;dur=0.04, matrix;dur=1.20}.
+     */
+    public String toServerTiming() {
+        StringJoiner header = new StringJoiner(", ");
+        for (Stage stage : Stage.values()) {
+            header.add(String.format(Locale.ROOT, "%s;dur=%.3f", stage.tagValue(), stageNanos[stage.ordinal()] / 1e6));
+        }
+        header.add("cache;desc=" + (cacheHit ? "hit" : "miss"));
+        header.add("expansions;desc=" + expansions);
+        return header.toString();
+    }
+}
@@ -0,0 +1,154 @@
+package com.lymph.Walmart_Application.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer meters for the routing pipeline, exposed through Actuator at /actuator/metrics
+ * and /actuator/prometheus. Stage timers and search summaries publish histograms so tail
+ * latencies can be read per stage rather than only for the whole request.
+ */
+@Component
+public class RoutingMetrics {
+
+    private final Map<RouteTrace.Stage, Timer> stageTimers = new EnumMap<>(RouteTrace.Stage.class);
+    private final DistributionSummary matrixExpansions;
+    private final DistributionSummary pointExpansions;
+    private final DistributionSummary heapSize;
+    private final DistributionSummary cartSize;
+    private final Counter unreachableStops;
+    private final Counter missingLegs;
+    private final Counter noPath;
+    private final Timer streamFirstLeg;
+    private final Timer streamTotal;
+
+    public RoutingMetrics(MeterRegistry registry, RouteCache routeCache, PathSearchEngine searchEngine,
+                          NavigationGraph navigationGraph, CongestionWeights congestionWeights,
+                          RouteAdmission routeAdmission) {
+        for (RouteTrace.Stage stage : RouteTrace.Stage.values()) {
+            stageTimers.put(stage, Timer.builder("routing.stage")
+                    .description("Time spent in one stage of route planning")
+                    .tag("stage", stage.tagValue())
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+        matrixExpansions = expansions(registry, "stop_matrix");
+        pointExpansions = expansions(registry, "point_to_point");
+        heapSize = DistributionSummary.builder("routing.search.heap.size")
+                .description("Largest open-set size reached while building a stop matrix")
+                .publishPercentileHistogram()
+                .register(registry);
+        cartSize = DistributionSummary.builder("routing.cart.size")
+                .description("Distinct waypoints visited per planned route")
+                .publishPercentileHistogram()
+                .register(registry);
+        unreachableStops = Counter.builder("routing.unreachable.stops")
+                .description("Stops left out of a route because no path reaches them")
+                .register(registry);
+        missingLegs = Counter.builder("routing.missing.legs")
+                .description("Consecutive route stops with no path between them")
+                .register(registry);
+        noPath = Counter.builder("routing.no.path")
+                .description("Point-to-point queries that found no path")
+                .register(registry);
+        streamFirstLeg = Timer.builder("routing.stream.first.leg")
+                .description("Time from a streamed route request to its first leg")
+                .publishPercentileHistogram()
+                .register(registry);
+        streamTotal = Timer.builder("routing.stream.total")
+                .description("Time from a streamed route request to its final route")
+                .publishPercentileHistogram()
+                .register(registry);
+
+        FunctionCounter.builder("routing.cache.requests", routeCache, RouteCache::hitCount)
+                .tag("result", "hit").register(registry);
+        FunctionCounter.builder("routing.cache.requests", routeCache, RouteCache::missCount)
+                .tag("result", "miss").register(registry);
+        FunctionCounter.builder("routing.cache.requests", routeCache, RouteCache::coalescedCount)
+                .tag("result", "coalesced").register(registry);
+        FunctionCounter.builder("routing.search.queries", searchEngine, PathSearchEngine::queryCount)
+                .description("Searches run by the path search engine")
+                .register(registry);
+        FunctionCounter.builder("routing.search.nodes.settled", searchEngine, PathSearchEngine::expansionCount)
+                .description("Nodes settled by the path search engine")
+                .register(registry);
+        Gauge.builder("routing.stores.resident", navigationGraph, NavigationGraph::residentStores)
+                .description("Store graphs currently held in memory")
+                .register(registry);
+        FunctionCounter.builder("routing.stores.evictions", navigationGraph, NavigationGraph::evictions)
+                .description("Store graphs evicted for idleness or the memory budget")
+                .register(registry);
+        FunctionCounter.builder("routing.congestion.updates", congestionWeights, CongestionWeights::updateCount)
+                .description("Congestion readings staged")
+                .tag("result", "accepted").register(registry);
+        FunctionCounter.builder("routing.congestion.updates", congestionWeights, CongestionWeights::rejectedCount)
+                .description("Congestion readings staged")
+                .tag("result", "rejected").register(registry);
+        FunctionCounter.builder("routing.congestion.epochs", congestionWeights, CongestionWeights::epochCount)
+                .description("Congestion weight epochs published")
+                .register(registry);
+        Gauge.builder("routing.compute.queue.depth", routeAdmission, RouteAdmission::queued)
+                .description("Routes admitted and waiting for a compute thread")
+                .register(registry);
+        FunctionTimer.builder("routing.compute.queue.wait", routeAdmission, RouteAdmission::startedCount,
+                        RouteAdmission::totalWaitNanos, TimeUnit.NANOSECONDS)
+                .description("Time routes waited for a compute thread")
+                .register(registry);
+        FunctionCounter.builder("routing.compute.rejected", routeAdmission, RouteAdmission::rejectedCount)
+                .description("Routes refused because the compute queue was full")
+                .register(registry);
+    }
+
+    private static DistributionSummary expansions(MeterRegistry registry, String search) {
+        return DistributionSummary.builder("routing.search.expansions")
+                .description("Nodes settled per search")
+                .tag("search", search)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    /**
+     * Records a finished route request. Planning stages are only recorded when the route was
+     * actually computed, so cache hits don't drag the matrix and ordering timings towards zero.
+     */
+    public void record(RouteTrace trace, RoutePlan plan) {
+        for (RouteTrace.Stage stage : RouteTrace.Stage.values()) {
+            boolean planning = stage == RouteTrace.Stage.MATRIX || stage == RouteTrace.Stage.ORDER
+                    || stage == RouteTrace.Stage.EXPAND;
+            if (planning && trace.isCacheHit()) continue;
+            stageTimers.get(stage).record(trace.nanos(stage), TimeUnit.NANOSECONDS);
+        }
+        if (!trace.isCacheHit()) {
+            matrixExpansions.record(trace.getExpansions());
+            heapSize.record(trace.getMaxHeapSize());
+        }
+        cartSize.record(trace.getCartSize());
+        if (plan != null) {
+            if (plan.getUnreachableStops() != null) unreachableStops.increment(plan.getUnreachableStops().size());
+            missingLegs.increment(plan.getMissingLegs());
+        }
+    }
+
+    public void recordFirstLeg(long nanos) {
+        streamFirstLeg.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordStreamTotal(long nanos) {
+        streamTotal.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordPathQuery(int expansions, boolean found) {
+        pointExpansions.record(expansions);
+        if (!found) noPath.increment();
+    }
+}
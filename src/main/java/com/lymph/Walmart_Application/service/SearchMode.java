@@ -0,0 +1,20 @@
+package com.lymph.Walmart_Application.service;
+
+/**
+ * Point-to-point search algorithm used by {@link PathSearchEngine}.
+ */
+public enum SearchMode {
+    /** A* with the straight-line distance as heuristic. */
+    ASTAR,
+    /** A* with the larger of the straight-line and landmark (ALT) lower bounds. */
+    ALT,
+    /** Bidirectional A* with ALT potentials on both sides. */
+    ALT_BIDIRECTIONAL;
+
+    /**
+     * Parses property values such as "astar", "alt" or "alt-bidirectional".
+     */
+    public static SearchMode fromProperty(String value) {
+        return valueOf(value.trim().replace('-', '_').toUpperCase());
+    }
+}
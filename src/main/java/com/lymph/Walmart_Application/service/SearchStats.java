@@ -0,0 +1,18 @@
+package com.lymph.Walmart_Application.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Aggregate point-to-point search counters since startup.
+ */
+@Data
+@AllArgsConstructor
+public class SearchStats {
+    private SearchMode mode;
+    private int landmarks;
+    private long queries;
+    private long expansions;
+    private double averageExpansions;
+    private long disconnectedQueries; // answered without a search: endpoints in different components
+}
@@ -0,0 +1,144 @@
+package com.lymph.Walmart_Application.service;
+
+import java.util.Arrays;
+
+/**
+ * Static k-d tree over the nodes of a {@link NavigationGraph.Snapshot}, stored implicitly in a
+ * single int array: the node at the middle of each range splits it on x, y and, for multi-floor
+ * stores, z in turn. Single-floor stores skip the z axis entirely.
+ * Nearest and k-nearest queries run in O(log n) on average instead of scanning every waypoint.
+ */
+public final class SpatialIndex {
+
+    private final NavigationGraph.Snapshot graph;
+    private final int[] tree;
+    private final int dimensions;
+
+    private SpatialIndex(NavigationGraph.Snapshot graph, int[] tree, int dimensions) {
+        this.graph = graph;
+        this.tree = tree;
+        this.dimensions = dimensions;
+    }
+
+    public static SpatialIndex build(NavigationGraph.Snapshot graph) {
+        int[] tree = new int[graph.size()];
+        for (int i = 0; i < tree.length; i++) tree[i] = i;
+        int dimensions = 2;
+        for (int node = 1; node < tree.length && dimensions == 2; node++) {
+            if (graph.z(node) != graph.z(0)) dimensions = 3;
+        }
+        split(graph, tree, 0, tree.length, 0, dimensions);
+        return new SpatialIndex(graph, tree, dimensions);
+    }
+
+    private static void split(NavigationGraph.Snapshot graph, int[] tree, int lo, int hi, int axis, int dimensions) {
+        if (hi - lo <= 1) return;
+        int mid = (lo + hi) >>> 1;
+        select(graph, tree, lo, hi - 1, mid, axis);
+        int next = axis + 1 == dimensions ? 0 : axis + 1;
+        split(graph, tree, lo, mid, next, dimensions);
+        split(graph, tree, mid + 1, hi, next, dimensions);
+    }
+
+    // Quickselect: afterwards tree[k] holds the node of rank k on the axis within [lo, hi].
+    private static void select(NavigationGraph.Snapshot graph, int[] tree, int lo, int hi, int k, int axis) {
+        while (hi > lo) {
+            double pivot = coordinate(graph, tree[(lo + hi) >>> 1], axis);
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (coordinate(graph, tree[i], axis) < pivot) i++;
+                while (coordinate(graph, tree[j], axis) > pivot) j--;
+                if (i <= j) {
+                    int tmp = tree[i];
+                    tree[i++] = tree[j];
+                    tree[j--] = tmp;
+                }
+            }
+            if (k <= j) hi = j;
+            else if (k >= i) lo = i;
+            else return;
+        }
+    }
+
+    private static double coordinate(NavigationGraph.Snapshot graph, int node, int axis) {
+        return axis == 0 ? graph.x(node) : axis == 1 ? graph.y(node) : graph.z(node);
+    }
+
+    /**
+     * @return the node closest to (x, y) on the ground floor (z = 0), or -1 if the graph is empty.
+     */
+    public int nearest(double x, double y) {
+        return nearest(x, y, 0.0);
+    }
+
+    /**
+     * @return the node closest to (x, y, z), or -1 if the graph is empty.
+     */
+    public int nearest(double x, double y, double z) {
+        Neighbours best = new Neighbours(1);
+        search(new double[] {x, y, z}, 0, tree.length, 0, best);
+        return best.size == 0 ? -1 : best.nodes[0];
+    }
+
+    /**
+     * @return up to k nodes ordered from closest to farthest.
+     */
+    public int[] nearest(double x, double y, int k) {
+        return nearest(x, y, 0.0, k);
+    }
+
+    public int[] nearest(double x, double y, double z, int k) {
+        Neighbours best = new Neighbours(Math.min(k, tree.length));
+        if (best.nodes.length > 0) search(new double[] {x, y, z}, 0, tree.length, 0, best);
+        return Arrays.copyOf(best.nodes, best.size);
+    }
+
+    private void search(double[] point, int lo, int hi, int axis, Neighbours best) {
+        if (lo >= hi) return;
+        int mid = (lo + hi) >>> 1;
+        int node = tree[mid];
+        double dx = graph.x(node) - point[0];
+        double dy = graph.y(node) - point[1];
+        double dz = graph.z(node) - point[2];
+        best.offer(node, dx * dx + dy * dy + dz * dz);
+
+        int next = axis + 1 == dimensions ? 0 : axis + 1;
+        double delta = point[axis] - coordinate(graph, node, axis);
+        if (delta < 0) {
+            search(point, lo, mid, next, best);
+            if (delta * delta < best.worst()) search(point, mid + 1, hi, next, best);
+        } else {
+            search(point, mid + 1, hi, next, best);
+            if (delta * delta < best.worst()) search(point, lo, mid, next, best);
+        }
+    }
+
+    // Bounded list of the closest nodes seen so far, kept sorted by squared distance.
+    private static final class Neighbours {
+        final int[] nodes;
+        final double[] distances;
+        int size;
+
+        Neighbours(int capacity) {
+            nodes = new int[capacity];
+            distances = new double[capacity];
+        }
+
+        double worst() {
+            return size < nodes.length ? Double.POSITIVE_INFINITY : distances[size - 1];
+        }
+
+        void offer(int node, double distance) {
+            if (distance >= worst()) return;
+            int i = size < nodes.length ? size++ : size - 1;
+            while (i > 0 && distances[i - 1] > distance) {
+                nodes[i] = nodes[i - 1];
+                distances[i] = distances[i - 1];
+                i--;
+            }
+            nodes[i] = node;
+            distances[i] = distance;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.lymph.Walmart_Application.service;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+/**
+ * Shortest-path costs between every pair of route stops, computed with one single-source
+ * Dijkstra per stop. The predecessor tree of each search is kept so the legs of the final
+ * route can be rebuilt without searching again.
+ */
+public final class StopDistanceMatrix {
+
+    private static final int[] NO_PATH = new int[0];
+
+    private final int[] stops;
+    private final double[][] costs;
+    private final int[][] predecessors;
+    private final long expansions;
+    private final int maxHeapSize;
+
+    private StopDistanceMatrix(int[] stops, double[][] costs, int[][] predecessors, long expansions, int maxHeapSize) {
+        this.stops = stops;
+        this.costs = costs;
+        this.predecessors = predecessors;
+        this.expansions = expansions;
+        this.maxHeapSize = maxHeapSize;
+    }
+
+    /**
+     * Runs the per-stop searches in parallel on the caller's fork-join pool, which is
+     * routingComputeExecutor for routes admitted through {@link RouteAdmission}.
+     * @param stops graph node indices; duplicates are allowed and cost zero between each other.
+     */
+    public static StopDistanceMatrix compute(PathSearchEngine engine, NavigationGraph.Snapshot graph, int[] stops) {
+        int k = stops.length;
+        double[][] costs = new double[k][k];
+        int[][] predecessors = new int[k][];
+        LongAdder expansions = new LongAdder();
+        AtomicInteger maxHeapSize = new AtomicInteger();
+        IntStream.range(0, k).parallel().forEach(i -> {
+            predecessors[i] = new int[graph.size()];
+            engine.shortestPathTree(graph, stops[i], stops, costs[i], predecessors[i]);
+            expansions.add(engine.lastExpansions());
+            maxHeapSize.accumulateAndGet(engine.lastMaxHeapSize(), Math::max);
+        });
+        return new StopDistanceMatrix(stops.clone(), costs, predecessors, expansions.sum(), maxHeapSize.get());
+    }
+
+    public int size() { return stops.length; }
+    public long expansions() { return expansions; }
+    public int maxHeapSize() { return maxHeapSize; }
+    public int stop(int i) { return stops[i]; }
+
+    /**
+     * @return the shortest-path length from stop i to stop j, or infinity if j is unreachable from i.
+     */
+    public double cost(int i, int j) { return costs[i][j]; }
+
+    /**
+     * Rebuilds the node path from stop i to stop j out of i's predecessor tree.
+     * @return node indices from stops[i] to stops[j] inclusive, or an empty array if unreachable.
+     */
+    public int[] leg(int i, int j) {
+        if (costs[i][j] == Double.POSITIVE_INFINITY) return NO_PATH;
+        int[] parent = predecessors[i];
+        int length = 0;
+        for (int v = stops[j]; v >= 0; v = parent[v]) length++;
+        int[] path = new int[length];
+        for (int v = stops[j], p = length - 1; v >= 0; v = parent[v], p--) path[p] = v;
+        return path;
+    }
+}
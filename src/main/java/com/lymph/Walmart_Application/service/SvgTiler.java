@@ -0,0 +1,633 @@
+package com.lymph.Walmart_Application.service;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Splits an SVG floor plan into square vector tiles. The document is read once with StAX: shared
+ * definitions (defs, styles, gradients, clip paths) are copied into every tile, and every drawable
+ * element is kept as markup together with its enclosing groups and its bounding box in viewBox
+ * coordinates. A tile only contains the elements that overlap it and that are at least
+ * minFeaturePixels across at its zoom, so low zoom levels drop detail nobody could see.
+ * Elements whose extent cannot be worked out, such as &lt;use&gt;, go into every tile. Editor-only
+ * markup (metadata, Inkscape and Sodipodi attributes) is left out.
+ * <p>
+ * Tiles are served from our own origin, so anything that could run script is dropped at any depth:
+ * script and foreignObject elements, elements outside the SVG namespace, event handler (on*)
+ * attributes, animations that set those, and links other than fragments and data: images.
+ */
+public final class SvgTiler {
+
+    public static final int TILE_SIZE = 256;
+
+    private static final String SVG_NS = "http://www.w3.org/2000/svg";
+    private static final Set<String> SHARED = Set.of("defs", "style", "clipPath", "mask", "linearGradient",
+            "radialGradient", "pattern", "marker", "symbol", "filter");
+    private static final Set<String> CONTAINERS = Set.of("g", "a", "switch");
+    private static final Set<String> DROPPED = Set.of("metadata", "title", "desc");
+    private static final Set<String> UNSAFE = Set.of("script", "foreignObject");
+    private static final Set<String> ANIMATIONS = Set.of("set", "animate");
+    private static final Set<String> EDITOR_NAMESPACES = Set.of("http://www.inkscape.org/namespaces/inkscape",
+            "http://sodipodi.sourceforge.net/DTD/sodipodi-0.dtd");
+    private static final double[] IDENTITY = {1, 0, 0, 1, 0, 0};
+    private static final Pattern TRANSFORM = Pattern.compile("(matrix|translate|scale|rotate|skewX|skewY)\\s*\\(([^)]*)\\)");
+    private static final Pattern PATH_TOKEN = Pattern.compile("[MmLlHhVvCcSsQqTtAaZz]|[-+]?(?:\\d+\\.?\\d*|\\.\\d+)(?:[eE][-+]?\\d+)?");
+    private static final Pattern NUMBER = Pattern.compile("[-+]?(?:\\d+\\.?\\d*|\\.\\d+)(?:[eE][-+]?\\d+)?");
+    private static final Pattern STROKE_WIDTH = Pattern.compile("stroke-width\\s*:\\s*([-+.\\deE]+)");
+    private static final Pattern FONT_SIZE = Pattern.compile("font-size\\s*:\\s*([-+.\\deE]+)");
+
+    private record Group(String startTag, String endTag) {}
+
+    /**
+     * @param box minX, minY, maxX, maxY in viewBox coordinates, or null if unknown
+     */
+    private record Item(List<Group> groups, String markup, double[] box) {}
+
+    private final String namespaces;
+    private final double minX;
+    private final double minY;
+    private final double viewWidth;
+    private final double viewHeight;
+    private final double width;
+    private final double height;
+    private final String shared;
+    private final List<Item> items;
+
+    private SvgTiler(String namespaces, double[] viewBox, double width, double height, String shared, List<Item> items) {
+        this.namespaces = namespaces;
+        this.minX = viewBox[0];
+        this.minY = viewBox[1];
+        this.viewWidth = viewBox[2];
+        this.viewHeight = viewBox[3];
+        this.width = width;
+        this.height = height;
+        this.shared = shared;
+        this.items = items;
+    }
+
+    /**
+     * Reads an SVG document. DTDs and external entities are refused.
+     * @throws IllegalArgumentException if the input is not a well-formed SVG document with a size
+     */
+    public static SvgTiler parse(InputStream in) {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        try {
+            XMLStreamReader reader = factory.createXMLStreamReader(in);
+            try {
+                return parse(reader);
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IllegalArgumentException("Not a well-formed SVG document: " + e.getMessage(), e);
+        }
+    }
+
+    private static SvgTiler parse(XMLStreamReader reader) throws XMLStreamException {
+        while (reader.hasNext() && reader.next() != XMLStreamConstants.START_ELEMENT) {
+            // prolog
+        }
+        if (!reader.isStartElement() || !"svg".equals(reader.getLocalName()) || !isSvg(reader.getNamespaceURI())) {
+            throw new IllegalArgumentException("The document root is not an <svg> element.");
+        }
+
+        StringBuilder namespaces = new StringBuilder();
+        boolean defaultNamespace = false;
+        for (int i = 0; i < reader.getNamespaceCount(); i++) {
+            String prefix = reader.getNamespacePrefix(i);
+            if (prefix == null || prefix.isEmpty()) defaultNamespace = true;
+            appendNamespace(namespaces, prefix, reader.getNamespaceURI(i));
+        }
+        if (!defaultNamespace) appendNamespace(namespaces, null, SVG_NS);
+
+        double width = length(reader.getAttributeValue(null, "width"));
+        double height = length(reader.getAttributeValue(null, "height"));
+        double[] viewBox = numbers(reader.getAttributeValue(null, "viewBox"));
+        if (viewBox.length != 4) viewBox = new double[] {0, 0, width, height};
+        if (!(viewBox[2] > 0) || !(viewBox[3] > 0)) {
+            throw new IllegalArgumentException("The <svg> element needs a viewBox or a width and height.");
+        }
+        if (!(width > 0) || !(height > 0)) {
+            width = viewBox[2];
+            height = viewBox[3];
+        }
+
+        StringBuilder shared = new StringBuilder();
+        List<Item> items = new ArrayList<>();
+        List<Group> groups = new ArrayList<>();
+        Deque<double[]> transforms = new ArrayDeque<>();
+        transforms.push(IDENTITY);
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.END_ELEMENT) {
+                if (groups.isEmpty()) break; // end of the root
+                groups.remove(groups.size() - 1);
+                transforms.pop();
+                continue;
+            }
+            if (event != XMLStreamConstants.START_ELEMENT) continue;
+
+            String name = reader.getLocalName();
+            if (unsafe(reader) || DROPPED.contains(name)) {
+                skip(reader);
+                continue;
+            }
+            if (SHARED.contains(name)) {
+                shared.append(capture(reader, null));
+                continue;
+            }
+            double[] transform = multiply(transforms.peek(), transform(reader.getAttributeValue(null, "transform")));
+            if (CONTAINERS.contains(name)) {
+                groups.add(new Group(startTag(reader), "</" + qualifiedName(reader) + ">"));
+                transforms.push(transform);
+                continue;
+            }
+
+            double stroke = strokeWidth(reader);
+            double[] box = "text".equals(name) ? null : localBox(reader, name);
+            TextExtent text = "text".equals(name) ? new TextExtent() : null;
+            String markup = capture(reader, text);
+            if (text != null) box = text.box();
+            items.add(new Item(List.copyOf(groups), markup, box == null ? null : transformBox(transform, box, stroke)));
+        }
+        return new SvgTiler(namespaces.toString(), viewBox, width, height, shared.toString(), items);
+    }
+
+    public double minX() { return minX; }
+    public double minY() { return minY; }
+    public double viewWidth() { return viewWidth; }
+    public double viewHeight() { return viewHeight; }
+    public double width() { return width; }
+    public double height() { return height; }
+    public int elementCount() { return items.size(); }
+
+    /**
+     * @return the side of the square the tile pyramid covers, in viewBox units.
+     */
+    public double side() { return Math.max(viewWidth, viewHeight); }
+
+    /**
+     * Scale from viewBox units to the document's width and height, as the default
+     * preserveAspectRatio (xMidYMid meet) renders it.
+     */
+    public double scale() { return Math.min(width / viewWidth, height / viewHeight); }
+    public double offsetX() { return (width - viewWidth * scale()) / 2; }
+    public double offsetY() { return (height - viewHeight * scale()) / 2; }
+
+    /**
+     * Renders every non-empty tile of zoom levels 0 to maxZoom. Level z splits the square of
+     * {@link #side()} into 2^z by 2^z tiles of {@link #TILE_SIZE} pixels.
+     * @return tile markup keyed by "z/x/y"
+     */
+    public Map<String, String> tiles(int maxZoom, double minFeaturePixels) {
+        Map<String, String> tiles = new LinkedHashMap<>();
+        for (int z = 0; z <= maxZoom; z++) {
+            int count = 1 << z;
+            double size = side() / count;
+            double minFeature = size / TILE_SIZE * minFeaturePixels;
+            List<List<Item>> buckets = new ArrayList<>(count * count);
+            for (int i = 0; i < count * count; i++) buckets.add(new ArrayList<>());
+            for (Item item : items) {
+                if (item.box() == null) {
+                    buckets.forEach(bucket -> bucket.add(item));
+                    continue;
+                }
+                double[] box = item.box();
+                if (Math.max(box[2] - box[0], box[3] - box[1]) < minFeature) continue;
+                int x0 = clamp((int) Math.floor((box[0] - minX) / size), count);
+                int x1 = clamp((int) Math.floor((box[2] - minX) / size), count);
+                int y0 = clamp((int) Math.floor((box[1] - minY) / size), count);
+                int y1 = clamp((int) Math.floor((box[3] - minY) / size), count);
+                if (box[2] < minX || box[3] < minY || box[0] > minX + side() || box[1] > minY + side()) continue;
+                for (int y = y0; y <= y1; y++) {
+                    for (int x = x0; x <= x1; x++) buckets.get(y * count + x).add(item);
+                }
+            }
+            for (int y = 0; y < count; y++) {
+                for (int x = 0; x < count; x++) {
+                    List<Item> bucket = buckets.get(y * count + x);
+                    if (bucket.isEmpty()) continue;
+                    tiles.put(z + "/" + x + "/" + y,
+                            render(minX + x * size, minY + y * size, size, size, TILE_SIZE, TILE_SIZE, bucket));
+                }
+            }
+        }
+        return tiles;
+    }
+
+    /**
+     * Renders the whole plan for display about pixels wide, without elements smaller than
+     * minFeaturePixels at that size.
+     */
+    public String overview(int pixels, double minFeaturePixels) {
+        double minFeature = viewWidth / pixels * minFeaturePixels;
+        List<Item> kept = new ArrayList<>();
+        for (Item item : items) {
+            double[] box = item.box();
+            if (box == null || Math.max(box[2] - box[0], box[3] - box[1]) >= minFeature) kept.add(item);
+        }
+        return render(minX, minY, viewWidth, viewHeight, pixels, Math.round(pixels * viewHeight / viewWidth), kept);
+    }
+
+    private String render(double x, double y, double w, double h, double pixelWidth, double pixelHeight, List<Item> items) {
+        StringBuilder out = new StringBuilder(shared.length() + items.size() * 128);
+        out.append("<svg").append(namespaces)
+                .append(" width=\"").append(format(pixelWidth)).append("\" height=\"").append(format(pixelHeight))
+                .append("\" viewBox=\"").append(format(x)).append(' ').append(format(y)).append(' ')
+                .append(format(w)).append(' ').append(format(h)).append("\">");
+        out.append(shared);
+        List<Group> open = new ArrayList<>();
+        for (Item item : items) {
+            List<Group> groups = item.groups();
+            int common = 0;
+            while (common < open.size() && common < groups.size() && open.get(common) == groups.get(common)) common++;
+            for (int i = open.size() - 1; i >= common; i--) out.append(open.remove(i).endTag());
+            for (int i = common; i < groups.size(); i++) {
+                out.append(groups.get(i).startTag());
+                open.add(groups.get(i));
+            }
+            out.append(item.markup());
+        }
+        for (int i = open.size() - 1; i >= 0; i--) out.append(open.get(i).endTag());
+        return out.append("</svg>").toString();
+    }
+
+    private static int clamp(int tile, int count) {
+        return Math.max(0, Math.min(count - 1, tile));
+    }
+
+    private static boolean isSvg(String namespace) {
+        return namespace == null || namespace.isEmpty() || SVG_NS.equals(namespace);
+    }
+
+    // Elements that could run script in a browser that opens a tile on its own.
+    private static boolean unsafe(XMLStreamReader reader) {
+        String name = reader.getLocalName();
+        if (!isSvg(reader.getNamespaceURI()) || UNSAFE.contains(name)) return true;
+        if (!ANIMATIONS.contains(name)) return false;
+        String target = reader.getAttributeValue(null, "attributeName");
+        return target != null && unsafeAttribute(target.substring(target.indexOf(':') + 1), null);
+    }
+
+    // Event handlers, and links that are neither fragments nor data: images; value null for any value.
+    private static boolean unsafeAttribute(String localName, String value) {
+        String name = localName.toLowerCase(Locale.ROOT);
+        if (name.startsWith("on")) return true;
+        if (!name.equals("href")) return false;
+        if (value == null) return true;
+        String link = value.strip().toLowerCase(Locale.ROOT);
+        return !link.startsWith("#") && !link.startsWith("data:image/");
+    }
+
+    // Reader on a start element; consumes its whole subtree.
+    private static void skip(XMLStreamReader reader) throws XMLStreamException {
+        for (int depth = 1; depth > 0; ) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) depth++;
+            else if (event == XMLStreamConstants.END_ELEMENT) depth--;
+        }
+    }
+
+    // Reader on a start element; serialises its whole subtree, leaving out comments, processing instructions
+    // and unsafe elements.
+    private static String capture(XMLStreamReader reader, TextExtent text) throws XMLStreamException {
+        StringBuilder out = new StringBuilder();
+        out.append(startTag(reader));
+        if (text != null) text.element(reader);
+        Deque<String> names = new ArrayDeque<>();
+        names.push(qualifiedName(reader));
+        while (!names.isEmpty()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                if (unsafe(reader)) {
+                    skip(reader);
+                    continue;
+                }
+                out.append(startTag(reader));
+                if (text != null) text.element(reader);
+                names.push(qualifiedName(reader));
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                out.append("</").append(names.pop()).append('>');
+            } else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA
+                    || event == XMLStreamConstants.SPACE) {
+                String characters = reader.getText();
+                if (text != null) text.characters(characters);
+                escape(out, characters);
+            }
+        }
+        return out.toString();
+    }
+
+    private static String startTag(XMLStreamReader reader) {
+        StringBuilder out = new StringBuilder("<").append(qualifiedName(reader));
+        for (int i = 0; i < reader.getNamespaceCount(); i++) {
+            appendNamespace(out, reader.getNamespacePrefix(i), reader.getNamespaceURI(i));
+        }
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            String namespace = reader.getAttributeNamespace(i);
+            if (namespace != null && EDITOR_NAMESPACES.contains(namespace)) continue;
+            if (unsafeAttribute(reader.getAttributeLocalName(i), reader.getAttributeValue(i))) continue;
+            String prefix = reader.getAttributePrefix(i);
+            out.append(' ');
+            if (prefix != null && !prefix.isEmpty()) out.append(prefix).append(':');
+            out.append(reader.getAttributeLocalName(i)).append("=\"");
+            escape(out, reader.getAttributeValue(i));
+            out.append('"');
+        }
+        return out.append('>').toString();
+    }
+
+    private static String qualifiedName(XMLStreamReader reader) {
+        String prefix = reader.getPrefix();
+        return prefix == null || prefix.isEmpty() ? reader.getLocalName() : prefix + ":" + reader.getLocalName();
+    }
+
+    private static void appendNamespace(StringBuilder out, String prefix, String uri) {
+        out.append(prefix == null || prefix.isEmpty() ? " xmlns" : " xmlns:" + prefix).append("=\"");
+        escape(out, uri);
+        out.append('"');
+    }
+
+    private static void escape(StringBuilder out, String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '&' -> out.append("&amp;");
+                case '"' -> out.append("&quot;");
+                default -> out.append(c);
+            }
+        }
+    }
+
+    // Bounding box of a basic shape in its own coordinates, or null if it cannot be determined.
+    private static double[] localBox(XMLStreamReader reader, String name) {
+        double[] box = switch (name) {
+            case "rect", "image" -> {
+                double x = length(attribute(reader, "x", "0"));
+                double y = length(attribute(reader, "y", "0"));
+                yield new double[] {x, y, x + length(reader.getAttributeValue(null, "width")),
+                        y + length(reader.getAttributeValue(null, "height"))};
+            }
+            case "circle" -> {
+                double r = length(reader.getAttributeValue(null, "r"));
+                double cx = length(attribute(reader, "cx", "0"));
+                double cy = length(attribute(reader, "cy", "0"));
+                yield new double[] {cx - r, cy - r, cx + r, cy + r};
+            }
+            case "ellipse" -> {
+                double rx = length(reader.getAttributeValue(null, "rx"));
+                double ry = length(reader.getAttributeValue(null, "ry"));
+                double cx = length(attribute(reader, "cx", "0"));
+                double cy = length(attribute(reader, "cy", "0"));
+                yield new double[] {cx - rx, cy - ry, cx + rx, cy + ry};
+            }
+            case "line" -> {
+                double x1 = length(attribute(reader, "x1", "0"));
+                double y1 = length(attribute(reader, "y1", "0"));
+                double x2 = length(attribute(reader, "x2", "0"));
+                double y2 = length(attribute(reader, "y2", "0"));
+                yield new double[] {Math.min(x1, x2), Math.min(y1, y2), Math.max(x1, x2), Math.max(y1, y2)};
+            }
+            case "polyline", "polygon" -> pointsBox(numbers(reader.getAttributeValue(null, "points")));
+            case "path" -> pathBox(reader.getAttributeValue(null, "d"));
+            default -> null;
+        };
+        if (box == null) return null;
+        for (double v : box) {
+            if (Double.isNaN(v) || Double.isInfinite(v)) return null;
+        }
+        return box;
+    }
+
+    private static String attribute(XMLStreamReader reader, String name, String fallback) {
+        String value = reader.getAttributeValue(null, name);
+        return value == null ? fallback : value;
+    }
+
+    private static double[] pointsBox(double[] points) {
+        if (points.length < 2) return null;
+        double[] box = {Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY};
+        for (int i = 0; i + 1 < points.length; i += 2) include(box, points[i], points[i + 1]);
+        return box;
+    }
+
+    /**
+     * Bounding box of path data including its control points, which contains the curve itself.
+     * Arcs are bounded by their endpoints widened by the larger radius.
+     */
+    static double[] pathBox(String d) {
+        if (d == null) return null;
+        List<String> tokens = new ArrayList<>();
+        Matcher matcher = PATH_TOKEN.matcher(d);
+        while (matcher.find()) tokens.add(matcher.group());
+
+        double[] box = {Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY};
+        double x = 0;
+        double y = 0;
+        double startX = 0;
+        double startY = 0;
+        char command = 'M';
+        int i = 0;
+        while (i < tokens.size()) {
+            String token = tokens.get(i);
+            if (Character.isLetter(token.charAt(0))) {
+                command = token.charAt(0);
+                i++;
+                if (command == 'Z' || command == 'z') {
+                    x = startX;
+                    y = startY;
+                    continue;
+                }
+            }
+            boolean relative = Character.isLowerCase(command);
+            double baseX = relative ? x : 0;
+            double baseY = relative ? y : 0;
+            int arity = switch (Character.toUpperCase(command)) {
+                case 'H', 'V' -> 1;
+                case 'M', 'L', 'T' -> 2;
+                case 'S', 'Q' -> 4;
+                case 'C' -> 6;
+                case 'A' -> 7;
+                default -> -1;
+            };
+            if (arity < 0 || i + arity > tokens.size()) break;
+            double[] args = new double[arity];
+            for (int a = 0; a < arity; a++) {
+                String value = tokens.get(i + a);
+                if (Character.isLetter(value.charAt(0))) return box[0] <= box[2] ? box : null;
+                args[a] = Double.parseDouble(value);
+            }
+            i += arity;
+            switch (Character.toUpperCase(command)) {
+                case 'H' -> x = baseX + args[0];
+                case 'V' -> y = baseY + args[0];
+                case 'A' -> {
+                    double r = Math.max(Math.abs(args[0]), Math.abs(args[1]));
+                    include(box, x - r, y - r);
+                    include(box, x + r, y + r);
+                    x = baseX + args[5];
+                    y = baseY + args[6];
+                    include(box, x - r, y - r);
+                    include(box, x + r, y + r);
+                }
+                default -> {
+                    for (int a = 0; a + 1 < arity; a += 2) include(box, baseX + args[a], baseY + args[a + 1]);
+                    x = baseX + args[arity - 2];
+                    y = baseY + args[arity - 1];
+                }
+            }
+            include(box, x, y);
+            if (command == 'M' || command == 'm') {
+                startX = x;
+                startY = y;
+                command = command == 'M' ? 'L' : 'l'; // further pairs after a move are lines
+            }
+        }
+        return box[0] <= box[2] ? box : null;
+    }
+
+    private static void include(double[] box, double x, double y) {
+        box[0] = Math.min(box[0], x);
+        box[1] = Math.min(box[1], y);
+        box[2] = Math.max(box[2], x);
+        box[3] = Math.max(box[3], y);
+    }
+
+    // Corners of the box through the transform, widened by half the stroke width on every side.
+    private static double[] transformBox(double[] m, double[] box, double stroke) {
+        double pad = stroke / 2;
+        double[] out = {Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY};
+        double[][] corners = {{box[0] - pad, box[1] - pad}, {box[2] + pad, box[1] - pad},
+                {box[0] - pad, box[3] + pad}, {box[2] + pad, box[3] + pad}};
+        for (double[] corner : corners) {
+            include(out, m[0] * corner[0] + m[2] * corner[1] + m[4], m[1] * corner[0] + m[3] * corner[1] + m[5]);
+        }
+        return out;
+    }
+
+    private static double strokeWidth(XMLStreamReader reader) {
+        String style = reader.getAttributeValue(null, "style");
+        if (style != null) {
+            Matcher matcher = STROKE_WIDTH.matcher(style);
+            if (matcher.find()) return Math.max(0, length(matcher.group(1)));
+        }
+        double width = length(reader.getAttributeValue(null, "stroke-width"));
+        return Double.isNaN(width) ? 1 : Math.max(0, width);
+    }
+
+    /**
+     * Parses a transform attribute into an affine matrix {a, b, c, d, e, f}, mapping (x, y) to
+     * (a x + c y + e, b x + d y + f).
+     */
+    static double[] transform(String attribute) {
+        double[] m = IDENTITY;
+        if (attribute == null) return m;
+        Matcher matcher = TRANSFORM.matcher(attribute);
+        while (matcher.find()) {
+            double[] v = numbers(matcher.group(2));
+            double[] next = switch (matcher.group(1)) {
+                case "matrix" -> v.length == 6 ? v : IDENTITY;
+                case "translate" -> v.length == 0 ? IDENTITY : new double[] {1, 0, 0, 1, v[0], v.length > 1 ? v[1] : 0};
+                case "scale" -> v.length == 0 ? IDENTITY : new double[] {v[0], 0, 0, v.length > 1 ? v[1] : v[0], 0, 0};
+                case "rotate" -> {
+                    if (v.length == 0) yield IDENTITY;
+                    double angle = Math.toRadians(v[0]);
+                    double[] rotation = {Math.cos(angle), Math.sin(angle), -Math.sin(angle), Math.cos(angle), 0, 0};
+                    if (v.length < 3) yield rotation;
+                    yield multiply(multiply(new double[] {1, 0, 0, 1, v[1], v[2]}, rotation),
+                            new double[] {1, 0, 0, 1, -v[1], -v[2]});
+                }
+                case "skewX" -> v.length == 0 ? IDENTITY : new double[] {1, 0, Math.tan(Math.toRadians(v[0])), 1, 0, 0};
+                default -> v.length == 0 ? IDENTITY : new double[] {1, Math.tan(Math.toRadians(v[0])), 0, 1, 0, 0};
+            };
+            m = multiply(m, next);
+        }
+        return m;
+    }
+
+    // p applied after q.
+    private static double[] multiply(double[] p, double[] q) {
+        return new double[] {
+                p[0] * q[0] + p[2] * q[1],
+                p[1] * q[0] + p[3] * q[1],
+                p[0] * q[2] + p[2] * q[3],
+                p[1] * q[2] + p[3] * q[3],
+                p[0] * q[4] + p[2] * q[5] + p[4],
+                p[1] * q[4] + p[3] * q[5] + p[5]};
+    }
+
+    private static double[] numbers(String text) {
+        if (text == null) return new double[0];
+        List<Double> values = new ArrayList<>();
+        Matcher matcher = NUMBER.matcher(text);
+        while (matcher.find()) values.add(Double.parseDouble(matcher.group()));
+        return values.stream().mapToDouble(Double::doubleValue).toArray();
+    }
+
+    // A length in user units; "px" is accepted, relative units and percentages are not.
+    private static double length(String value) {
+        if (value == null) return Double.NaN;
+        String trimmed = value.trim();
+        if (trimmed.endsWith("px")) trimmed = trimmed.substring(0, trimmed.length() - 2);
+        try {
+            return Double.parseDouble(trimmed);
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    private static String format(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) return Long.toString((long) value);
+        return Double.toString(value);
+    }
+
+    /**
+     * Approximate extent of a text element: from the first x/y position, about 0.6 em per character
+     * to the right and one em above the baseline.
+     */
+    private static final class TextExtent {
+        private double x = Double.NaN;
+        private double y = Double.NaN;
+        private double fontSize = 16;
+        private int characters;
+
+        void element(XMLStreamReader reader) {
+            double[] xs = numbers(reader.getAttributeValue(null, "x"));
+            double[] ys = numbers(reader.getAttributeValue(null, "y"));
+            if (Double.isNaN(x) && xs.length > 0) x = xs[0];
+            if (Double.isNaN(y) && ys.length > 0) y = ys[0];
+            String style = reader.getAttributeValue(null, "style");
+            Matcher matcher = style == null ? null : FONT_SIZE.matcher(style);
+            if (matcher != null && matcher.find()) fontSize = Math.max(fontSize, length(matcher.group(1)));
+            double attribute = length(reader.getAttributeValue(null, "font-size"));
+            if (attribute > 0) fontSize = Math.max(fontSize, attribute);
+        }
+
+        void characters(String text) {
+            characters += text.strip().length();
+        }
+
+        double[] box() {
+            if (Double.isNaN(x) || Double.isNaN(y)) return null;
+            return new double[] {x, y - fontSize, x + Math.max(1, characters) * fontSize * 0.6, y + fontSize * 0.3};
+        }
+    }
+}
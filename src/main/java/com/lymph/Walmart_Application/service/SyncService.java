@@ -0,0 +1,135 @@
+package com.lymph.Walmart_Application.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Read side of delta sync for products and waypoints: version validators, key-ordered cursor
+ * pages, streamed full listings and change sets since a version issued by {@link ChangeTracker}.
+ */
+@Service
+public class SyncService {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    @Autowired
+    private ChangeTracker changeTracker;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${sync.max-page-size:1000}")
+    private int maxPageSize;
+
+    private final Set<String> indexedCollections = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param nextCursor key to pass as cursor for the following page, or null on the last page.
+     */
+    public record Page<T>(List<T> items, String nextCursor) {}
+
+    /**
+     * @return the collection's current sync version, usable as a validator for any listing of it.
+     */
+    public long version(Class<?> type) {
+        return changeTracker.watermark(type);
+    }
+
+    /**
+     * Returns up to limit documents ordered by key, starting after the cursor key.
+     * @param storeId only list documents of this store; null for every store
+     */
+    public <T> Page<T> page(Class<T> type, String storeId, String keyField, Function<T, String> key,
+                            String cursor, int limit) {
+        ensureIndexes(type, keyField);
+        int size = Math.max(1, Math.min(limit, maxPageSize));
+        Query query = byStore(storeId);
+        if (cursor != null && !cursor.isEmpty()) query.addCriteria(Criteria.where(keyField).gt(cursor));
+        query.with(Sort.by(keyField)).limit(size + 1);
+        List<T> items = mongoTemplate.find(query, type);
+        if (items.size() <= size) return new Page<>(items, null);
+        items = new ArrayList<>(items.subList(0, size));
+        return new Page<>(items, key.apply(items.get(size - 1)));
+    }
+
+    /**
+     * Writes every document of the collection as one JSON array, reading from a Mongo cursor
+     * instead of materialising the whole list.
+     */
+    public void writeAll(Class<?> type, String storeId, OutputStream out) throws IOException {
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+             Stream<?> documents = mongoTemplate.stream(byStore(storeId), type)) {
+            json.writeStartArray();
+            for (Iterator<?> it = documents.iterator(); it.hasNext(); ) {
+                json.writeObject(it.next());
+            }
+            json.writeEndArray();
+        }
+    }
+
+    private static Query byStore(String storeId) {
+        return storeId == null ? new Query() : Query.query(NavigationGraph.inStore(storeId));
+    }
+
+    /**
+     * Lists the keys written and deleted after since, up to the current sync version. A key that was
+     * deleted and then written again is reported as upserted only.
+     */
+    public ChangeSet changesSince(Class<?> type, String keyField, long since) {
+        ensureIndexes(type, keyField);
+        long version = version(type);
+        String collection = mongoTemplate.getCollectionName(type);
+        if (since >= version) return new ChangeSet(since, version, List.of(), List.of());
+
+        Set<String> upserted = new LinkedHashSet<>();
+        Query changed = Query.query(Criteria.where("version").gt(since).lte(version));
+        changed.fields().include(keyField);
+        try (Stream<Document> documents = mongoTemplate.stream(changed, Document.class, collection)) {
+            documents.forEach(document -> upserted.add(String.valueOf(document.get(keyField))));
+        }
+
+        Set<String> deleted = new LinkedHashSet<>();
+        Query removed = Query.query(Criteria.where("collection").is(collection).and("version").gt(since).lte(version));
+        removed.fields().include("key");
+        try (Stream<Document> tombstones = mongoTemplate.stream(removed, Document.class, ChangeTracker.TOMBSTONES)) {
+            tombstones.forEach(tombstone -> {
+                String key = tombstone.getString("key");
+                if (!upserted.contains(key)) deleted.add(key);
+            });
+        }
+        return new ChangeSet(since, version, new ArrayList<>(upserted), new ArrayList<>(deleted));
+    }
+
+    // Created on first use rather than at startup, so the application can start without Mongo.
+    private void ensureIndexes(Class<?> type, String keyField) {
+        String collection = mongoTemplate.getCollectionName(type);
+        if (indexedCollections.contains(collection)) return;
+        mongoTemplate.indexOps(collection).createIndex(new Index().on("version", Sort.Direction.ASC));
+        if (!"_id".equals(keyField)) {
+            mongoTemplate.indexOps(collection).createIndex(new Index().on(keyField, Sort.Direction.ASC));
+        }
+        mongoTemplate.indexOps(ChangeTracker.TOMBSTONES).createIndex(
+                new Index().on("collection", Sort.Direction.ASC).on("version", Sort.Direction.ASC));
+        indexedCollections.add(collection);
+    }
+}
@@ -0,0 +1,18 @@
+package com.lymph.Walmart_Application.service;
+
+/**
+ * Decides the order in which route stops are visited, given their pairwise costs.
+ * Stop 0 of the matrix is always the fixed start of the tour.
+ */
+public interface TourStrategy {
+
+    /**
+     * @param matrix        pairwise costs between stops
+     * @param end           index of the stop that must come last, or -1 for an open tour
+     * @param deadlineNanos {@link System#nanoTime()} value after which the strategy must return
+     *                      the best tour found so far
+     * @return stop indices in visiting order, starting with 0 and ending with end when given.
+     *         Stops that cannot be reached are left out.
+     */
+    int[] order(StopDistanceMatrix matrix, int end, long deadlineNanos);
+}
@@ -0,0 +1,34 @@
+package com.lymph.Walmart_Application.service;
+
+import com.lymph.Walmart_Application.entity.Location;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result of wave planning: one picker tour per batch of orders, the total walking distance of
+ * those tours, and the distance the same orders would take when each is routed on its own.
+ */
+@Data
+@NoArgsConstructor
+public class WavePlan {
+    private List<Batch> batches = new ArrayList<>();
+    private double totalLength;
+    private double separateLength;
+    private double savedLength;
+
+    @Data
+    @NoArgsConstructor
+    public static class Batch {
+        private int index;
+        private List<String> orderIds = new ArrayList<>();
+        private int items;
+        private int totes;
+        private List<Location> path;
+        private double length;
+        private List<String> unreachableSkus;
+        private String error;
+    }
+}
@@ -0,0 +1,186 @@
+package com.lymph.Walmart_Application.service;
+
+import com.lymph.Walmart_Application.entity.Location;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Plans pick waves: groups online orders into picker batches by where their products are, then
+ * routes every batch as one tour from the entrance to the checkout.
+ * <p>
+ * Batches are built with the seed heuristic common in order picking: the unbatched order farthest
+ * from the entrance starts a batch, which then takes the unbatched order closest to its centroid
+ * that still fits the picker's capacity, until none does. Order positions are the centroids of
+ * their products' waypoints, so orders picked from the same aisles end up together.
+ */
+@Service
+public class WavePlanningService {
+
+    @Autowired
+    private RouteService routeService;
+    @Autowired
+    private ProductWaypointIndex productWaypointIndex;
+    @Autowired
+    private NavigationGraph navigationGraph;
+
+    @Value("${routing.wave.max-orders:500}")
+    private int maxOrders;
+
+    /**
+     * Batches and routes the orders. The batch tours and the one-order-per-tour baseline are solved
+     * together on the compute pool, so the whole wave is admitted or refused at once.
+     * @throws ComputeOverloadedException if the compute queue cannot take the wave
+     */
+    public CompletableFuture<WavePlan> plan(String storeId, WaveRequest request, Long budgetMs, CostMode costMode) {
+        List<WaveRequest.Order> orders = request.getOrders();
+        if (orders == null || orders.isEmpty()) throw new IllegalArgumentException("A wave needs at least one order.");
+        if (orders.size() > maxOrders) {
+            throw new IllegalArgumentException("A wave holds at most " + maxOrders + " orders, got " + orders.size() + ".");
+        }
+        if (request.getMaxItems() == null && request.getMaxTotes() == null) {
+            throw new IllegalArgumentException("Either maxItems or maxTotes must be set.");
+        }
+        for (WaveRequest.Order order : orders) {
+            if (order == null || order.getSkus() == null) throw new IllegalArgumentException("Orders must list their SKUs.");
+        }
+
+        Set<String> skus = new HashSet<>();
+        orders.forEach(order -> skus.addAll(order.getSkus()));
+        Map<String, String> waypointBySku = productWaypointIndex.resolve(storeId, skus);
+        NavigationGraph.Snapshot graph = navigationGraph.snapshot(storeId);
+
+        int n = orders.size();
+        double[][] sums = new double[n][3];
+        int[] points = new int[n];
+        int[] items = new int[n];
+        int[] totes = new int[n];
+        for (int i = 0; i < n; i++) {
+            WaveRequest.Order order = orders.get(i);
+            Set<Integer> nodes = new HashSet<>();
+            for (String sku : order.getSkus()) {
+                int node = graph.indexOf(waypointBySku.get(sku));
+                if (node >= 0) nodes.add(node);
+            }
+            for (int node : nodes) {
+                sums[i][0] += graph.x(node);
+                sums[i][1] += graph.y(node);
+                sums[i][2] += graph.z(node);
+            }
+            points[i] = nodes.size();
+            items[i] = order.getSkus().size();
+            totes[i] = Math.max(1, order.getTotes());
+        }
+        Location entrance = routeService.getSettings(storeId).getEntranceLocation();
+        double[] origin = entrance == null ? new double[3] : new double[] {entrance.getX(), entrance.getY(), entrance.getZ()};
+        List<List<Integer>> batches = batch(sums, points, items, totes, origin,
+                request.getMaxItems() == null ? Integer.MAX_VALUE : request.getMaxItems(),
+                request.getMaxTotes() == null ? Integer.MAX_VALUE : request.getMaxTotes());
+
+        // Batch tours first, then every order on its own for the comparison.
+        List<List<String>> carts = new ArrayList<>(batches.size() + n);
+        for (List<Integer> batch : batches) {
+            Set<String> cart = new LinkedHashSet<>();
+            for (int i : batch) cart.addAll(orders.get(i).getSkus());
+            carts.add(new ArrayList<>(cart));
+        }
+        orders.forEach(order -> carts.add(order.getSkus()));
+
+        return routeService.planRoutes(storeId, carts, budgetMs, costMode).thenApply(results -> {
+            WavePlan plan = new WavePlan();
+            for (int b = 0; b < batches.size(); b++) {
+                BatchRouteResult result = results.get(b);
+                WavePlan.Batch batch = new WavePlan.Batch();
+                batch.setIndex(b);
+                for (int i : batches.get(b)) {
+                    batch.getOrderIds().add(orders.get(i).getId());
+                    batch.setItems(batch.getItems() + items[i]);
+                    batch.setTotes(batch.getTotes() + totes[i]);
+                }
+                batch.setPath(result.getPath());
+                batch.setLength(result.getLength());
+                batch.setUnreachableSkus(result.getUnreachableSkus());
+                batch.setError(result.getError());
+                plan.getBatches().add(batch);
+                plan.setTotalLength(plan.getTotalLength() + result.getLength());
+            }
+            for (int i = 0; i < n; i++) {
+                plan.setSeparateLength(plan.getSeparateLength() + results.get(batches.size() + i).getLength());
+            }
+            plan.setSavedLength(plan.getSeparateLength() - plan.getTotalLength());
+            return plan;
+        });
+    }
+
+    /**
+     * Seed batching over order positions.
+     * @param sums   per order, the summed x, y and z of its distinct waypoints
+     * @param points per order, the number of those waypoints; orders without any sit at the origin
+     * @param origin the entrance, which seeds are chosen farthest from
+     * @return order indices per batch, in the order the batches were built
+     */
+    static List<List<Integer>> batch(double[][] sums, int[] points, int[] items, int[] totes, double[] origin,
+                                     int maxItems, int maxTotes) {
+        int n = points.length;
+        double[][] centroids = new double[n][];
+        for (int i = 0; i < n; i++) {
+            centroids[i] = points[i] == 0 ? origin
+                    : new double[] {sums[i][0] / points[i], sums[i][1] / points[i], sums[i][2] / points[i]};
+        }
+        boolean[] batched = new boolean[n];
+        List<List<Integer>> batches = new ArrayList<>();
+        for (int remaining = n; remaining > 0; ) {
+            int seed = -1;
+            for (int i = 0; i < n; i++) {
+                if (!batched[i] && (seed < 0 || distance(centroids[i], origin) > distance(centroids[seed], origin))) seed = i;
+            }
+            List<Integer> batch = new ArrayList<>();
+            double[] sum = sums[seed].clone();
+            int count = points[seed];
+            int batchItems = items[seed];
+            int batchTotes = totes[seed];
+            batch.add(seed);
+            batched[seed] = true;
+            remaining--;
+
+            while (remaining > 0) {
+                double[] centroid = count == 0 ? origin : new double[] {sum[0] / count, sum[1] / count, sum[2] / count};
+                int next = -1;
+                double best = Double.POSITIVE_INFINITY;
+                for (int i = 0; i < n; i++) {
+                    if (batched[i] || batchItems + items[i] > maxItems || batchTotes + totes[i] > maxTotes) continue;
+                    double d = distance(centroids[i], centroid);
+                    if (d < best) {
+                        best = d;
+                        next = i;
+                    }
+                }
+                if (next < 0) break;
+                batch.add(next);
+                batched[next] = true;
+                remaining--;
+                for (int axis = 0; axis < 3; axis++) sum[axis] += sums[next][axis];
+                count += points[next];
+                batchItems += items[next];
+                batchTotes += totes[next];
+            }
+            batches.add(batch);
+        }
+        return batches;
+    }
+
+    private static double distance(double[] a, double[] b) {
+        double dx = a[0] - b[0];
+        double dy = a[1] - b[1];
+        double dz = a[2] - b[2];
+        return Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+}
@@ -0,0 +1,27 @@
+package com.lymph.Walmart_Application.service;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Orders to pick in one wave and the capacity of a picker. At least one of maxItems and maxTotes
+ * must be set; a batch never exceeds either, except for a single order that is larger on its own.
+ */
+@Data
+@NoArgsConstructor
+public class WaveRequest {
+    private List<Order> orders = new ArrayList<>();
+    private Integer maxItems;
+    private Integer maxTotes;
+
+    @Data
+    @NoArgsConstructor
+    public static class Order {
+        private String id;
+        private List<String> skus = new ArrayList<>(); // one entry per item, so SKUs repeat for quantities
+        private int totes = 1;
+    }
+}
@@ -3,61 +3,212 @@ package com.lymph.Walmart_Application.service;
 import com.lymph.Walmart_Application.entity.Location;
 import com.lymph.Walmart_Application.entity.Waypoint;
 import com.lymph.Walmart_Application.repo.WaypointRepository;
+import com.mongodb.client.result.UpdateResult;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 public class WaypointService {
 
     @Autowired
     private WaypointRepository waypointRepository;
+    @Autowired
+    private NavigationGraph navigationGraph;
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    @Autowired
+    private ChangeTracker changeTracker;
+
+    // Set once the multikey index on connections has been ensured; done lazily so startup needs no Mongo.
+    private volatile boolean connectionsIndexed;
 
     public List<Waypoint> getAllWaypoints() {
         return waypointRepository.findAll();
     }
 
+    /**
+     * @return up to k waypoints of the store ordered by 3D distance from the given point.
+     */
+    public List<Waypoint> findNearestWaypoints(String storeId, Location point, int k) {
+        NavigationGraph.Snapshot graph = navigationGraph.snapshot(storeId);
+        List<Waypoint> nearest = new ArrayList<>();
+        for (int node : graph.spatialIndex().nearest(point.getX(), point.getY(), point.getZ(), k)) {
+            nearest.add(graph.waypoint(node));
+        }
+        return nearest;
+    }
+
+    /**
+     * Snaps each location to its nearest waypoint in one pass over the spatial index.
+     * @return waypoint IDs in input order; null where the location is null or there are no waypoints.
+     */
+    public List<String> snapToWaypoints(String storeId, List<Location> locations) {
+        NavigationGraph.Snapshot graph = navigationGraph.snapshot(storeId);
+        List<String> waypointIds = new ArrayList<>(locations.size());
+        for (Location location : locations) {
+            int nearest = graph.nearestNode(location);
+            waypointIds.add(nearest >= 0 ? graph.id(nearest) : null);
+        }
+        return waypointIds;
+    }
+
     public Waypoint createWaypoint(Waypoint waypoint) {
-        return waypointRepository.save(waypoint);
+        Waypoint saved = changeTracker.stamp(Waypoint.class, version -> {
+            waypoint.setVersion(version);
+            return waypointRepository.save(waypoint);
+        });
+        navigationGraph.reload(saved.getStoreId());
+        return saved;
     }
 
-    @Transactional
+    /**
+     * Connects two waypoints of the same store in both directions. Uses $addToSet on each document, so
+     * concurrent edits to the same waypoint cannot overwrite each other and repeating a connect is harmless.
+     */
     public void addConnection(String waypointId1, String waypointId2) {
         if (waypointId1.equals(waypointId2)) return; // Cannot connect a waypoint to itself
+        Map<String, String> stores = requireExisting(Set.of(waypointId1, waypointId2));
+        requireSameStore(stores, waypointId1, waypointId2);
 
-        Waypoint wp1 = waypointRepository.findById(waypointId1)
-                .orElseThrow(() -> new RuntimeException("Waypoint not found: " + waypointId1));
-        Waypoint wp2 = waypointRepository.findById(waypointId2)
-                .orElseThrow(() -> new RuntimeException("Waypoint not found: " + waypointId2));
+        changeTracker.stamp(Waypoint.class, version -> {
+            BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Waypoint.class);
+            operations.updateOne(byId(waypointId1), new Update().addToSet("connections", waypointId2).set("version", version));
+            operations.updateOne(byId(waypointId2), new Update().addToSet("connections", waypointId1).set("version", version));
+            return operations.execute();
+        });
+        navigationGraph.reload(stores.get(waypointId1));
+    }
 
-        wp1.getConnections().add(waypointId2);
-        wp2.getConnections().add(waypointId1);
+    /**
+     * Removes the connection between two waypoints in both directions with $pull.
+     */
+    public void removeConnection(String waypointId1, String waypointId2) {
+        if (waypointId1.equals(waypointId2)) return;
+        Map<String, String> stores = requireExisting(Set.of(waypointId1, waypointId2));
 
-        waypointRepository.save(wp1);
-        waypointRepository.save(wp2);
+        changeTracker.stamp(Waypoint.class, version -> {
+            BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Waypoint.class);
+            operations.updateOne(byId(waypointId1), new Update().pull("connections", waypointId2).set("version", version));
+            operations.updateOne(byId(waypointId2), new Update().pull("connections", waypointId1).set("version", version));
+            return operations.execute();
+        });
+        new HashSet<>(stores.values()).forEach(navigationGraph::reload);
+    }
+
+    /**
+     * Applies many connect/disconnect edits in one unordered bulk write and rebuilds each affected
+     * store's graph once. All referenced waypoints are checked up front, and connects must stay within
+     * one store, so either every edit is sent or none is.
+     */
+    public EdgeEditResult applyEdgeEdits(List<EdgeEdit> edits) {
+        Set<String> ids = new HashSet<>();
+        for (EdgeEdit edit : edits) {
+            if (edit.getFrom() == null || edit.getTo() == null || edit.getOperation() == null) {
+                throw new IllegalArgumentException("Each edge edit needs from, to and operation.");
+            }
+            ids.add(edit.getFrom());
+            ids.add(edit.getTo());
+        }
+        if (edits.isEmpty()) return new EdgeEditResult(0, 0);
+        Map<String, String> stores = requireExisting(ids);
+        for (EdgeEdit edit : edits) {
+            if (edit.getOperation() == EdgeEdit.Operation.CONNECT) requireSameStore(stores, edit.getFrom(), edit.getTo());
+        }
+
+        long modified = changeTracker.stamp(Waypoint.class, version -> {
+            BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Waypoint.class);
+            for (EdgeEdit edit : edits) {
+                if (edit.getFrom().equals(edit.getTo())) continue;
+                boolean connect = edit.getOperation() == EdgeEdit.Operation.CONNECT;
+                operations.updateOne(byId(edit.getFrom()), edgeUpdate(connect, edit.getTo(), version));
+                operations.updateOne(byId(edit.getTo()), edgeUpdate(connect, edit.getFrom(), version));
+            }
+            return operations.execute().getModifiedCount();
+        });
+        new HashSet<>(stores.values()).forEach(navigationGraph::reload);
+        return new EdgeEditResult(edits.size(), modified);
     }
 
-    @Transactional
     public Waypoint updateWaypointLocation(String id, Location newLocation) {
-        Waypoint waypoint = waypointRepository.findById(id)
+        UpdateResult result = changeTracker.stamp(Waypoint.class, version -> mongoTemplate.updateFirst(byId(id),
+                new Update().set("location", newLocation).set("version", version), Waypoint.class));
+        if (result.getMatchedCount() == 0) throw new RuntimeException("Waypoint not found: " + id);
+        Waypoint updated = waypointRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Waypoint not found: " + id));
-        waypoint.setLocation(newLocation);
-        return waypointRepository.save(waypoint);
+        navigationGraph.reload(updated.getStoreId());
+        return updated;
     }
 
+    /**
+     * Deletes a waypoint and pulls its ID from the waypoints that referenced it. The index on
+     * connections limits the update to those neighbours instead of scanning the whole store.
+     */
     @Transactional
     public void deleteWaypoint(String id) {
-        // First, remove this waypoint's ID from any other waypoint's connection list
-        List<Waypoint> allWaypoints = waypointRepository.findAll();
-        for (Waypoint wp : allWaypoints) {
-            if (wp.getConnections().contains(id)) {
-                wp.getConnections().remove(id);
-                waypointRepository.save(wp);
-            }
+        String storeId = waypointRepository.findById(id).map(Waypoint::getStoreId).orElse(null);
+        ensureConnectionsIndex();
+        changeTracker.stamp(Waypoint.class, version -> {
+            mongoTemplate.updateMulti(Query.query(Criteria.where("connections").is(id)),
+                    new Update().pull("connections", id).set("version", version), Waypoint.class);
+            waypointRepository.deleteById(id);
+            changeTracker.tombstone(Waypoint.class, id, version);
+            return null;
+        });
+        navigationGraph.reload(storeId);
+    }
+
+    private static Update edgeUpdate(boolean connect, String neighbourId, long version) {
+        Update update = connect ? new Update().addToSet("connections", neighbourId) : new Update().pull("connections", neighbourId);
+        return update.set("version", version);
+    }
+
+    private void ensureConnectionsIndex() {
+        if (connectionsIndexed) return;
+        mongoTemplate.indexOps(Waypoint.class).createIndex(new Index().on("connections", Sort.Direction.ASC));
+        connectionsIndexed = true;
+    }
+
+    private static Query byId(String id) {
+        return Query.query(Criteria.where("_id").is(id));
+    }
+
+    /**
+     * @return the store of each waypoint, as resolved by {@link NavigationGraph#storeOf}.
+     */
+    private Map<String, String> requireExisting(Set<String> ids) {
+        Query query = Query.query(Criteria.where("_id").in(ids));
+        query.fields().include("_id").include("storeId");
+        Map<String, String> stores = new HashMap<>();
+        for (Waypoint found : mongoTemplate.find(query, Waypoint.class)) {
+            stores.put(found.getId(), NavigationGraph.storeOf(found.getStoreId()));
+        }
+        Set<String> missing = new HashSet<>(ids);
+        missing.removeAll(stores.keySet());
+        if (missing.size() == 1) throw new RuntimeException("Waypoint not found: " + missing.iterator().next());
+        if (!missing.isEmpty()) throw new RuntimeException("Waypoints not found: " + missing);
+        return stores;
+    }
+
+    private static void requireSameStore(Map<String, String> stores, String waypointId1, String waypointId2) {
+        if (!stores.get(waypointId1).equals(stores.get(waypointId2))) {
+            throw new IllegalArgumentException("Cannot connect waypoints of different stores: "
+                    + waypointId1 + " (" + stores.get(waypointId1) + "), "
+                    + waypointId2 + " (" + stores.get(waypointId2) + ")");
         }
-        // Then, delete the waypoint itself
-        waypointRepository.deleteById(id);
     }
 }
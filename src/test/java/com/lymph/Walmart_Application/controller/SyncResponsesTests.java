@@ -0,0 +1,57 @@
+package com.lymph.Walmart_Application.controller;
+
+import com.lymph.Walmart_Application.entity.Product;
+import com.lymph.Walmart_Application.service.SyncService;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SyncResponsesTests {
+
+	private final SyncService syncService = mock(SyncService.class);
+
+	private ResponseEntity<?> list(String ifNoneMatch) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products");
+		if (ifNoneMatch != null) request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+		return SyncResponses.list(syncService, new ServletWebRequest(request, new MockHttpServletResponse()),
+				Product.class, null, "sku", Product::getSku, null, 2);
+	}
+
+	@Test
+	void matchingETagIsAnsweredWithNotModifiedWithoutReadingDocuments() {
+		when(syncService.version(Product.class)).thenReturn(42L);
+
+		ResponseEntity<?> response = list("\"42\"");
+
+		assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+		assertEquals("\"42\"", response.getHeaders().getETag());
+		verify(syncService, never()).page(any(), any(), any(), any(), any(), eq(2));
+	}
+
+	@Test
+	void staleETagGetsThePageAndNextCursor() {
+		when(syncService.version(Product.class)).thenReturn(43L);
+		when(syncService.page(eq(Product.class), any(), eq("sku"), any(), any(), eq(2)))
+				.thenReturn(new SyncService.Page<>(List.of(new Product(), new Product()), "b"));
+
+		ResponseEntity<?> response = list("\"42\"");
+
+		assertEquals(HttpStatus.OK, response.getStatusCode());
+		assertEquals("\"43\"", response.getHeaders().getETag());
+		assertEquals("b", response.getHeaders().getFirst(SyncResponses.NEXT_CURSOR));
+	}
+}
@@ -0,0 +1,102 @@
+package com.lymph.Walmart_Application.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lymph.Walmart_Application.entity.Product;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.LongFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BulkImportServiceTests {
+
+	private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+	private final ChangeTracker changeTracker = mock(ChangeTracker.class);
+	private final BulkOperations operations = mock(BulkOperations.class);
+	private final BulkWriteResult result = mock(BulkWriteResult.class);
+	private final BulkImportService importService = new BulkImportService();
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(importService, "mongoTemplate", mongoTemplate);
+		ReflectionTestUtils.setField(importService, "changeTracker", changeTracker);
+		ReflectionTestUtils.setField(importService, "objectMapper", new ObjectMapper());
+		ReflectionTestUtils.setField(importService, "defaultBatchSize", 1000);
+		ReflectionTestUtils.setField(importService, "maxReportedErrors", 100);
+		when(mongoTemplate.getConverter())
+				.thenReturn(new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext()));
+		when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class)).thenReturn(operations);
+		when(operations.execute()).thenReturn(result);
+		when(changeTracker.stamp(eq(Product.class), any())).thenAnswer(invocation ->
+				invocation.<LongFunction<?>>getArgument(1).apply(7));
+	}
+
+	@Test
+	void stampsTheVersionOnlyWhenAFieldChanges() {
+		when(result.getMatchedCount()).thenReturn(1);
+		ImportReport report = importService.importProducts(stream("""
+				{"sku": "milk", "name": "$1 milk", "location": {"x": 1, "y": 2, "z": 0}}
+				"""), ImportFormat.NDJSON, null, false);
+
+		ArgumentCaptor<UpdateDefinition> update = ArgumentCaptor.forClass(UpdateDefinition.class);
+		verify(operations).upsert(any(Query.class), update.capture());
+		List<Document> pipeline = ((AggregationUpdate) update.getValue()).toPipeline(Aggregation.DEFAULT_CONTEXT);
+		Document name = new Document("$literal", "$1 milk");
+		Document location = new Document("$literal", new Document("x", 1.0).append("y", 2.0).append("z", 0.0));
+		Document unchanged = new Document("$and", List.of(
+				new Document("$ne", List.of(new Document("$type", "$version"), "missing")),
+				new Document("$eq", List.of("$name", name)),
+				new Document("$eq", List.of("$location", location))));
+		assertEquals(List.of(new Document("$set", new Document("name", name).append("location", location)
+				.append("version", new Document("$cond", List.of(unchanged, "$version", 7L))))), pipeline);
+		assertEquals(1, report.getUnchanged());
+		assertEquals(0, report.getUpdated());
+	}
+
+	@Test
+	void reportsMalformedCsvRowsAndImportsTheRest() {
+		ImportReport report = importService.importProducts(stream("""
+				sku,name
+				apple,Apple
+				banana,Banana,extra
+				"cherry","Cherry
+				pie"
+				date,Date
+				"""), ImportFormat.CSV, null, false);
+
+		assertEquals(4, report.getReceived());
+		assertEquals(1, report.getFailed());
+		assertEquals(3, report.getErrors().get(0).getLine());
+		assertTrue(report.getErrors().get(0).getMessage().startsWith("Malformed CSV row"));
+		assertTrue(report.isComplete());
+		verify(operations, times(3)).upsert(any(Query.class), any(UpdateDefinition.class));
+	}
+
+	private static ByteArrayInputStream stream(String text) {
+		return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,63 @@
+package com.lymph.Walmart_Application.service;
+
+import com.lymph.Walmart_Application.entity.Location;
+import com.lymph.Walmart_Application.entity.Waypoint;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CongestionWeightsTests {
+
+	private final NavigationGraph navigationGraph = mock(NavigationGraph.class);
+	private final CongestionWeights weights = new CongestionWeights(10, Duration.ofMillis(1));
+
+	private static Waypoint waypoint(String id, double x, String... connections) {
+		Waypoint wp = new Waypoint();
+		wp.setId(id);
+		wp.setLocation(new Location(x, 0, 0));
+		wp.setConnections(new ArrayList<>(List.of(connections)));
+		return wp;
+	}
+
+	private static NavigationGraph.Snapshot graph(long version) {
+		return NavigationGraph.Snapshot.build(version, List.of(waypoint("a", 0, "b"), waypoint("b", 1, "a")));
+	}
+
+	@AfterEach
+	void tearDown() {
+		weights.shutdown();
+	}
+
+	@Test
+	void evictingAGraphDropsItsWeightsButNotThoseOfItsReloadedGraph() throws InterruptedException {
+		ReflectionTestUtils.setField(weights, "navigationGraph", navigationGraph);
+		NavigationGraph.Snapshot evicted = graph(1);
+		when(navigationGraph.snapshot(NavigationGraph.DEFAULT_STORE)).thenReturn(evicted);
+		weights.ingest(null, List.of(new CongestionUpdate("a", "b", 3)));
+		awaitEpoch();
+
+		weights.onGraphEvicted(new NavigationGraphEvictedEvent(evicted));
+		assertEquals(0, weights.epoch(null));
+
+		NavigationGraph.Snapshot reloaded = graph(2);
+		when(navigationGraph.snapshot(NavigationGraph.DEFAULT_STORE)).thenReturn(reloaded);
+		weights.ingest(null, List.of(new CongestionUpdate("a", "b", 3)));
+		awaitEpoch();
+		weights.onGraphEvicted(new NavigationGraphEvictedEvent(evicted)); // late event for the old graph
+		assertTrue(weights.epoch(null) > 0);
+	}
+
+	private void awaitEpoch() throws InterruptedException {
+		for (int i = 0; i < 500 && weights.epoch(null) == 0; i++) Thread.sleep(10);
+		assertTrue(weights.epoch(null) > 0);
+	}
+}
@@ -0,0 +1,112 @@
+package com.lymph.Walmart_Application.service;
+
+import com.lymph.Walmart_Application.entity.Location;
+import com.lymph.Walmart_Application.entity.Product;
+import com.lymph.Walmart_Application.entity.Waypoint;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class GraphSnapshotFileTests {
+
+	private static Waypoint waypoint(String id, double x, double y, double z, String... connections) {
+		Waypoint wp = new Waypoint();
+		wp.setId(id);
+		wp.setLocation(new Location(x, y, z));
+		wp.setConnections(new ArrayList<>(List.of(connections)));
+		return wp;
+	}
+
+	@Test
+	void roundTripsGraphAndProductMapping(@TempDir Path dir) throws IOException {
+		NavigationGraph.Snapshot graph = NavigationGraph.Snapshot.build(9, List.of(
+				waypoint("entrance", 0, 0, 0, "aisle-é"),
+				waypoint("aisle-é", 3, 4, 1, "entrance", "checkout"),
+				waypoint("checkout", 6, 8, 0)));
+		Map<String, String> products = Map.of("sku-1", "aisle-é", "sku-2", "", "sku-3", "gone");
+		Path file = dir.resolve("graph.bin");
+
+		GraphSnapshotFile.write(file, graph, products, 41, 17);
+		GraphSnapshotFile.Contents contents = GraphSnapshotFile.read(file, NavigationGraph.DEFAULT_STORE, 3);
+
+		NavigationGraph.Snapshot loaded = contents.graph();
+		assertEquals(3, loaded.version());
+		assertEquals(graph.size(), loaded.size());
+		assertEquals(graph.edgeCount(), loaded.edgeCount());
+		for (int node = 0; node < graph.size(); node++) {
+			assertEquals(graph.id(node), loaded.id(node));
+			assertEquals(node, loaded.indexOf(graph.id(node)));
+			assertEquals(graph.location(node), loaded.location(node));
+			assertEquals(graph.edgeStart(node), loaded.edgeStart(node));
+			assertEquals(graph.inEdgeEnd(node), loaded.inEdgeEnd(node));
+		}
+		for (int e = 0; e < graph.edgeCount(); e++) {
+			assertEquals(graph.edgeTarget(e), loaded.edgeTarget(e));
+			assertEquals(graph.edgeLength(e), loaded.edgeLength(e));
+		}
+		assertEquals(products, contents.productWaypoints());
+		assertEquals(41, contents.waypointVersion());
+		assertEquals(17, contents.productVersion());
+	}
+
+	@Test
+	void storeIgnoresPartsWrittenAtAnotherSyncVersion(@TempDir Path dir) throws IOException {
+		NavigationGraph.Snapshot graph = NavigationGraph.Snapshot.build(1, List.of(
+				waypoint("a", 0, 0, 0, "b"), waypoint("b", 1, 1, 0, "a")));
+		ChangeTracker changeTracker = mock(ChangeTracker.class);
+		when(changeTracker.watermark(Product.class)).thenReturn(9L);
+		GraphSnapshotStore store = new GraphSnapshotStore(changeTracker, dir.toString(), Duration.ofSeconds(2));
+		GraphSnapshotFile.write(store.path(NavigationGraph.DEFAULT_STORE), graph, Map.of("sku", "a"), 5, 8);
+
+		assertTrue(store.readGraph(NavigationGraph.DEFAULT_STORE, 2, 5).isPresent());
+		assertTrue(store.readGraph(NavigationGraph.DEFAULT_STORE, 2, 6).isEmpty()); // edited while we were down
+		assertTrue(store.readGraph(NavigationGraph.DEFAULT_STORE, 2, -1).isPresent()); // Mongo unreachable
+		assertTrue(store.readProductWaypoints(NavigationGraph.DEFAULT_STORE).isEmpty());
+		store.shutdown();
+	}
+
+	@Test
+	void storesWithSimilarIdsNeverShareAFile(@TempDir Path dir) throws IOException {
+		GraphSnapshotStore store = new GraphSnapshotStore(mock(ChangeTracker.class), dir.toString(), Duration.ofSeconds(2));
+		assertNotEquals(store.path("a/b"), store.path("a_b"));
+		assertNotEquals(store.path("a b"), store.path("a_b"));
+		// Also distinct where file names are compared case-insensitively.
+		assertNotEquals(store.path("A").toString().toLowerCase(), store.path("a").toString().toLowerCase());
+
+		NavigationGraph.Snapshot graph = NavigationGraph.Snapshot.build(1, List.of(waypoint("a", 0, 0, 0)));
+		Path file = store.path(NavigationGraph.DEFAULT_STORE);
+		GraphSnapshotFile.write(file, graph, Map.of(), 1, 1);
+		assertThrows(IOException.class, () -> GraphSnapshotFile.read(file, "other", 1));
+		store.shutdown();
+	}
+
+	@Test
+	void rejectsCorruptedFiles(@TempDir Path dir) throws IOException {
+		NavigationGraph.Snapshot graph = NavigationGraph.Snapshot.build(1, List.of(
+				waypoint("a", 0, 0, 0, "b"), waypoint("b", 1, 1, 0, "a")));
+		Path file = dir.resolve("graph.bin");
+		GraphSnapshotFile.write(file, graph, Map.of("sku", "a"), 1, 1);
+
+		byte[] bytes = Files.readAllBytes(file);
+		bytes[bytes.length - 1] ^= 1;
+		Files.write(file, bytes);
+		assertThrows(IOException.class, () -> GraphSnapshotFile.read(file, NavigationGraph.DEFAULT_STORE, 1));
+
+		Files.write(file, new byte[] {1, 2, 3});
+		assertThrows(IOException.class, () -> GraphSnapshotFile.read(file, NavigationGraph.DEFAULT_STORE, 1));
+	}
+}
@@ -0,0 +1,71 @@
+package com.lymph.Walmart_Application.service;
+
+import com.lymph.Walmart_Application.entity.Location;
+import com.lymph.Walmart_Application.entity.Waypoint;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LocalSearchTourTests {
+
+	// Fully connected random points, so every matrix cost is the straight-line distance.
+	private static StopDistanceMatrix randomMatrix(int stops, long seed) {
+		Random random = new Random(seed);
+		List<Waypoint> waypoints = new ArrayList<>();
+		for (int i = 0; i < stops; i++) {
+			Waypoint wp = new Waypoint();
+			wp.setId("wp" + i);
+			wp.setLocation(new Location(random.nextDouble() * 1000, random.nextDouble() * 1000, 0));
+			waypoints.add(wp);
+		}
+		for (Waypoint a : waypoints) {
+			for (Waypoint b : waypoints) {
+				if (a != b) a.getConnections().add(b.getId());
+			}
+		}
+		NavigationGraph.Snapshot graph = NavigationGraph.Snapshot.build(1, waypoints);
+		return StopDistanceMatrix.compute(new PathSearchEngine(), graph, IntStream.range(0, stops).toArray());
+	}
+
+	private static double length(StopDistanceMatrix matrix, int[] tour) {
+		double length = 0;
+		for (int i = 0; i + 1 < tour.length; i++) length += matrix.cost(tour[i], tour[i + 1]);
+		return length;
+	}
+
+	@Test
+	void improvesOnNearestNeighbourAndKeepsEndpointsFixed() {
+		long farFuture = System.nanoTime() + 10_000_000_000L;
+		for (long seed = 1; seed <= 5; seed++) {
+			StopDistanceMatrix matrix = randomMatrix(40, seed);
+			int end = matrix.size() - 1;
+			int[] greedy = new NearestNeighbourTour().order(matrix, end, farFuture);
+			int[] improved = new LocalSearchTour(new NearestNeighbourTour()).order(matrix, end, farFuture);
+
+			assertEquals(0, improved[0]);
+			assertEquals(end, improved[improved.length - 1]);
+			int[] sorted = improved.clone();
+			Arrays.sort(sorted);
+			assertArrayEquals(IntStream.range(0, matrix.size()).toArray(), sorted);
+			assertTrue(length(matrix, improved) <= length(matrix, greedy) + 1e-9);
+		}
+	}
+
+	@Test
+	void returnsConstructionTourWhenDeadlineHasPassed() {
+		StopDistanceMatrix matrix = randomMatrix(30, 11);
+		long expired = System.nanoTime() - 1;
+		int[] greedy = new NearestNeighbourTour().order(matrix, -1, expired);
+		int[] result = new LocalSearchTour(new NearestNeighbourTour()).order(matrix, -1, expired);
+		assertArrayEquals(greedy, result);
+	}
+
+}
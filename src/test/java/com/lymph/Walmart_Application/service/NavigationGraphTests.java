@@ -0,0 +1,191 @@
+package com.lymph.Walmart_Application.service;
+
+import com.lymph.Walmart_Application.entity.Location;
+import com.lymph.Walmart_Application.entity.Waypoint;
+import com.lymph.Walmart_Application.entity.WaypointType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class NavigationGraphTests {
+
+	private static Waypoint waypoint(String id, double x, double y, String... connections) {
+		Waypoint wp = new Waypoint();
+		wp.setId(id);
+		wp.setLocation(new Location(x, y, 0));
+		wp.setConnections(new ArrayList<>(List.of(connections)));
+		return wp;
+	}
+
+	@Test
+	void buildsCompactAdjacencyAndSkipsInvalidConnections() {
+		Waypoint orphan = new Waypoint();
+		orphan.setId("no-location");
+		NavigationGraph.Snapshot graph = NavigationGraph.Snapshot.build(7, List.of(
+				waypoint("a", 0, 0, "b", "b", "a", "missing", "no-location"),
+				waypoint("b", 3, 4, "a"),
+				orphan));
+
+		assertEquals(7, graph.version());
+		assertEquals(2, graph.size());
+		assertEquals(-1, graph.indexOf("no-location"));
+		int a = graph.indexOf("a");
+		assertEquals(1, graph.edgeEnd(a) - graph.edgeStart(a));
+		assertEquals(graph.indexOf("b"), graph.edgeTarget(graph.edgeStart(a)));
+		assertEquals(5.0, graph.edgeLength(graph.edgeStart(a)), 1e-9);
+	}
+
+	private static Waypoint onFloor(Waypoint waypoint, int floor, WaypointType type) {
+		waypoint.setFloor(floor);
+		waypoint.setType(type);
+		waypoint.getLocation().setZ(floor * 5);
+		return waypoint;
+	}
+
+	@Test
+	void floorChangesCostTheConnectorAndPreferTheCheaperOne() {
+		ConnectorCosts costs = new ConnectorCosts(Map.of(WaypointType.STAIRS, 40.0, WaypointType.ELEVATOR, 100.0));
+		NavigationGraph.Snapshot graph = NavigationGraph.Snapshot.build("north", 1, List.of(
+				onFloor(waypoint("start", 0, 0, "stairs0", "lift0"), 0, WaypointType.AISLE),
+				onFloor(waypoint("stairs0", 10, 0, "start", "stairs1"), 0, WaypointType.STAIRS),
+				onFloor(waypoint("stairs1", 10, 0, "stairs0", "end"), 1, WaypointType.STAIRS),
+				onFloor(waypoint("lift0", 0, 1, "start", "lift1"), 0, WaypointType.ELEVATOR),
+				onFloor(waypoint("lift1", 0, 1, "lift0", "end"), 1, WaypointType.ELEVATOR),
+				onFloor(waypoint("end", 0, 0, "stairs1", "lift1"), 1, WaypointType.AISLE)), costs);
+
+		assertEquals("north", graph.storeId());
+		int stairs0 = graph.indexOf("stairs0");
+		for (int e = graph.edgeStart(stairs0); e < graph.edgeEnd(stairs0); e++) {
+			if (graph.edgeTarget(e) == graph.indexOf("stairs1")) assertEquals(40.0, graph.edgeLength(e), 1e-9);
+		}
+
+		int[] path = new PathSearchEngine().path(graph, graph.indexOf("start"), graph.indexOf("end"));
+		assertEquals(List.of("start", "stairs0", "stairs1", "end"), Arrays.stream(path).mapToObj(graph::id).toList());
+		assertEquals(10 + 40 + 10, graph.pathLength(path), 1e-9);
+		// The k-d tree splits on z as well, so a point above the ground floor snaps upstairs.
+		assertEquals(graph.indexOf("end"), graph.spatialIndex().nearest(0, 0, 5.0));
+	}
+
+	@Test
+	void closuresAndCongestionOverlayTheBaseGraph() {
+		NavigationGraph.Snapshot base = NavigationGraph.Snapshot.build(1, List.of(
+				waypoint("a", 0, 0, "b", "c"),
+				waypoint("b", 10, 0, "a", "d"),
+				waypoint("c", 0, 10, "a", "d"),
+				waypoint("d", 10, 10, "b", "c")));
+		PathSearchEngine engine = new PathSearchEngine(SearchMode.ALT, 2);
+		int a = base.indexOf("a");
+		int d = base.indexOf("d");
+
+		Closure aisle = new Closure();
+		aisle.setFromId("b");
+		aisle.setToId("a");
+		NavigationGraph.Snapshot closed = base.withClosures(List.of(aisle), 2);
+		assertEquals(List.of("a", "c", "d"), Arrays.stream(engine.path(closed, a, d)).mapToObj(closed::id).toList());
+		assertEquals(20.0, engine.distance(base, a, d), 1e-9);
+		assertSame(base, closed.base());
+		assertSame(base.landmarks(2), closed.landmarks(2));
+
+		float[] congested = new float[base.edgeCount()];
+		Arrays.fill(congested, 1f);
+		int c = base.indexOf("c");
+		for (int e = base.edgeStart(c); e < base.edgeEnd(c); e++) congested[e] = 3f;
+		NavigationGraph.Snapshot weighted = closed.withMultipliers(congested, 3);
+		assertEquals(10 + 30, engine.distance(weighted, a, d), 1e-9);
+
+		Closure waypoint = new Closure();
+		waypoint.setWaypointId("c");
+		NavigationGraph.Snapshot blocked = closed.withClosures(List.of(aisle, waypoint), 4);
+		assertEquals(0, engine.path(blocked, a, d).length);
+	}
+
+	@Test
+	void spatialIndexAgreesWithLinearScan() {
+		Random random = new Random(5);
+		List<Waypoint> waypoints = new ArrayList<>();
+		for (int i = 0; i < 500; i++) {
+			waypoints.add(waypoint("wp" + i, random.nextInt(200), random.nextInt(200)));
+		}
+		NavigationGraph.Snapshot graph = NavigationGraph.Snapshot.build(1, waypoints);
+		SpatialIndex index = graph.spatialIndex();
+		for (int q = 0; q < 200; q++) {
+			double x = random.nextDouble() * 220 - 10;
+			double y = random.nextDouble() * 220 - 10;
+			double[] sorted = new double[graph.size()];
+			for (int node = 0; node < graph.size(); node++) sorted[node] = squared(graph, node, x, y);
+			Arrays.sort(sorted);
+
+			assertEquals(sorted[0], squared(graph, index.nearest(x, y), x, y), 1e-9);
+			int[] nearest = index.nearest(x, y, 5);
+			assertEquals(5, nearest.length);
+			for (int i = 0; i < nearest.length; i++) {
+				assertEquals(sorted[i], squared(graph, nearest[i], x, y), 1e-9);
+			}
+		}
+	}
+
+	private static double squared(NavigationGraph.Snapshot graph, int node, double x, double y) {
+		double dx = graph.x(node) - x;
+		double dy = graph.y(node) - y;
+		return dx * dx + dy * dy;
+	}
+
+	@Test
+	void componentsFollowClosuresAndPlansSkipDisconnectedStops() {
+		NavigationGraph.Snapshot graph = NavigationGraph.Snapshot.build(1, List.of(
+				waypoint("entrance", 0, 0, "a"),
+				waypoint("a", 10, 0, "entrance", "b"),
+				waypoint("b", 20, 0, "a"),
+				waypoint("island1", 50, 50, "island2"),
+				waypoint("island2", 60, 50, "island1"),
+				waypoint("orphan", 90, 90)));
+		ConnectedComponents components = graph.components();
+		assertEquals(3, components.count());
+		assertEquals(3, components.size(0));
+		assertEquals(0, components.component(graph.indexOf("entrance")));
+		assertFalse(components.connected(graph.indexOf("a"), graph.indexOf("island1")));
+
+		PathSearchEngine engine = new PathSearchEngine();
+		assertEquals(0, engine.path(graph, graph.indexOf("entrance"), graph.indexOf("island2")).length);
+		assertEquals(0, engine.lastExpansions());
+		assertEquals(1, engine.disconnectedCount());
+
+		RoutePlan plan = new RoutePlanner(engine, new NearestNeighbourTour()).plan(graph, graph.indexOf("entrance"),
+				new int[] {graph.indexOf("b"), graph.indexOf("island1"), graph.indexOf("orphan")}, -1, Long.MAX_VALUE);
+		assertEquals(List.of("entrance", "b"), plan.getStopOrder());
+		assertEquals(List.of("island1", "orphan"), plan.getUnreachableStops());
+
+		Closure closure = new Closure();
+		closure.setFromId("a");
+		closure.setToId("b");
+		ConnectedComponents closed = graph.withClosures(List.of(closure), 2).components();
+		assertEquals(4, closed.count());
+		assertFalse(closed.connected(graph.indexOf("a"), graph.indexOf("b")));
+	}
+
+	@Test
+	void streamsPreviewLegsOfTheConstructedTour() {
+		NavigationGraph.Snapshot graph = NavigationGraph.Snapshot.build(1, List.of(
+				waypoint("entrance", 0, 0, "a"),
+				waypoint("a", 10, 0, "entrance", "b"),
+				waypoint("b", 20, 0, "a", "checkout"),
+				waypoint("checkout", 20, 10, "b")));
+		List<RouteLeg> legs = new ArrayList<>();
+		RoutePlan plan = new RoutePlanner(new PathSearchEngine(), new LocalSearchTour(new NearestNeighbourTour())).plan(
+				graph, graph.indexOf("entrance"), new int[] {graph.indexOf("b"), graph.indexOf("a")},
+				graph.indexOf("checkout"), Long.MAX_VALUE, new RouteTrace(), legs::add);
+
+		assertEquals(3, legs.size());
+		assertEquals(List.of(0, 1, 2), legs.stream().map(RouteLeg::getIndex).toList());
+		assertEquals("a", legs.get(0).getToWaypointId());
+		assertEquals(List.of("entrance", "a", "b", "checkout"), plan.getStopOrder());
+	}
+}
@@ -0,0 +1,123 @@
+package com.lymph.Walmart_Application.service;
+
+import com.lymph.Walmart_Application.entity.Location;
+import com.lymph.Walmart_Application.entity.Waypoint;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PathSearchEngineTests {
+
+	// Grid of aisles with random gaps, so some searches have to detour or fail.
+	private static NavigationGraph.Snapshot randomGrid(int width, int height, long seed) {
+		Random random = new Random(seed);
+		List<Waypoint> waypoints = new ArrayList<>();
+		for (int r = 0; r < height; r++) {
+			for (int c = 0; c < width; c++) {
+				Waypoint wp = new Waypoint();
+				wp.setId(r + ":" + c);
+				wp.setLocation(new Location(c * 10 + random.nextDouble(), r * 10 + random.nextDouble(), 0));
+				waypoints.add(wp);
+			}
+		}
+		for (int r = 0; r < height; r++) {
+			for (int c = 0; c < width; c++) {
+				Waypoint wp = waypoints.get(r * width + c);
+				if (c + 1 < width && random.nextInt(5) > 0) connect(wp, waypoints.get(r * width + c + 1));
+				if (r + 1 < height && random.nextInt(5) > 0) connect(wp, waypoints.get((r + 1) * width + c));
+			}
+		}
+		return NavigationGraph.Snapshot.build(1, waypoints);
+	}
+
+	private static void connect(Waypoint a, Waypoint b) {
+		a.getConnections().add(b.getId());
+		b.getConnections().add(a.getId());
+	}
+
+	// Textbook O(n^2) Dijkstra used as the reference answer.
+	private static double referenceDistance(NavigationGraph.Snapshot graph, int source, int target) {
+		double[] dist = new double[graph.size()];
+		boolean[] done = new boolean[graph.size()];
+		Arrays.fill(dist, Double.POSITIVE_INFINITY);
+		dist[source] = 0;
+		for (int iteration = 0; iteration < graph.size(); iteration++) {
+			int u = -1;
+			for (int v = 0; v < graph.size(); v++) {
+				if (!done[v] && (u < 0 || dist[v] < dist[u])) u = v;
+			}
+			if (dist[u] == Double.POSITIVE_INFINITY) break;
+			done[u] = true;
+			for (int e = graph.edgeStart(u); e < graph.edgeEnd(u); e++) {
+				dist[graph.edgeTarget(e)] = Math.min(dist[graph.edgeTarget(e)], dist[u] + graph.edgeLength(e));
+			}
+		}
+		return dist[target];
+	}
+
+	@Test
+	void matchesReferenceDistancesAcrossRepeatedSearches() {
+		NavigationGraph.Snapshot graph = randomGrid(12, 9, 42);
+		PathSearchEngine engine = new PathSearchEngine();
+		Random random = new Random(7);
+		for (int i = 0; i < 200; i++) {
+			int source = random.nextInt(graph.size());
+			int target = random.nextInt(graph.size());
+			assertEquals(referenceDistance(graph, source, target), engine.distance(graph, source, target), 1e-9);
+		}
+	}
+
+	@Test
+	void landmarkAndBidirectionalModesMatchReferenceDistances() {
+		NavigationGraph.Snapshot graph = randomGrid(15, 10, 99);
+		PathSearchEngine engine = new PathSearchEngine(SearchMode.ALT, 4);
+		Random random = new Random(13);
+		for (int i = 0; i < 200; i++) {
+			int source = random.nextInt(graph.size());
+			int target = random.nextInt(graph.size());
+			double expected = referenceDistance(graph, source, target);
+			for (SearchMode mode : SearchMode.values()) {
+				assertEquals(expected, engine.distance(graph, source, target, mode), 1e-9, mode.name());
+				int[] path = engine.path(graph, source, target, mode);
+				if (expected == Double.POSITIVE_INFINITY) {
+					assertEquals(0, path.length);
+				} else {
+					assertEquals(source, path[0]);
+					assertEquals(target, path[path.length - 1]);
+					double length = 0;
+					for (int p = 0; p + 1 < path.length; p++) length += graph.distance(path[p], path[p + 1]);
+					assertEquals(expected, length, 1e-9, mode.name());
+				}
+			}
+		}
+	}
+
+	@Test
+	void returnsConnectedPathWhoseLengthIsTheDistance() {
+		NavigationGraph.Snapshot graph = randomGrid(6, 6, 3);
+		PathSearchEngine engine = new PathSearchEngine();
+		int source = graph.indexOf("0:0");
+		int target = graph.indexOf("5:5");
+		int[] path = engine.path(graph, source, target);
+		double expected = referenceDistance(graph, source, target);
+		if (expected == Double.POSITIVE_INFINITY) {
+			assertEquals(0, path.length);
+			return;
+		}
+		assertEquals(source, path[0]);
+		assertEquals(target, path[path.length - 1]);
+		double length = 0;
+		for (int i = 0; i + 1 < path.length; i++) {
+			length += graph.distance(path[i], path[i + 1]);
+		}
+		assertEquals(expected, length, 1e-9);
+		assertArrayEquals(new int[]{source}, engine.path(graph, source, source));
+	}
+
+}
@@ -0,0 +1,76 @@
+package com.lymph.Walmart_Application.service;
+
+import com.lymph.Walmart_Application.entity.Product;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductSearchIndexTests {
+
+	private static Product product(String sku, String name, String category, String storeId) {
+		Product product = new Product();
+		product.setSku(sku);
+		product.setName(name);
+		product.setCategory(category);
+		product.setStoreId(storeId);
+		return product;
+	}
+
+	private static List<String> skus(ProductSearchResult result) {
+		return result.getHits().stream().map(ProductSearchResult.Hit::getSku).toList();
+	}
+
+	@Test
+	void ranksPrefixMatchesAndCountsFacetsBeforeFiltering() {
+		ProductSearchIndex index = new ProductSearchIndex();
+		index.replaceAll(List.of(
+				product("DAI-001", "Whole Milk 1 Gallon", "Dairy", null),
+				product("DAI-002", "Milk Chocolate Bar", "Candy", null),
+				product("FRU-001", "Bananas", "Produce", null),
+				product("DAI-003", "Almond Milk", "Dairy", "store-2")));
+
+		ProductSearchResult milk = index.search("mil", null, null, 10);
+		assertEquals(3, milk.getTotal());
+		assertEquals("DAI-002", skus(milk).get(0), "a leading name term ranks first");
+		assertEquals(2, milk.getCategories().get(0).getCount());
+		assertEquals("Dairy", milk.getCategories().get(0).getCategory());
+
+		ProductSearchResult dairy = index.search("milk", null, "dairy", 10);
+		assertEquals(2, dairy.getTotal());
+		assertEquals(2, dairy.getCategories().size(), "facets ignore the category filter");
+
+		assertEquals(List.of("FRU-001"), skus(index.search("nana", null, null, 10)));
+		assertEquals(List.of("DAI-001"), skus(index.search("dai-001", null, null, 10)));
+		assertEquals(List.of("DAI-003"), skus(index.search("milk", "store-2", null, 10)));
+		assertEquals(List.of("DAI-001"), skus(index.search("whole milk", null, null, 10)));
+	}
+
+	@Test
+	void followsUpdatesAndDeletes() {
+		ProductSearchIndex index = new ProductSearchIndex();
+		index.replaceAll(List.of(product("A-1", "Paper Towels", "Household", null)));
+
+		index.put(product("A-1", "Kitchen Roll", "Household", null));
+		assertTrue(index.search("paper", null, null, 10).getHits().isEmpty());
+		assertEquals(List.of("A-1"), skus(index.search("kitch", null, null, 10)));
+
+		index.remove("A-1");
+		assertEquals(0, index.search("", null, null, 10).getTotal());
+	}
+
+	@Test
+	void repeatedUpdatesOfOneProductDoNotGrowTheIndex() {
+		ProductSearchIndex index = new ProductSearchIndex();
+		index.replaceAll(List.of(product("FRU-001", "Bananas", "Produce", null)));
+
+		for (int i = 0; i < 10_000; i++) index.put(product("DAI-001", "Whole Milk " + i, "Dairy", null));
+
+		assertTrue(index.slotCount() <= 2048, "slots: " + index.slotCount());
+		assertEquals(List.of("DAI-001"), skus(index.search("milk", null, null, 10)));
+		assertEquals("Whole Milk 9999", index.search("milk", null, null, 10).getHits().get(0).getName());
+		assertEquals(List.of("FRU-001"), skus(index.search("nana", null, null, 10)));
+	}
+}
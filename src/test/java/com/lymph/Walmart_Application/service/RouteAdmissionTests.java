@@ -0,0 +1,109 @@
+package com.lymph.Walmart_Application.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RouteAdmissionTests {
+
+	private final ExecutorService computeExecutor = Executors.newSingleThreadExecutor();
+	private final RouteAdmission admission = new RouteAdmission();
+	private final CountDownLatch busy = new CountDownLatch(1);
+	private final CountDownLatch release = new CountDownLatch(1);
+
+	@BeforeEach
+	void setUp() throws InterruptedException {
+		ReflectionTestUtils.setField(admission, "computeExecutor", computeExecutor);
+		ReflectionTestUtils.setField(admission, "maxQueue", 3);
+		ReflectionTestUtils.setField(admission, "retryAfter", Duration.ofSeconds(2));
+		// Occupies the only compute thread, so everything admitted afterwards waits in the queue.
+		admission.submit(() -> {
+			busy.countDown();
+			await(release);
+			return null;
+		});
+		assertTrue(busy.await(5, TimeUnit.SECONDS));
+	}
+
+	@AfterEach
+	void tearDown() {
+		release.countDown();
+		computeExecutor.shutdown();
+	}
+
+	@Test
+	void refusesWorkBeyondTheQueueLimitAndRunsWhatWasAdmitted() throws Exception {
+		List<CompletableFuture<Integer>> admitted = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			int value = i;
+			admitted.add(admission.submit(() -> value));
+		}
+		assertEquals(3, admission.queued());
+
+		ComputeOverloadedException refused = assertThrows(ComputeOverloadedException.class,
+				() -> admission.submit(() -> 3));
+		assertEquals(Duration.ofSeconds(2), refused.getRetryAfter());
+		assertThrows(ComputeOverloadedException.class, () -> admission.submitAll(tasks(2)));
+		assertEquals(3, admission.rejectedCount());
+
+		release.countDown();
+		for (int i = 0; i < 3; i++) assertEquals(i, admitted.get(i).get(5, TimeUnit.SECONDS));
+		assertEquals(0, admission.queued());
+	}
+
+	@Test
+	void batchLargerThanTheQueueHoldsAtMostMaxQueueSlots() throws Exception {
+		List<CompletableFuture<Integer>> batch = admission.submitAll(tasks(10));
+		assertEquals(3, admission.queued());
+		assertThrows(ComputeOverloadedException.class, () -> admission.submit(() -> 0));
+
+		release.countDown();
+		for (int i = 0; i < 10; i++) assertEquals(i, batch.get(i).get(5, TimeUnit.SECONDS));
+		assertEquals(0, admission.queued());
+		assertEquals(11, admission.startedCount());
+	}
+
+	@Test
+	void failedTaskCompletesItsFutureExceptionally() {
+		CompletableFuture<Integer> failing = admission.submit(() -> {
+			throw new IllegalArgumentException("Cart must not be null.");
+		});
+		release.countDown();
+
+		CompletionException failure = assertThrows(CompletionException.class, failing::join);
+		assertEquals("Cart must not be null.", failure.getCause().getMessage());
+	}
+
+	private static List<Supplier<Integer>> tasks(int count) {
+		List<Supplier<Integer>> tasks = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			int value = i;
+			tasks.add(() -> value);
+		}
+		return tasks;
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,132 @@
+package com.lymph.Walmart_Application.service;
+
+import com.lymph.Walmart_Application.entity.Location;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RouteCacheTests {
+
+	private static final NavigationGraph.Snapshot GRAPH = NavigationGraph.Snapshot.build(1, List.of());
+
+	private static RouteCache.Key key(String... waypointIds) {
+		return new RouteCache.Key(NavigationGraph.DEFAULT_STORE, List.of(waypointIds), 1, 0, 1, 20);
+	}
+
+	private static RoutePlan plan(String... waypointPath) {
+		return new RoutePlan(new ArrayList<Location>(), List.of(), waypointPath.length, List.of(), List.of(), 0,
+				List.of(waypointPath), 1);
+	}
+
+	private static Closure aisle(String fromId, String toId) {
+		Closure closure = new Closure();
+		closure.setFromId(fromId);
+		closure.setToId(toId);
+		return closure;
+	}
+
+	@Test
+	void closingAnAisleEvictsOnlyTheRoutesThatWalkThroughIt() {
+		RouteCache cache = new RouteCache(true, 10_000, Duration.ofMinutes(10));
+		RoutePlan throughAisle = plan("entrance", "a", "b", "checkout");
+		RoutePlan elsewhere = plan("entrance", "c", "checkout");
+		cache.get(key("b"), () -> throughAisle);
+		cache.get(key("c"), () -> elsewhere);
+
+		cache.onClosuresChanged(new ClosuresChangedEvent(GRAPH, aisle("b", "a"), false));
+
+		AtomicInteger planned = new AtomicInteger();
+		assertSame(elsewhere, cache.get(key("c"), () -> {
+			planned.incrementAndGet();
+			return plan();
+		}));
+		assertEquals(0, planned.get());
+		cache.get(key("b"), () -> {
+			planned.incrementAndGet();
+			return plan("entrance", "d", "b", "checkout");
+		});
+		assertEquals(1, planned.get());
+	}
+
+	@Test
+	void reopeningEvictsRoutesPlannedAroundClosures() {
+		RouteCache cache = new RouteCache(true, 10_000, Duration.ofMinutes(10));
+		RoutePlan detour = new RoutePlan(new ArrayList<>(), List.of(), 3, List.of(), List.of(), 0,
+				List.of("entrance", "d", "checkout"), 2); // planned on a closure overlay, version 2
+		RoutePlan open = plan("entrance", "c", "checkout");
+		cache.get(key("d"), () -> detour);
+		cache.get(key("c"), () -> open);
+
+		cache.onClosuresChanged(new ClosuresChangedEvent(GRAPH, aisle("a", "b"), true));
+
+		assertSame(open, cache.get(key("c"), RouteCacheTests::plan));
+		RoutePlan replanned = plan("entrance", "a", "d", "checkout");
+		assertSame(replanned, cache.get(key("d"), () -> replanned));
+	}
+
+	@Test
+	void routesPlannedOnAGraphFromBeforeAClosureAreNotKept() {
+		RouteCache cache = new RouteCache(true, 10_000, Duration.ofMinutes(10));
+		long generation = cache.closureGeneration(NavigationGraph.DEFAULT_STORE); // read with the open graph
+		cache.onClosuresChanged(new ClosuresChangedEvent(GRAPH, aisle("a", "b"), false));
+
+		RoutePlan stale = plan("entrance", "a", "b", "checkout");
+		assertSame(stale, cache.get(key("b"), generation, () -> stale));
+		RoutePlan replanned = plan("entrance", "d", "b", "checkout");
+		assertSame(replanned, cache.get(key("b"), () -> replanned));
+		assertSame(replanned, cache.get(key("b"), RouteCacheTests::plan));
+	}
+
+	@Test
+	void concurrentMissesForOneKeyShareOneComputation() throws Exception {
+		RouteCache cache = new RouteCache(true, 10_000, Duration.ofMinutes(10));
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger planned = new AtomicInteger();
+		RoutePlan result = plan("entrance", "a", "checkout");
+		ExecutorService callers = Executors.newFixedThreadPool(5);
+
+		CompletableFuture<RoutePlan> first = CompletableFuture.supplyAsync(() -> cache.get(key("a"), () -> {
+			planned.incrementAndGet();
+			started.countDown();
+			await(release);
+			return result;
+		}), callers);
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+		List<CompletableFuture<RoutePlan>> waiters = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			waiters.add(CompletableFuture.supplyAsync(() -> cache.get(key("a"), () -> {
+				planned.incrementAndGet();
+				return plan();
+			}), callers));
+		}
+		while (cache.coalescedCount() < waiters.size()) Thread.onSpinWait();
+		release.countDown();
+
+		assertSame(result, first.get(5, TimeUnit.SECONDS));
+		for (CompletableFuture<RoutePlan> waiter : waiters) assertSame(result, waiter.get(5, TimeUnit.SECONDS));
+		assertEquals(1, planned.get());
+		assertEquals(1, cache.missCount());
+		callers.shutdown();
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
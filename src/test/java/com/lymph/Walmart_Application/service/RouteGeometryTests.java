@@ -0,0 +1,46 @@
+package com.lymph.Walmart_Application.service;
+
+import com.lymph.Walmart_Application.entity.Location;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RouteGeometryTests {
+
+	@Test
+	void encodedPolylineRoundTripsAtItsPrecision() {
+		List<Location> points = List.of(new Location(300, 750, 0), new Location(312.34, 749.96, 0),
+				new Location(-5.5, 0.04, 5), new Location(-5.5, 0.04, 5));
+		List<Location> decoded = RouteGeometry.decode(RouteGeometry.encode(points, 10), 10);
+		assertEquals(points.size(), decoded.size());
+		for (int i = 0; i < points.size(); i++) {
+			assertEquals(points.get(i).getX(), decoded.get(i).getX(), 0.05);
+			assertEquals(points.get(i).getY(), decoded.get(i).getY(), 0.05);
+			assertEquals(points.get(i).getZ(), decoded.get(i).getZ(), 0.05);
+		}
+	}
+
+	@Test
+	void mergesCollinearPointsButKeepsStopsAndCorners() {
+		// entrance -> a1 -> a2 -> a3 (stop) -> corner -> checkout, where a1, a2 and a3 lie on one aisle.
+		List<String> ids = List.of("entrance", "a1", "a2", "a3", "corner", "checkout");
+		List<Location> path = List.of(new Location(0, 0, 0), new Location(10, 0.1, 0), new Location(20, 0, 0),
+				new Location(30, 0, 0), new Location(40, 0.2, 0), new Location(40, 30, 0));
+		RoutePlan plan = new RoutePlan(new ArrayList<>(path), List.of("entrance", "a2", "checkout"), 70, List.of(),
+				List.of(), 0, ids, 1);
+
+		CompactRoute route = RouteGeometry.compact(plan, Map.of("SKU-1", "a2", "SKU-2", "a2"), 0.5, 10);
+
+		List<Location> decoded = RouteGeometry.decode(route.getPolyline(), route.getPrecision());
+		assertEquals(List.of(new Location(0, 0, 0), new Location(20, 0, 0), new Location(40, 0.2, 0),
+				new Location(40, 30, 0)), decoded);
+		assertEquals(3, route.getStops().size());
+		assertEquals(1, route.getStops().get(1).getIndex());
+		assertEquals(List.of("SKU-1", "SKU-2"), route.getStops().get(1).getSkus());
+		assertEquals(3, route.getStops().get(2).getIndex());
+	}
+}
@@ -0,0 +1,97 @@
+package com.lymph.Walmart_Application.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SvgTilerTests {
+
+	private static final String PLAN = """
+			<?xml version="1.0"?>
+			<svg xmlns="http://www.w3.org/2000/svg" width="200" height="100" viewBox="0 0 400 200">
+			  <metadata>editor state</metadata>
+			  <style>.aisle { fill: #ccc; }</style>
+			  <rect id="entrance" class="aisle" x="10" y="10" width="50" height="50" stroke-width="0"/>
+			  <g id="back" transform="translate(200, 0) scale(2)">
+			    <path id="freezer" d="M 50 10 h 40 v 40 h -40 z" stroke-width="0"/>
+			  </g>
+			  <circle id="dot" cx="300" cy="150" r="0.5" stroke-width="0"/>
+			</svg>
+			""";
+
+	@Test
+	void putsElementsOnlyInTilesTheyOverlap() {
+		SvgTiler tiler = SvgTiler.parse(stream(PLAN));
+		assertEquals(400, tiler.side());
+		assertEquals(0.5, tiler.scale());
+
+		Map<String, String> tiles = tiler.tiles(1, 1);
+		// Level 1 tiles are 200 units: the rect is in 0/0, the transformed path (300..380, 20..100) in 1/0.
+		assertTrue(tiles.get("1/0/0").contains("id=\"entrance\""));
+		assertFalse(tiles.get("1/0/0").contains("freezer"));
+		assertTrue(tiles.get("1/1/0").contains("<g id=\"back\" transform=\"translate(200, 0) scale(2)\"><path id=\"freezer\""));
+		assertFalse(tiles.get("1/1/0").contains("entrance"));
+		assertFalse(tiles.containsKey("1/0/1"));
+		assertTrue(tiles.get("1/1/0").contains(".aisle { fill: #ccc; }"));
+		assertFalse(tiles.get("1/1/0").contains("editor state"));
+		assertTrue(tiles.get("1/1/0").contains("viewBox=\"200 0 200 200\""));
+	}
+
+	@Test
+	void dropsFeaturesTooSmallToSeeAtLowZoom() {
+		Map<String, String> tiles = SvgTiler.parse(stream(PLAN)).tiles(3, 1);
+		// One unit is 256/400 pixels at level 0 and 2048/400 at level 3.
+		assertFalse(tiles.get("0/0/0").contains("id=\"dot\""));
+		assertTrue(tiles.get("3/6/3").contains("id=\"dot\""));
+	}
+
+	@Test
+	void leavesOutEverythingThatCouldRunScript() {
+		String upload = """
+				<svg xmlns="http://www.w3.org/2000/svg" xmlns:xlink="http://www.w3.org/1999/xlink"
+				     xmlns:html="http://www.w3.org/1999/xhtml" width="100" height="100" onload="alert(1)">
+				  <defs><pattern id="p"><script>alert(2)</script><rect width="1" height="1"/></pattern></defs>
+				  <g id="shelves" onclick="alert(3)">
+				    <script>alert(4)</script>
+				    <html:script>alert(5)</html:script>
+				    <foreignObject width="10" height="10"><div>alert(6)</div></foreignObject>
+				    <a href="javascript:alert(7)"><rect id="aisle" x="0" y="0" width="10" height="10" ONMOUSEOVER="alert(8)"/></a>
+				    <a xlink:href=" JavaScript:alert(9)"><text x="10" y="50">Dairy<set attributeName="onclick" to="alert(10)"/></text></a>
+				    <rect id="link" x="20" y="20" width="10" height="10"><set attributeName="xlink:href" to="javascript:alert(11)"/></rect>
+				    <use href="#p"/>
+				    <image href="data:image/png;base64,AAAA" x="30" y="30" width="10" height="10"/>
+				    <image xlink:href="https://example.com/tracker.png" x="40" y="40" width="10" height="10"/>
+				  </g>
+				</svg>
+				""";
+		SvgTiler tiler = SvgTiler.parse(stream(upload));
+		String tile = tiler.tiles(0, 0).get("0/0/0");
+
+		for (int i = 1; i <= 11; i++) assertFalse(tile.contains("alert(" + i + ")"), "alert(" + i + ") in " + tile);
+		assertFalse(tile.contains("foreignObject"));
+		assertFalse(tile.contains("tracker.png"));
+		assertTrue(tile.contains("<g id=\"shelves\">"));
+		assertTrue(tile.contains("<a><rect id=\"aisle\" x=\"0\" y=\"0\" width=\"10\" height=\"10\"></rect>"));
+		assertTrue(tile.contains("Dairy"));
+		assertTrue(tile.contains("<use href=\"#p\">"));
+		assertTrue(tile.contains("href=\"data:image/png;base64,AAAA\""));
+		assertFalse(tiler.overview(100, 0).contains("alert("));
+	}
+
+	@Test
+	void refusesDocumentsThatAreNotSvg() {
+		assertThrows(IllegalArgumentException.class, () -> SvgTiler.parse(stream("<html><body/></html>")));
+		assertThrows(IllegalArgumentException.class, () -> SvgTiler.parse(stream("<svg")));
+	}
+
+	private static ByteArrayInputStream stream(String text) {
+		return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+	}
+}
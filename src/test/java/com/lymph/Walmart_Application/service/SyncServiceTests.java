@@ -0,0 +1,104 @@
+package com.lymph.Walmart_Application.service;
+
+import com.lymph.Walmart_Application.entity.Product;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Answers;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SyncServiceTests {
+
+	private final MongoTemplate mongoTemplate = mock(MongoTemplate.class, Answers.RETURNS_DEEP_STUBS);
+	private final ChangeTracker changeTracker = mock(ChangeTracker.class);
+	private final List<Product> products = new ArrayList<>();
+	private final SyncService syncService = new SyncService();
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(syncService, "mongoTemplate", mongoTemplate);
+		ReflectionTestUtils.setField(syncService, "changeTracker", changeTracker);
+		ReflectionTestUtils.setField(syncService, "maxPageSize", 1000);
+		when(mongoTemplate.getCollectionName(Product.class)).thenReturn("product");
+		// Evaluates the page query the way Mongo would: sku > cursor, ordered by sku, limited.
+		when(mongoTemplate.find(any(Query.class), eq(Product.class))).thenAnswer(invocation -> {
+			Query query = invocation.getArgument(0);
+			Document sku = query.getQueryObject().get("sku", Document.class);
+			String after = sku == null ? null : sku.getString("$gt");
+			return products.stream()
+					.filter(product -> after == null || product.getSku().compareTo(after) > 0)
+					.sorted(Comparator.comparing(Product::getSku))
+					.limit(query.getLimit())
+					.toList();
+		});
+	}
+
+	private void insert(String... skus) {
+		for (String sku : skus) {
+			Product product = new Product();
+			product.setSku(sku);
+			products.add(product);
+		}
+	}
+
+	private static List<String> skus(SyncService.Page<Product> page) {
+		return page.items().stream().map(Product::getSku).toList();
+	}
+
+	@Test
+	void cursorPagesNeitherRepeatNorSkipDocumentsWhenOthersAreInserted() {
+		insert("a", "c", "e", "g");
+		SyncService.Page<Product> first = syncService.page(Product.class, null, "sku", Product::getSku, null, 2);
+		assertEquals(List.of("a", "c"), skus(first));
+		assertEquals("c", first.nextCursor());
+
+		insert("b", "d"); // one before the cursor, one after it
+		SyncService.Page<Product> second = syncService.page(Product.class, null, "sku", Product::getSku,
+				first.nextCursor(), 2);
+		assertEquals(List.of("d", "e"), skus(second));
+		SyncService.Page<Product> last = syncService.page(Product.class, null, "sku", Product::getSku,
+				second.nextCursor(), 2);
+		assertEquals(List.of("g"), skus(last));
+		assertNull(last.nextCursor());
+	}
+
+	@Test
+	void changesSinceListsTombstonesOfKeysNotWrittenAgain() {
+		when(changeTracker.watermark(Product.class)).thenReturn(12L);
+		when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("product")))
+				.thenReturn(Stream.of(new Document("sku", "kept"), new Document("sku", "recreated")));
+		when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq(ChangeTracker.TOMBSTONES)))
+				.thenReturn(Stream.of(new Document("key", "removed"), new Document("key", "recreated")));
+
+		ChangeSet changes = syncService.changesSince(Product.class, "sku", 7);
+
+		assertEquals(7, changes.getSince());
+		assertEquals(12, changes.getVersion());
+		assertEquals(List.of("kept", "recreated"), changes.getUpserted());
+		assertEquals(List.of("removed"), changes.getDeleted());
+	}
+
+	@Test
+	void changesSinceTheCurrentVersionIsEmpty() {
+		when(changeTracker.watermark(Product.class)).thenReturn(12L);
+
+		ChangeSet changes = syncService.changesSince(Product.class, "sku", 12);
+
+		assertEquals(List.of(), changes.getUpserted());
+		assertEquals(List.of(), changes.getDeleted());
+	}
+}
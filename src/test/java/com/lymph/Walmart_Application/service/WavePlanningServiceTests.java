@@ -0,0 +1,23 @@
+package com.lymph.Walmart_Application.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class WavePlanningServiceTests {
+
+	@Test
+	void batchesNearbyOrdersWithinCapacity() {
+		// Two orders in a far aisle, two near the entrance, one large order in the middle.
+		double[][] sums = {{100, 0, 0}, {5, 0, 0}, {102, 0, 0}, {8, 0, 0}, {50, 0, 0}};
+		int[] points = {1, 1, 1, 1, 1};
+		int[] items = {2, 2, 2, 2, 9};
+		int[] totes = {1, 1, 1, 1, 1};
+
+		List<List<Integer>> batches = WavePlanningService.batch(sums, points, items, totes, new double[3], 6, 2);
+
+		assertEquals(List.of(List.of(2, 0), List.of(4), List.of(3, 1)), batches);
+	}
+}
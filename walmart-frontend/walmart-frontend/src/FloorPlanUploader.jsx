@@ -17,23 +17,23 @@ function FloorPlanUploader({ onUploadSuccess }) {
 
     setMessage('Uploading...');
     try {
-        const responseText = await uploadFloorPlan(selectedFile);
-        setMessage(responseText || 'Upload failed. See console for details.');
-        if (responseText && onUploadSuccess) {
+        const plan = await uploadFloorPlan(selectedFile);
+        setMessage(`Floor plan ${plan.id} uploaded (${Object.keys(plan.tiles).length} tiles).`);
+        if (onUploadSuccess) {
             onUploadSuccess(); 
         }
     } catch (error) {
-        setMessage('Upload failed. The backend for this feature is not implemented.');
+        setMessage('Upload failed. Only SVG floor plans are supported; see console for details.');
     }
   };
 
   return (
     <div className="floor-plan-uploader">
       <h4>Upload New Floor Plan</h4>
-      <p>Replace the current map image (JPG, PNG, SVG). Note: Backend for this is not implemented.</p>
+      <p>Replace the current map with an SVG floor plan. It is split into tiles so the map only loads what is on screen.</p>
       
       <div className="upload-controls">
-        <input type="file" accept="image/jpeg, image/png, image/svg+xml" onChange={handleFileChange} />
+        <input type="file" accept="image/svg+xml" onChange={handleFileChange} />
         <button onClick={handleUpload} disabled={!selectedFile}>
           Upload
         </button>
@@ -1,37 +1,82 @@
-import React from 'react';
+import React, { useEffect, useRef } from 'react';
+import L from 'leaflet';
+import 'leaflet/dist/leaflet.css';
+import { fetchCurrentFloorPlan, mapAssetUrl } from './api';
+
+// Route points are in floor-plan pixels (1200 x 800, y down); Leaflet positions are [y, x].
+const DEFAULT_BOUNDS = [[0, 0], [800, 1200]];
+const BLANK_TILE = 'data:image/gif;base64,R0lGODlhAQABAIAAAAAAAP///yH5BAEAAAAALAAAAAABAAEAAAIBRAA7';
+
+// Only tiles listed in the manifest exist; the others are empty and never requested.
+const ManifestTileLayer = L.TileLayer.extend({
+  getTileUrl(coords) {
+    const path = this.options.manifest.tiles[`${coords.z}/${coords.x}/${coords.y}`];
+    return path ? mapAssetUrl(path) : BLANK_TILE;
+  },
+});
+
+// Maps floor-plan pixels onto the tile pyramid, whose level 0 tile covers plan.side viewBox units.
+const floorPlanCrs = (plan) => {
+  const k = plan.tileSize / (plan.side * plan.scale);
+  return L.extend({}, L.CRS.Simple, {
+    transformation: new L.Transformation(k, -k * plan.offsetX, k, -k * plan.offsetY),
+  });
+};
 
 function MapView({ route, onBack }) {
-  const generatePath = (routeData) => {
-    if (!routeData || routeData.length === 0) return "";
-    const firstPoint = routeData[0];
-    let pathString = `M ${firstPoint.x} ${firstPoint.y}`;
-    for (let i = 1; i < routeData.length; i++) {
-      const point = routeData[i];
-      pathString += ` L ${point.x} ${point.y}`;
-    }
-    return pathString;
-  };
-
-  const pathData = generatePath(route);
+  const containerRef = useRef(null);
+
+  useEffect(() => {
+    let map;
+    let cancelled = false;
+
+    const draw = (plan) => {
+      if (cancelled) return;
+      map = L.map(containerRef.current, {
+        crs: plan ? floorPlanCrs(plan) : L.CRS.Simple,
+        zoomSnap: 0.25,
+        attributionControl: false,
+      });
+      const bounds = L.latLngBounds(plan ? [[0, 0], [plan.height, plan.width]] : DEFAULT_BOUNDS);
+      if (plan) {
+        // The overview shows at once; tiles replace it as they arrive.
+        const planBounds = [[plan.offsetY, plan.offsetX], [plan.height - plan.offsetY, plan.width - plan.offsetX]];
+        L.imageOverlay(mapAssetUrl(plan.overview), planBounds).addTo(map);
+        new ManifestTileLayer('', {
+          manifest: plan,
+          tileSize: plan.tileSize,
+          minZoom: -2,
+          maxNativeZoom: plan.maxZoom,
+          maxZoom: plan.maxZoom + 3,
+          noWrap: true,
+          bounds: planBounds,
+        }).addTo(map);
+      } else {
+        L.imageOverlay('/walmart-map.svg', DEFAULT_BOUNDS).addTo(map);
+      }
+      map.fitBounds(bounds);
+      map.setMinZoom(map.getZoom() - 1);
+
+      if (route.length > 0) {
+        const points = route.map((point) => [point.y, point.x]);
+        L.polyline(points, { color: 'red', weight: 5, lineJoin: 'round', lineCap: 'round' }).addTo(map);
+        L.circleMarker(points[0], { radius: 10, color: 'green', fillColor: 'green', fillOpacity: 1 }).addTo(map);
+        L.circleMarker(points[points.length - 1], { radius: 10, color: 'blue', fillColor: 'blue', fillOpacity: 1 }).addTo(map);
+      }
+    };
+
+    fetchCurrentFloorPlan().then(draw, () => draw(null));
+    return () => {
+      cancelled = true;
+      if (map) map.remove();
+    };
+  }, [route]);
 
   return (
     <div className="map-view">
       <h2>Your Optimized Route</h2>
       <p>Follow the red line to gather your items efficiently!</p>
-      <div className="map-container">
-        <img src="/walmart-map.svg" alt="Store Floor Plan" />
-        <svg className="path-overlay" width="1200" height="800" viewBox="0 0 1200 800">
-          {route.length > 0 && (
-            <>
-              <path d={pathData} fill="none" stroke="red" strokeWidth="5" strokeLinejoin="round" strokeLinecap="round" />
-              {/* Start Circle */}
-              <circle cx={route[0].x} cy={route[0].y} r="10" fill="green" />
-              {/* End Circle */}
-              <circle cx={route[route.length - 1].x} cy={route[route.length - 1].y} r="10" fill="blue" />
-            </>
-          )}
-        </svg>
-      </div>
+      <div className="map-container" ref={containerRef} />
       <button onClick={onBack} style={{ marginTop: '1rem' }}>Start New List</button>
     </div>
   );
@@ -1,4 +1,5 @@
 const API_BASE_URL = 'http://localhost:8080/api';
+const MAPS_BASE_URL = 'http://localhost:8080/maps';
 
 const apiFetch = async (url, options = {}) => {
   try {
@@ -33,4 +34,35 @@ export const assignProductToWaypoint = (sku, waypointId) => apiFetch(`${API_BASE
 export const getSettings = () => apiFetch(`${API_BASE_URL}/settings`);
 export const updateSettingLocation = (type, location) => apiFetch(`${API_BASE_URL}/settings/location/${type}`, { method: 'PUT', headers: { 'Content-Type': 'application/json' }, body: JSON.stringify(location) });
 export const fetchOptimizedRoute = (productSkus) => apiFetch(`${API_BASE_URL}/products/optimize-route`, { method: 'POST', headers: { 'Content-Type': 'application/json' }, body: JSON.stringify(productSkus) });
-export const uploadFloorPlan = async () => Promise.resolve("Upload functionality is a placeholder.");
+export const fetchCompactRoute = (productSkus) => apiFetch(`${API_BASE_URL}/products/optimize-route?format=compact`, { method: 'POST', headers: { 'Content-Type': 'application/json' }, body: JSON.stringify(productSkus) });
+
+// Decodes CompactRoute.polyline: three zig-zag, delta-encoded values (x, y, z) per point, scaled by precision.
+export const decodeRoutePolyline = (polyline, precision) => {
+  const points = [];
+  const values = [0, 0, 0];
+  let i = 0;
+  while (i < polyline.length) {
+    for (let axis = 0; axis < 3; axis++) {
+      let result = 0;
+      let shift = 0;
+      let chunk;
+      do {
+        chunk = polyline.charCodeAt(i++) - 63;
+        result += (chunk & 0x1f) * 2 ** shift;
+        shift += 5;
+      } while (chunk >= 0x20);
+      values[axis] += result % 2 ? -(result + 1) / 2 : result / 2;
+    }
+    points.push({ x: values[0] / precision, y: values[1] / precision, z: values[2] / precision });
+  }
+  return points;
+};
+
+// Floor plans are tiled on upload; the manifest maps "z/x/y" to tile paths served under /maps/.
+export const uploadFloorPlan = (file) => {
+  const body = new FormData();
+  body.append('file', file);
+  return apiFetch(`${API_BASE_URL}/maps`, { method: 'POST', body });
+};
+export const fetchCurrentFloorPlan = () => apiFetch(`${API_BASE_URL}/maps/current`);
+export const mapAssetUrl = (path) => `${MAPS_BASE_URL}/${path}`;